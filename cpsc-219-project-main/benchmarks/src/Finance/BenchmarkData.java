@@ -0,0 +1,72 @@
+package Finance;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+
+/**
+ * Generates the synthetic users and data files the benchmarks run against.
+ */
+final class BenchmarkData {
+    static final String[] CATEGORIES = {"Food", "Utilities", "Rent", "Entertainment", "Transportation", "Other"};
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * Writes a data file in userData.txt format with users named user0, user1, ...
+     * Each user has the given number of transactions and a Food budget limit.
+     * @param file file to write
+     * @param users number of users
+     * @param transactionsPerUser transactions stored for each user
+     */
+    static void writeUsers(Path file, int users, int transactionsPerUser) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(file)) {
+            for (int u = 0; u < users; u++) {
+                writer.write("user" + u + ",password" + u + ",nick" + u);
+                writer.newLine();
+                writer.write("TRANSACTIONS:");
+                writer.newLine();
+                for (int t = 0; t < transactionsPerUser; t++) {
+                    writer.write(transaction(LocalDate.of(2024, 1, 1).plusDays(t), t).toString());
+                    writer.newLine();
+                }
+                writer.write("RECURRING TRANSACTIONS:");
+                writer.newLine();
+                writer.write("BUDGET LIMITS:");
+                writer.newLine();
+                writer.write("Food,500.0");
+                writer.newLine();
+                writer.write("---");
+                writer.newLine();
+            }
+        }
+    }
+
+    /**
+     * Builds an in-memory user whose history ends today, with budget limits on every category and a few
+     * recurring transactions.
+     * @param transactions number of one-time transactions
+     * @return the user
+     */
+    static User historyUser(int transactions) {
+        User user = new User("bench", "password", "nick");
+        LocalDate today = LocalDate.now();
+        for (int t = 0; t < transactions; t++) {
+            user.addTransaction(transaction(today.minusDays(t % 730), t));
+        }
+        for (String category : CATEGORIES) {
+            user.getBudgetLimits().put(category, 500.0);
+        }
+        user.addRecurringTransaction(new RecurringTransaction("Rent", 1200, "monthly", "Expense"));
+        user.addRecurringTransaction(new RecurringTransaction("Pay-cheque", 1500, "bi-weekly", "Income"));
+        return user;
+    }
+
+    private static Transaction transaction(LocalDate date, int t) {
+        return new Transaction(date, CATEGORIES[t % CATEGORIES.length], 5 + (t % 400) * 0.25,
+                t % 10 == 0 ? "Income" : "Expense");
+    }
+}
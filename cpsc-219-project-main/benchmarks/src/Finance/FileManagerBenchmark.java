@@ -0,0 +1,94 @@
+package Finance;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Latency of the FileManager operations against data files holding 1k, 100k and 1M users with a handful of
+ * transactions each. saveUser and updateUser grow the file as they run, by one small block or line per
+ * call, which is negligible next to the file sizes measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class FileManagerBenchmark {
+    private static final int TRANSACTIONS_PER_USER = 5;
+
+    @Param({"1000", "100000", "1000000"})
+    int users;
+
+    Path directory;
+    String fileName;
+    private int random = 1; // State of a small LCG that picks existing users.
+    private int created; // Number of users added by saveUser so far.
+    private int misses; // Number of unknown usernames checked so far.
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("finpal-bench");
+        fileName = directory.resolve("userData.txt").toString();
+        BenchmarkData.writeUsers(Path.of(fileName), users, TRANSACTIONS_PER_USER);
+        FileManager.checkExists("user0", fileName); // Build the index outside the measurement.
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    String existingUser() {
+        random = random * 1103515245 + 12345;
+        return "user" + ((random >>> 1) % users);
+    }
+
+    /**
+     * A freshly loaded user with one new transaction, ready to be written back.
+     */
+    @State(Scope.Thread)
+    public static class PendingUpdate {
+        User user;
+
+        @Setup(Level.Invocation)
+        public void setUp(FileManagerBenchmark benchmark) {
+            user = FileManager.loadUser(benchmark.existingUser(), benchmark.fileName);
+            user.addTransaction(new Transaction(LocalDate.of(2024, 6, 1), "Food", 12.5, "Expense"));
+        }
+    }
+
+    @Benchmark
+    public User loadUser() {
+        return FileManager.loadUser(existingUser(), fileName);
+    }
+
+    @Benchmark
+    public boolean checkExistsHit() {
+        return FileManager.checkExists(existingUser(), fileName);
+    }
+
+    @Benchmark
+    public boolean checkExistsMiss() {
+        return FileManager.checkExists("nobody" + misses++, fileName);
+    }
+
+    @Benchmark
+    public void saveUser() {
+        FileManager.saveUser(new User("new" + created++, "password", "nick"), fileName);
+    }
+
+    @Benchmark
+    public void updateUser(PendingUpdate update) {
+        FileManager.updateUser(update.user, fileName);
+    }
+}
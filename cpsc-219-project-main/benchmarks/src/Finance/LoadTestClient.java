@@ -0,0 +1,106 @@
+package Finance;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Load test for {@link FinPalServer}. Each simulated client registers its own user, logs in and then
+ * alternates between recording a transaction and reading insights. Prints throughput and latency
+ * percentiles over every request made after login.
+ * <p>
+ * Usage: java Finance.LoadTestClient [clients] [requestsPerClient] [baseUrl]
+ * Without a base URL, a server is started in this process on a temporary data file.
+ */
+public class LoadTestClient {
+    public static void main(String[] args) throws Exception {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 1_000;
+        int requestsPerClient = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        FinPalServer server = null;
+        String baseUrl;
+        if (args.length > 2) {
+            baseUrl = args[2];
+        } else {
+            Path directory = Files.createTempDirectory("finpal-load");
+            server = new FinPalServer(0, UserStore.forFile(directory.resolve("userData.txt").toString()));
+            server.start();
+            baseUrl = "http://localhost:" + server.getPort();
+        }
+
+        HttpClient http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(30)).build();
+        String runId = Long.toString(System.currentTimeMillis(), 36);
+        long[][] latencies = new long[clients][];
+        long start = System.nanoTime();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> futures = new ArrayList<>(clients);
+            for (int c = 0; c < clients; c++) {
+                int client = c;
+                futures.add(executor.submit(() -> {
+                    latencies[client] = runClient(http, baseUrl, "load" + runId + "x" + client, requestsPerClient);
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        long[] all = Arrays.stream(latencies).flatMapToLong(Arrays::stream).sorted().toArray();
+        System.out.printf("clients=%d requests=%d time=%.2f s%n", clients, all.length, seconds);
+        System.out.printf("throughput: %,.0f requests/s%n", all.length / seconds);
+        System.out.printf("latency p50=%.2f ms p99=%.2f ms max=%.2f ms%n",
+                percentile(all, 0.50) / 1e6, percentile(all, 0.99) / 1e6, all[all.length - 1] / 1e6);
+        if (server != null) {
+            server.stop(0);
+        }
+    }
+
+    /**
+     * Registers and logs in one user, then makes the measured requests.
+     * @return latency of each measured request in nanoseconds
+     */
+    private static long[] runClient(HttpClient http, String baseUrl, String username, int requests) throws IOException, InterruptedException {
+        String credentials = "{\"username\":\"" + username + "\",\"password\":\"load#test1\"}";
+        send(http, baseUrl, "POST", "/register", null, credentials);
+        String token = Json.parseObject(send(http, baseUrl, "POST", "/login", null, credentials).body()).get("token");
+        long[] latencies = new long[requests];
+        for (int r = 0; r < requests; r++) {
+            long before = System.nanoTime();
+            HttpResponse<String> response = r % 2 == 0
+                    ? send(http, baseUrl, "POST", "/transactions", token, "{\"category\":\"Food\",\"amount\":" + (r + 1) + ",\"type\":\"Expense\"}")
+                    : send(http, baseUrl, "GET", "/insights", token, null);
+            latencies[r] = System.nanoTime() - before;
+            if (response.statusCode() >= 400) {
+                throw new IllegalStateException("Request failed with " + response.statusCode() + ": " + response.body());
+            }
+        }
+        return latencies;
+    }
+
+    private static HttpResponse<String> send(HttpClient http, String baseUrl, String method, String path, String token, String body)
+            throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(Duration.ofSeconds(60))
+                .method(method, body == null ? HttpRequest.BodyPublishers.noBody() : HttpRequest.BodyPublishers.ofString(body));
+        if (token != null) {
+            request.header("Authorization", "Bearer " + token);
+        }
+        return http.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static long percentile(long[] sorted, double fraction) {
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(fraction * sorted.length) - 1)];
+    }
+}
@@ -0,0 +1,92 @@
+package Finance;
+
+import java.io.*;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+
+/**
+ * Measures bytes allocated per loaded transaction when loading a user from userData.txt, comparing the
+ * original String.split based loader with {@link UserDataParser}. The target user is stored last so both
+ * loaders have to get past every other user's block first.
+ * <p>
+ * Usage: java Finance.ParserAllocationBenchmark [users] [transactionsPerUser]
+ */
+public class ParserAllocationBenchmark {
+    private static final int ROUNDS = 20; // Measured loads per loader, after the same number of warm-up loads.
+
+    public static void main(String[] args) throws IOException {
+        int users = args.length > 0 ? Integer.parseInt(args[0]) : 2_000;
+        int transactionsPerUser = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+        Path file = Files.createTempFile("finpal-parser", ".txt");
+        file.toFile().deleteOnExit();
+        BenchmarkData.writeUsers(file, users, transactionsPerUser);
+        String target = "user" + (users - 1);
+
+        long before = measure(() -> legacyLoad(target, file.toString()));
+        long after = measure(() -> mappedLoad(target, file));
+        System.out.printf("users=%d transactions/user=%d file=%d bytes%n", users, transactionsPerUser, Files.size(file));
+        System.out.printf("split-based loader : %,d bytes/transaction%n", before / transactionsPerUser);
+        System.out.printf("UserDataParser     : %,d bytes/transaction%n", after / transactionsPerUser);
+    }
+
+    /**
+     * Returns the average number of bytes the current thread allocates per call, after warming up.
+     */
+    private static long measure(Runnable load) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        for (int i = 0; i < ROUNDS; i++) {
+            load.run();
+        }
+        long start = threads.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < ROUNDS; i++) {
+            load.run();
+        }
+        return (threads.getCurrentThreadAllocatedBytes() - start) / ROUNDS;
+    }
+
+    private static User mappedLoad(String username, Path file) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return UserDataParser.parse(data, username);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * The loader FileManager used before UserDataParser, kept here as the baseline.
+     */
+    private static User legacyLoad(String username, String fileName) {
+        try (BufferedReader reader = new BufferedReader(new FileReader(fileName))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] userData = line.split(",");
+                if (userData[0].equals(username)) {
+                    User user = new User(userData[0], userData[1], userData[2]);
+                    reader.readLine();
+                    while (!(line = reader.readLine()).equals("RECURRING TRANSACTIONS:")) {
+                        String[] transactionData = line.split(",");
+                        user.addTransaction(new Transaction(LocalDate.parse(transactionData[0]), transactionData[1], Double.parseDouble(transactionData[2]), transactionData[3]));
+                    }
+                    while (!(line = reader.readLine()).equals("BUDGET LIMITS:")) {
+                        String[] recurringTransactionData = line.split(",");
+                        user.addRecurringTransaction(new RecurringTransaction(recurringTransactionData[0], Double.parseDouble(recurringTransactionData[1]), recurringTransactionData[2], recurringTransactionData[3]));
+                    }
+                    while (!(line = reader.readLine()).equals("---")) {
+                        String[] budgetLimitData = line.split(",");
+                        user.getBudgetLimits().put(budgetLimitData[0], Double.parseDouble(budgetLimitData[1]));
+                    }
+                    return user;
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return null;
+    }
+}
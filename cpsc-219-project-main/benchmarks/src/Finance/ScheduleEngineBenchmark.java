@@ -0,0 +1,52 @@
+package Finance;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of projecting 30 years of cash flow for 10, 100 and 500 recurring transactions with a mix of
+ * frequencies, both by walking every occurrence in date order and by totalling the range directly.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ScheduleEngineBenchmark {
+    private static final String[] FREQUENCIES = {"daily", "weekly", "bi-weekly", "monthly"};
+    private static final LocalDate FROM = LocalDate.of(2025, 1, 1);
+    private static final LocalDate TO = FROM.plusYears(30).minusDays(1);
+
+    @Param({"10", "100", "500"})
+    int schedules;
+
+    private ScheduleEngine engine;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<RecurringTransaction> recurringTransactions = new ArrayList<>(schedules);
+        for (int i = 0; i < schedules; i++) {
+            recurringTransactions.add(new RecurringTransaction("Category" + i, 10 + i, FREQUENCIES[i % FREQUENCIES.length],
+                    i % 5 == 0 ? "Income" : "Expense", FROM.minusDays(i * 3L)));
+        }
+        engine = new ScheduleEngine(recurringTransactions, FROM);
+    }
+
+    @Benchmark
+    public void occurrences(Blackhole blackhole) {
+        for (ScheduleEngine.Occurrence occurrence : engine.occurrences(FROM, TO)) {
+            blackhole.consume(occurrence);
+        }
+    }
+
+    @Benchmark
+    public ScheduleEngine.Projection project() {
+        return engine.project(FROM, TO);
+    }
+}
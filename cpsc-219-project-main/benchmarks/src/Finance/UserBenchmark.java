@@ -0,0 +1,53 @@
+package Finance;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the user-facing reports and the budget check made when recording an expense, for histories of
+ * 100, 10k and 1M transactions. Console output is discarded so the numbers reflect formatting and
+ * aggregation rather than the terminal.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class UserBenchmark {
+    @Param({"100", "10000", "1000000"})
+    int transactions;
+
+    private User user;
+    private PrintStream console;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        console = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        user = BenchmarkData.historyUser(transactions);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.setOut(console);
+    }
+
+    @Benchmark
+    public void displayInsights() {
+        user.displayInsights();
+    }
+
+    @Benchmark
+    public void displayFinancialStatement() {
+        user.displayFinancialStatement();
+    }
+
+    @Benchmark
+    public void recordTransactionBudgetCheck() {
+        user.checkBudget("Food", 12.5);
+    }
+}
@@ -0,0 +1,322 @@
+package Finance;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Nightly job that computes the insights of every user in a data file and writes one summary line per user.
+ * The file is cut into regions at "---" user boundaries, and each region is mapped, parsed and aggregated by its
+ * own fork-join task, so the job scales with the number of cores instead of walking users one at a time.
+ * <p>
+ * Each line holds the user's total income, total expenses and net savings as shown by
+ * {@link User#displayInsights()}, followed by every budgeted category whose spending this month is over its limit:
+ * <pre>
+ * username,income,expenses,net,overBudget
+ * alice,2400.0,1350.5,1049.5,Food:420.0/400.0;Rent:1300.0/1200.0
+ * </pre>
+ * Users appear in the order they are stored. Transactions kept in binary segments and changes still in journals
+ * are included, as {@link FileManager#loadUser(String, String)} would. The job reads the files as they are, so
+ * it should run while nothing is writing to them.
+ * <p>
+ * Usage: java Finance.BatchReportJob [data file] [output file]
+ */
+public class BatchReportJob {
+    private static final String HEADER = "username,income,expenses,net,overBudget";
+    private static final long MIN_REGION_SIZE = 1 << 20; // Regions smaller than this are not worth a task.
+    private static final long MAX_REGION_SIZE = 256L << 20; // Largest region mapped at once.
+    private static final int REGIONS_PER_THREAD = 8; // Spare regions so fast threads can steal from slow ones.
+    private static final int SEARCH_WINDOW = 64 * 1024; // Bytes mapped at a time while looking for a boundary.
+
+    private final String fileName;
+    private final ForkJoinPool pool;
+
+    /**
+     * Totals of a finished run.
+     */
+    public static final class Result {
+        private final int users;
+        private final int usersOverBudget;
+        private final int errors;
+
+        Result(int users, int usersOverBudget, int errors) {
+            this.users = users;
+            this.usersOverBudget = usersOverBudget;
+            this.errors = errors;
+        }
+
+        /**
+         * @return number of users summarized
+         */
+        public int getUsers() {
+            return users;
+        }
+
+        /**
+         * @return number of users with at least one category over its budget limit
+         */
+        public int getUsersOverBudget() {
+            return usersOverBudget;
+        }
+
+        /**
+         * @return number of user blocks that could not be parsed and were left out
+         */
+        public int getErrors() {
+            return errors;
+        }
+    }
+
+    /**
+     * Creates a job that runs on the common fork-join pool.
+     * @param fileName data file to report on
+     */
+    public BatchReportJob(String fileName) {
+        this(fileName, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates a job that runs on the given pool.
+     * @param fileName data file to report on
+     * @param pool pool to parse and aggregate users on
+     */
+    public BatchReportJob(String fileName, ForkJoinPool pool) {
+        this.fileName = fileName;
+        this.pool = pool;
+    }
+
+    /**
+     * Summarizes every user and writes the summaries to a file, replacing it if it exists.
+     * @param output file to write the summaries to
+     * @return how many users were summarized
+     * @throws IOException if the data file cannot be read or the output cannot be written
+     */
+    public Result run(Path output) throws IOException {
+        try (Writer writer = Files.newBufferedWriter(output, StandardCharsets.UTF_8)) {
+            return run(writer);
+        }
+    }
+
+    /**
+     * Summarizes every user and writes the summaries to a writer. The writer is flushed but not closed.
+     * @param out writer to write the summaries to
+     * @return how many users were summarized
+     * @throws IOException if the data file cannot be read or the output cannot be written
+     */
+    public Result run(Writer out) throws IOException {
+        Writer writer = out instanceof BufferedWriter ? out : new BufferedWriter(out, 1 << 16);
+        writer.write(HEADER);
+        writer.write(System.lineSeparator());
+        Part part;
+        try (FileChannel channel = FileChannel.open(Path.of(fileName), StandardOpenOption.READ)) {
+            long[] bounds = regions(channel, pool.getParallelism());
+            // Journals are listed once up front rather than checked for every user.
+            Set<String> journaled = new HashSet<>(UserJournal.journaledUsers(fileName));
+            boolean segmented = new File(fileName + TransactionSegment.SEGMENT_SUFFIX).isDirectory();
+            part = pool.invoke(new RegionTask(new Scan(channel, bounds, journaled, segmented), 0, bounds.length - 1));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        for (String lines : part.lines) {
+            writer.write(lines);
+        }
+        writer.flush();
+        return new Result(part.users, part.usersOverBudget, part.errors);
+    }
+
+    /**
+     * Cuts a data file into regions of whole user blocks, enough of them to keep every thread of a pool busy.
+     * @param channel open data file
+     * @param parallelism number of threads that will work through the regions
+     * @return region boundaries; region i is [bounds[i], bounds[i + 1])
+     * @throws IOException if the file cannot be read or holds a block too large to map
+     */
+    static long[] regions(FileChannel channel, int parallelism) throws IOException {
+        long size = channel.size();
+        long target = Math.min(MAX_REGION_SIZE,
+                Math.max(MIN_REGION_SIZE, size / ((long) parallelism * REGIONS_PER_THREAD)));
+        List<Long> bounds = new ArrayList<>();
+        bounds.add(0L);
+        long start = 0;
+        while (size - start > target) {
+            long next = nextBlockStart(channel, start + target, size);
+            if (next - start > MAX_REGION_SIZE) {
+                throw new IOException("User block larger than " + MAX_REGION_SIZE + " bytes");
+            }
+            bounds.add(next);
+            start = next;
+        }
+        if (start < size) {
+            bounds.add(size);
+        }
+        return bounds.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    /**
+     * Finds the first byte after the next "---" separator line at or after an offset.
+     * @return offset of the next block's first byte; the file size if there is no further separator
+     */
+    private static long nextBlockStart(FileChannel channel, long from, long size) throws IOException {
+        // Back up one byte so a separator starting exactly at the offset is still seen after its newline.
+        long position = Math.max(0, from - 1);
+        while (position < size) {
+            // Windows overlap by five bytes, enough to hold "\n---\r\n" started in the previous one.
+            int length = (int) Math.min(SEARCH_WINDOW + 5L, size - position);
+            MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+            for (int i = 0; i < Math.min(SEARCH_WINDOW, length); i++) {
+                if (window.get(i) != '\n' || i + 4 > length
+                        || window.get(i + 1) != '-' || window.get(i + 2) != '-' || window.get(i + 3) != '-') {
+                    continue;
+                }
+                int end = i + 4;
+                if (end < length && window.get(end) == '\r') {
+                    end++;
+                }
+                if (end == length) {
+                    return size; // The separator ends the file without a line break.
+                }
+                if (window.get(end) == '\n') {
+                    return position + end + 1;
+                }
+            }
+            position += SEARCH_WINDOW;
+        }
+        return size;
+    }
+
+    /**
+     * Summary lines and counts for a run of consecutive regions.
+     */
+    private static final class Part {
+        private final List<String> lines = new ArrayList<>(); // One string per region, in file order.
+        private int users;
+        private int usersOverBudget;
+        private int errors;
+
+        Part append(Part next) {
+            lines.addAll(next.lines);
+            users += next.users;
+            usersOverBudget += next.usersOverBudget;
+            errors += next.errors;
+            return this;
+        }
+    }
+
+    /**
+     * What every task of one run shares.
+     * @param channel open data file
+     * @param bounds region boundaries; region i is [bounds[i], bounds[i + 1])
+     * @param journaled users with journaled changes
+     * @param segmented whether any user has a transaction segment
+     */
+    private record Scan(FileChannel channel, long[] bounds, Set<String> journaled, boolean segmented) {
+    }
+
+    /**
+     * Summarizes regions [first, last), splitting the run in half while it holds more than one region.
+     */
+    @SuppressWarnings("serial") // Forked in process only; Scan is not serializable and never needs to be.
+    private final class RegionTask extends RecursiveTask<Part> {
+        private final Scan scan;
+        private final int first;
+        private final int last;
+
+        RegionTask(Scan scan, int first, int last) {
+            this.scan = scan;
+            this.first = first;
+            this.last = last;
+        }
+
+        @Override
+        protected Part compute() {
+            if (last - first > 1) {
+                int middle = (first + last) >>> 1;
+                RegionTask right = new RegionTask(scan, middle, last);
+                right.fork();
+                Part left = new RegionTask(scan, first, middle).compute();
+                return left.append(right.join());
+            }
+            Part part = new Part();
+            if (last == first) {
+                return part; // Empty file.
+            }
+            MappedByteBuffer region;
+            try {
+                long start = scan.bounds()[first];
+                region = scan.channel().map(FileChannel.MapMode.READ_ONLY, start, scan.bounds()[last] - start);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            StringBuilder lines = new StringBuilder();
+            UserDataParser.forEachBlock(region, (username, offset, length) -> {
+                try {
+                    User user = UserDataParser.parseBlock(region.slice(offset, length));
+                    // Same steps as FileManager.loadUser: segment transactions, then journaled changes.
+                    if (scan.segmented() && TransactionSegment.exists(username, fileName)) {
+                        for (Transaction transaction : TransactionSegment.read(username, fileName)) {
+                            user.addTransaction(transaction);
+                        }
+                    }
+                    if (scan.journaled().contains(username)) {
+                        UserJournal.replay(user, fileName);
+                    }
+                    if (summarize(user, lines)) {
+                        part.usersOverBudget++;
+                    }
+                    part.users++;
+                } catch (IllegalStateException | IllegalArgumentException e) {
+                    part.errors++;
+                }
+            });
+            part.lines.add(lines.toString());
+            return part;
+        }
+    }
+
+    /**
+     * Appends one user's summary line.
+     * @return true if any category's spending this month is over its budget limit
+     */
+    static boolean summarize(User user, StringBuilder out) {
+        InsightAggregates insights = user.getInsights();
+        double income = insights.getTotalIncome();
+        double expenses = insights.getTotalExpenses();
+        out.append(user.getUsername()).append(',').append(income).append(',').append(expenses)
+                .append(',').append(income - expenses).append(',');
+        boolean over = false;
+        BudgetMonitor monitor = user.getBudgetMonitor();
+        for (Map.Entry<String, Double> entry : user.getBudgetLimits().entrySet()) {
+            double spent = Money.toDouble(monitor.getMonthlySpentCents(entry.getKey()));
+            if (spent > entry.getValue()) {
+                out.append(over ? ";" : "").append(entry.getKey()).append(':').append(spent).append('/').append(entry.getValue());
+                over = true;
+            }
+        }
+        out.append(System.lineSeparator());
+        return over;
+    }
+
+    public static void main(String[] args) throws IOException {
+        String fileName = args.length > 0 ? args[0] : FileManager.FILE_NAME;
+        Path output = Path.of(args.length > 1 ? args[1] : fileName + ".report.csv");
+        long start = System.nanoTime();
+        Result result = new BatchReportJob(fileName).run(output);
+        System.out.printf("Summarized %d users (%d over budget, %d unreadable) into %s in %.2f s%n", result.getUsers(),
+                result.getUsersOverBudget(), result.getErrors(), output, (System.nanoTime() - start) / 1e9);
+    }
+}
@@ -0,0 +1,75 @@
+package Finance;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A small Bloom filter over strings, used to answer "this username is definitely free" without touching
+ * the user index or the data file. A negative answer is always correct; a positive answer only means the
+ * caller has to check the real index.
+ */
+public class BloomFilter {
+    private final long[] bits; // Bit array backing the filter.
+    private final int bitCount; // Number of usable bits in the array.
+    private final int hashCount; // Number of probes per element.
+
+    /**
+     * Creates a filter sized for the expected number of elements at roughly a 1% false positive rate.
+     * @param expectedElements number of elements the filter should hold before getting noticeably worse
+     */
+    public BloomFilter(int expectedElements) {
+        int n = Math.max(expectedElements, 64);
+        // m = -n * ln(p) / (ln 2)^2 with p = 0.01, which works out to about 9.6 bits per element.
+        long m = (long) Math.ceil(n * 9.6);
+        this.bitCount = (int) Math.min(m, Integer.MAX_VALUE - 63);
+        this.bits = new long[(bitCount + 63) / 64];
+        this.hashCount = 7; // k = (m / n) * ln 2 rounded for p = 0.01.
+    }
+
+    /**
+     * Adds a string to the filter.
+     * @param value string to add
+     */
+    public void add(String value) {
+        long hash = hash64(value);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < hashCount; i++) {
+            int bit = Math.floorMod(h1 + i * h2, bitCount);
+            bits[bit >>> 6] |= 1L << bit;
+        }
+    }
+
+    /**
+     * Checks whether a string may have been added to the filter.
+     * @param value string to check
+     * @return false if the string was definitely never added; true if it might have been
+     */
+    public boolean mightContain(String value) {
+        long hash = hash64(value);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < hashCount; i++) {
+            int bit = Math.floorMod(h1 + i * h2, bitCount);
+            if ((bits[bit >>> 6] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 64-bit FNV-1a over the UTF-8 bytes followed by a finalizing mix, so both 32-bit halves are usable
+     * as independent hashes for double hashing.
+     */
+    private static long hash64(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
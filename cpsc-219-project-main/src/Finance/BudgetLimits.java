@@ -0,0 +1,206 @@
+package Finance;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * A user's budget limits, kept in cents in a primitive array indexed by category id instead of as boxed doubles
+ * in a hash map. Categories keep the order their limits were first set in, like the LinkedHashMap this replaces,
+ * and the class is still a {@code Map<String, Double>} so existing callers and the data file format are unchanged;
+ * code on hot paths reads limits through {@link #getCents(String, long)} without boxing.
+ */
+public class BudgetLimits extends AbstractMap<String, Double> {
+    // Marks a category without a limit.
+    private static final long NO_LIMIT = Long.MIN_VALUE;
+
+    private final CategoryDictionary categories; // Ids of the categories, shared with the transaction store.
+    private long[] limitCents = new long[16]; // Limit per category id, or NO_LIMIT.
+    private int[] order = new int[8]; // Category ids with a limit, in the order they were first set.
+    private int size; // Number of categories with a limit.
+
+    /**
+     * Creates an empty set of limits whose categories are encoded with the given dictionary.
+     * @param categories dictionary used to turn category names into ids
+     */
+    public BudgetLimits(CategoryDictionary categories) {
+        this.categories = categories;
+        Arrays.fill(limitCents, NO_LIMIT);
+    }
+
+    /**
+     * @param category category name
+     * @param defaultCents value to return if the category has no limit
+     * @return the category's limit in cents, or the default
+     */
+    public long getCents(String category, long defaultCents) {
+        int id = categories.find(category);
+        return id < 0 || id >= limitCents.length || limitCents[id] == NO_LIMIT ? defaultCents : limitCents[id];
+    }
+
+    /**
+     * Sets a category's limit. A category that already has a limit keeps its place in the order.
+     * @param category category name
+     * @param cents limit in cents
+     * @return true if the category had no limit before
+     */
+    public boolean putCents(String category, long cents) {
+        if (cents == NO_LIMIT) {
+            throw new IllegalArgumentException("Budget limit out of range");
+        }
+        int id = categories.idOf(category);
+        if (id >= limitCents.length) {
+            int capacity = Math.max(id + 1, limitCents.length * 2);
+            int oldLength = limitCents.length;
+            limitCents = Arrays.copyOf(limitCents, capacity);
+            Arrays.fill(limitCents, oldLength, capacity, NO_LIMIT);
+        }
+        boolean added = limitCents[id] == NO_LIMIT;
+        if (added) {
+            if (size == order.length) {
+                order = Arrays.copyOf(order, size * 2);
+            }
+            order[size++] = id;
+        }
+        limitCents[id] = cents;
+        return added;
+    }
+
+    /**
+     * @return the category whose limit was added last; null if there are no limits
+     */
+    public String lastCategory() {
+        return size == 0 ? null : categories.nameOf(order[size - 1]);
+    }
+
+    @Override
+    public Double get(Object key) {
+        if (!(key instanceof String category)) {
+            return null;
+        }
+        long cents = getCents(category, NO_LIMIT);
+        return cents == NO_LIMIT ? null : Money.toDouble(cents);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return key instanceof String category && getCents(category, NO_LIMIT) != NO_LIMIT;
+    }
+
+    @Override
+    public Double put(String category, Double limit) {
+        Double previous = get(category);
+        putCents(category, Money.toMinor(limit));
+        return previous;
+    }
+
+    @Override
+    public Double remove(Object key) {
+        Double previous = get(key);
+        if (previous != null) {
+            int id = categories.find((String) key);
+            limitCents[id] = NO_LIMIT;
+            for (int i = 0; i < size; i++) {
+                if (order[i] == id) {
+                    System.arraycopy(order, i + 1, order, i, size - i - 1);
+                    size--;
+                    break;
+                }
+            }
+        }
+        return previous;
+    }
+
+    @Override
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            limitCents[order[i]] = NO_LIMIT;
+        }
+        size = 0;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Set<Entry<String, Double>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<String, Double>> iterator() {
+                return new Iterator<>() {
+                    private int next; // Position in order of the next entry.
+
+                    @Override
+                    public boolean hasNext() {
+                        return next < size;
+                    }
+
+                    @Override
+                    public Entry<String, Double> next() {
+                        if (next >= size) {
+                            throw new NoSuchElementException();
+                        }
+                        int id = order[next++];
+                        return new LimitEntry(categories.nameOf(id));
+                    }
+
+                    @Override
+                    public void remove() {
+                        if (next == 0) {
+                            throw new IllegalStateException();
+                        }
+                        BudgetLimits.this.remove(categories.nameOf(order[--next]));
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    /**
+     * An entry that reads and writes through to the limits.
+     */
+    private final class LimitEntry implements Map.Entry<String, Double> {
+        private final String category;
+
+        private LimitEntry(String category) {
+            this.category = category;
+        }
+
+        @Override
+        public String getKey() {
+            return category;
+        }
+
+        @Override
+        public Double getValue() {
+            return get(category);
+        }
+
+        @Override
+        public Double setValue(Double limit) {
+            return put(category, limit);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Map.Entry<?, ?> entry && category.equals(entry.getKey())
+                    && getValue().equals(entry.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return category.hashCode() ^ getValue().hashCode();
+        }
+    }
+}
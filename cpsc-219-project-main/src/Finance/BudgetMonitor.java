@@ -0,0 +1,294 @@
+package Finance;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tracks spending against a user's budget limits as expenses are recorded. For every category it keeps the
+ * total for the current calendar month and a rolling window of the last N days (a ring buffer of daily
+ * totals), so each expense is accounted and checked in O(1) instead of re-scanning the history. Budget
+ * limits are treated as monthly: listeners are told when a category's spending this month crosses 80% of its
+ * limit, reaches the limit, or goes over it. Reading a total also rolls the windows forward, so every method is
+ * synchronized. Categories are kept by their id in a {@link CategoryDictionary}, so recording an expense indexes an
+ * array instead of hashing the category name.
+ */
+public class BudgetMonitor {
+    // Rolling window length used when none is given.
+    public static final int DEFAULT_WINDOW_DAYS = 30;
+
+    /**
+     * How far a category's monthly spending has progressed towards its limit.
+     */
+    public enum Level {
+        WARNING, // At least 80% of the limit.
+        REACHED, // Exactly at the limit.
+        EXCEEDED // Over the limit.
+    }
+
+    /**
+     * Receives threshold crossings. Each level fires at most once per category per month.
+     */
+    public interface BudgetListener {
+        /**
+         * @param category category whose spending crossed a threshold
+         * @param level the threshold that was crossed
+         * @param spent amount spent in the category this month
+         * @param limit the category's budget limit
+         */
+        void onThreshold(String category, Level level, double spent, double limit);
+    }
+
+    // Marks a category without a limit.
+    private static final long NO_LIMIT = Long.MIN_VALUE;
+
+    private final Map<String, Double> budgetLimits; // The user's live budget limits, by category.
+    private final CategoryDictionary categories; // Ids of the categories in windows.
+    private final Clock clock; // Source of "today" for month and window boundaries.
+    private final int windowDays; // Length of the rolling window in days.
+    private CategoryWindow[] windows = new CategoryWindow[16]; // Indexed by category id; null until first spent.
+    private final List<BudgetListener> listeners = new ArrayList<>();
+
+    /**
+     * Creates a monitor using the system clock and a 30 day rolling window.
+     * @param budgetLimits the user's budget limits; read live, so later changes are picked up
+     */
+    public BudgetMonitor(Map<String, Double> budgetLimits) {
+        this(budgetLimits, new CategoryDictionary());
+    }
+
+    /**
+     * Creates a monitor using the system clock and a 30 day rolling window that shares a category dictionary.
+     * @param budgetLimits the user's budget limits; read live, so later changes are picked up
+     * @param categories dictionary whose ids are passed to {@link #recordExpense(int, int, long)}
+     */
+    public BudgetMonitor(Map<String, Double> budgetLimits, CategoryDictionary categories) {
+        this(budgetLimits, categories, Clock.systemDefaultZone(), DEFAULT_WINDOW_DAYS);
+    }
+
+    /**
+     * Creates a monitor with a specific clock and rolling window length.
+     * @param budgetLimits the user's budget limits; read live, so later changes are picked up
+     * @param clock clock that decides the current day and month
+     * @param windowDays length of the rolling window in days
+     */
+    public BudgetMonitor(Map<String, Double> budgetLimits, Clock clock, int windowDays) {
+        this(budgetLimits, new CategoryDictionary(), clock, windowDays);
+    }
+
+    /**
+     * Creates a monitor with a specific category dictionary, clock and rolling window length.
+     * @param budgetLimits the user's budget limits; read live, so later changes are picked up
+     * @param categories dictionary whose ids are passed to {@link #recordExpense(int, int, long)}
+     * @param clock clock that decides the current day and month
+     * @param windowDays length of the rolling window in days
+     */
+    public BudgetMonitor(Map<String, Double> budgetLimits, CategoryDictionary categories, Clock clock, int windowDays) {
+        if (windowDays < 1) {
+            throw new IllegalArgumentException("Rolling window must be at least one day long");
+        }
+        this.budgetLimits = budgetLimits;
+        this.categories = categories;
+        this.clock = clock;
+        this.windowDays = windowDays;
+    }
+
+    /**
+     * Registers a listener for threshold crossings.
+     * @param listener listener to notify
+     */
+    public synchronized void addListener(BudgetListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Removes a previously registered listener.
+     * @param listener listener to remove
+     */
+    public synchronized void removeListener(BudgetListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Accounts an expense and notifies listeners if its category crossed a threshold.
+     * Expenses dated outside the current month and rolling window are ignored by the respective totals.
+     * @param epochDay date of the expense as days since 1970-01-01
+     * @param category category of the expense
+     * @param amountCents amount of the expense in cents
+     */
+    public synchronized void recordExpense(int epochDay, String category, long amountCents) {
+        recordExpense(epochDay, categories.idOf(category), amountCents);
+    }
+
+    /**
+     * Accounts an expense whose category is already encoded, without looking up its name.
+     * @param epochDay date of the expense as days since 1970-01-01
+     * @param categoryId id of the expense's category in the monitor's dictionary
+     * @param amountCents amount of the expense in cents
+     */
+    public synchronized void recordExpense(int epochDay, int categoryId, long amountCents) {
+        int today = Math.toIntExact(LocalDate.now(clock).toEpochDay());
+        if (categoryId >= windows.length) {
+            windows = Arrays.copyOf(windows, Math.max(categoryId + 1, windows.length * 2));
+        }
+        CategoryWindow window = windows[categoryId];
+        if (window == null) {
+            window = new CategoryWindow(windowDays);
+            windows[categoryId] = window;
+        }
+        window.roll(today, monthKey(today));
+        if (monthKey(epochDay) == window.monthKey) {
+            window.monthCents += amountCents;
+        }
+        if (epochDay <= today && epochDay > today - windowDays) {
+            window.addToDay(epochDay, amountCents);
+        }
+        evaluate(categories.nameOf(categoryId), window);
+    }
+
+    /**
+     * @param category category name
+     * @return amount spent in the category during the current calendar month, in cents
+     */
+    public synchronized long getMonthlySpentCents(String category) {
+        CategoryWindow window = current(category);
+        return window == null ? 0 : window.monthCents;
+    }
+
+    /**
+     * @param category category name
+     * @return amount spent in the category over the rolling window ending today, in cents
+     */
+    public synchronized long getRollingSpentCents(String category) {
+        CategoryWindow window = current(category);
+        return window == null ? 0 : window.windowCents;
+    }
+
+    /**
+     * @return length of the rolling window in days
+     */
+    public int getWindowDays() {
+        return windowDays;
+    }
+
+    /**
+     * @param category category name
+     * @return the highest threshold the category has reached this month; null if below 80% or without a limit
+     */
+    public synchronized Level getLevel(String category) {
+        long limitCents = limitCents(category);
+        return limitCents == NO_LIMIT ? null : levelFor(getMonthlySpentCents(category), limitCents);
+    }
+
+    private CategoryWindow current(String category) {
+        int categoryId = categories.find(category);
+        CategoryWindow window = categoryId >= 0 && categoryId < windows.length ? windows[categoryId] : null;
+        if (window != null) {
+            int today = Math.toIntExact(LocalDate.now(clock).toEpochDay());
+            window.roll(today, monthKey(today));
+        }
+        return window;
+    }
+
+    private void evaluate(String category, CategoryWindow window) {
+        long limitCents = limitCents(category);
+        if (limitCents == NO_LIMIT) {
+            return;
+        }
+        Level level = levelFor(window.monthCents, limitCents);
+        if (level != null && (window.notified == null || level.compareTo(window.notified) > 0)) {
+            window.notified = level;
+            for (BudgetListener listener : listeners) {
+                listener.onThreshold(category, level, Money.toDouble(window.monthCents), Money.toDouble(limitCents));
+            }
+        }
+    }
+
+    /**
+     * Reads a category's limit in cents, without boxing when the limits are a {@link BudgetLimits}.
+     */
+    private long limitCents(String category) {
+        if (budgetLimits instanceof BudgetLimits limits) {
+            return limits.getCents(category, NO_LIMIT);
+        }
+        Double limit = budgetLimits.get(category);
+        return limit == null ? NO_LIMIT : Money.toMinor(limit);
+    }
+
+    private static Level levelFor(long spentCents, long limitCents) {
+        if (spentCents > limitCents) {
+            return Level.EXCEEDED;
+        } else if (spentCents == limitCents) {
+            return Level.REACHED;
+        } else if (spentCents * 5 >= limitCents * 4) {
+            return Level.WARNING;
+        }
+        return null;
+    }
+
+    private static int monthKey(int epochDay) {
+        LocalDate date = LocalDate.ofEpochDay(epochDay);
+        return date.getYear() * 12 + date.getMonthValue() - 1;
+    }
+
+    /**
+     * Monthly total plus a ring buffer of daily totals for one category.
+     */
+    private static final class CategoryWindow {
+        private final long[] dayCents; // Daily totals, indexed by epoch day modulo the window length.
+        private final int[] dayOf; // Epoch day each slot currently holds.
+        private long windowCents; // Sum of the slots that fall inside the window.
+        private int expiredThrough = Integer.MIN_VALUE; // Latest day already dropped from the window.
+        private int monthKey = Integer.MIN_VALUE; // Month the monthly total belongs to.
+        private long monthCents; // Spending in that month.
+        private Level notified; // Highest level already announced for that month.
+
+        CategoryWindow(int windowDays) {
+            dayCents = new long[windowDays];
+            dayOf = new int[windowDays];
+            Arrays.fill(dayOf, Integer.MIN_VALUE);
+        }
+
+        /**
+         * Brings the window and month up to date with today. Each day is expired at most once, so this is
+         * amortized O(1) per call.
+         */
+        void roll(int today, int currentMonth) {
+            if (currentMonth != monthKey) {
+                monthKey = currentMonth;
+                monthCents = 0;
+                notified = null;
+            }
+            int expireUpTo = today - dayCents.length; // Days at or before this are outside the window.
+            if (expiredThrough == Integer.MIN_VALUE || expireUpTo - expiredThrough >= dayCents.length) {
+                // First use, or the window moved past every slot: start over.
+                Arrays.fill(dayCents, 0);
+                Arrays.fill(dayOf, Integer.MIN_VALUE);
+                windowCents = 0;
+            } else {
+                for (int day = expiredThrough + 1; day <= expireUpTo; day++) {
+                    int slot = Math.floorMod(day, dayCents.length);
+                    if (dayOf[slot] == day) {
+                        windowCents -= dayCents[slot];
+                        dayCents[slot] = 0;
+                        dayOf[slot] = Integer.MIN_VALUE;
+                    }
+                }
+            }
+            expiredThrough = Math.max(expiredThrough, expireUpTo);
+        }
+
+        void addToDay(int epochDay, long amountCents) {
+            int slot = Math.floorMod(epochDay, dayCents.length);
+            if (dayOf[slot] != epochDay) {
+                dayOf[slot] = epochDay;
+                dayCents[slot] = 0;
+            }
+            dayCents[slot] += amountCents;
+            windowCents += amountCents;
+        }
+    }
+}
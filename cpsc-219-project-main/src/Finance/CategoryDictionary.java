@@ -0,0 +1,121 @@
+package Finance;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maps category names to small integer ids and back. Ids are handed out in order of first use, starting at 0,
+ * so they can index arrays directly. A dictionary can optionally be backed by a file (one category per line,
+ * line number = id) so ids written into binary files stay meaningful across runs.
+ */
+public class CategoryDictionary {
+    // Suffix appended to the data file name to get the dictionary file name.
+    public static final String DICTIONARY_SUFFIX = ".categories";
+    // One persistent dictionary per data file, shared by every caller in this process.
+    private static final Map<String, CategoryDictionary> OPEN_DICTIONARIES = new HashMap<>();
+
+    private final Map<String, Integer> ids = new HashMap<>(); // category -> id
+    private final List<String> names = new ArrayList<>(); // id -> category
+    private final File file; // Backing file, or null for an in-memory dictionary.
+
+    /**
+     * Creates an empty in-memory dictionary.
+     */
+    public CategoryDictionary() {
+        this.file = null;
+    }
+
+    private CategoryDictionary(File file) {
+        this.file = file;
+    }
+
+    /**
+     * Returns the persistent dictionary that belongs to a data file, loading it on first use.
+     * @param fileName data file the dictionary belongs to
+     * @return the shared dictionary for that file
+     */
+    public static synchronized CategoryDictionary forFile(String fileName) {
+        String key = new File(fileName).getAbsolutePath();
+        CategoryDictionary dictionary = OPEN_DICTIONARIES.get(key);
+        if (dictionary == null) {
+            dictionary = new CategoryDictionary(new File(key + DICTIONARY_SUFFIX));
+            dictionary.load();
+            OPEN_DICTIONARIES.put(key, dictionary);
+        }
+        return dictionary;
+    }
+
+    /**
+     * Returns the id of a category, assigning the next free id if the category has not been seen before.
+     * @param category category name
+     * @return id of the category
+     */
+    public synchronized int idOf(String category) {
+        Integer id = ids.get(category);
+        if (id == null) {
+            id = names.size();
+            ids.put(category, id);
+            names.add(category);
+            if (file != null) {
+                persist(category);
+            }
+        }
+        return id;
+    }
+
+    /**
+     * Returns the id of a category without assigning one.
+     * @param category category name
+     * @return id of the category; -1 if it has never been seen
+     */
+    public synchronized int find(String category) {
+        Integer id = ids.get(category);
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * Returns the category name for an id.
+     * @param id id previously returned by {@link #idOf(String)}
+     * @return the category name
+     */
+    public synchronized String nameOf(int id) {
+        return names.get(id);
+    }
+
+    /**
+     * @return number of categories in the dictionary
+     */
+    public synchronized int size() {
+        return names.size();
+    }
+
+    private void load() {
+        if (!file.exists()) {
+            return;
+        }
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new FileInputStream(file), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                ids.put(line, names.size());
+                names.add(line);
+            }
+        } catch (IOException e) {
+            System.out.println("An error occurred while loading the category dictionary.");
+        }
+    }
+
+    private void persist(String category) {
+        try (BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(
+                new FileOutputStream(file, true), StandardCharsets.UTF_8))) {
+            writer.write(category);
+            writer.newLine();
+        } catch (IOException e) {
+            System.out.println("An error occurred while saving the category dictionary.");
+        }
+    }
+}
@@ -0,0 +1,395 @@
+package Finance;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Bulk importer for bank CSV exports. The file is read once, cut into line-aligned chunks that are parsed in
+ * parallel on a fork-join pool, and the resulting transactions are added to the user and persisted in one
+ * batch, so importing years of history costs one write instead of one full rewrite per row.
+ * Quoted fields may contain the delimiter and doubled quotes, but not line breaks.
+ */
+public class CsvImporter {
+    // Chunks smaller than this many bytes are parsed by a single task.
+    private static final int CHUNK_SIZE = 256 * 1024;
+
+    /**
+     * Describes where the fields of a transaction are in each CSV row. Column numbers start at 0; a column
+     * set to -1 is absent.
+     */
+    public static final class ColumnMapping {
+        private final int dateColumn;
+        private final int categoryColumn;
+        private final int amountColumn;
+        private final int typeColumn;
+        private char delimiter = ',';
+        private boolean header = true;
+        private DateTimeFormatter dateFormat = DateTimeFormatter.ISO_LOCAL_DATE;
+        private String defaultCategory = "Other";
+
+        /**
+         * @param dateColumn column holding the transaction date
+         * @param categoryColumn column holding the category; -1 to use the default category
+         * @param amountColumn column holding the amount
+         * @param typeColumn column holding Income/Expense (or Credit/Debit); -1 to take the type from the
+         *                   amount's sign, negative amounts being expenses
+         */
+        public ColumnMapping(int dateColumn, int categoryColumn, int amountColumn, int typeColumn) {
+            if (dateColumn < 0 || amountColumn < 0) {
+                throw new IllegalArgumentException("Date and amount columns are required");
+            }
+            this.dateColumn = dateColumn;
+            this.categoryColumn = categoryColumn;
+            this.amountColumn = amountColumn;
+            this.typeColumn = typeColumn;
+        }
+
+        /**
+         * @param delimiter character separating fields; ',' by default
+         * @return this mapping
+         */
+        public ColumnMapping withDelimiter(char delimiter) {
+            this.delimiter = delimiter;
+            return this;
+        }
+
+        /**
+         * @param header true if the first line holds column names and should be skipped; true by default
+         * @return this mapping
+         */
+        public ColumnMapping withHeader(boolean header) {
+            this.header = header;
+            return this;
+        }
+
+        /**
+         * @param pattern date pattern as understood by {@link DateTimeFormatter#ofPattern}; yyyy-MM-dd by default
+         * @return this mapping
+         */
+        public ColumnMapping withDateFormat(String pattern) {
+            this.dateFormat = DateTimeFormatter.ofPattern(pattern);
+            return this;
+        }
+
+        /**
+         * @param defaultCategory category used when the row has none; "Other" by default
+         * @return this mapping
+         */
+        public ColumnMapping withDefaultCategory(String defaultCategory) {
+            this.defaultCategory = defaultCategory;
+            return this;
+        }
+    }
+
+    /**
+     * Outcome of parsing or importing a CSV file.
+     */
+    public static final class ImportResult {
+        private final List<Transaction> transactions;
+        private final int duplicates;
+        private final List<String> errors;
+
+        ImportResult(List<Transaction> transactions, int duplicates, List<String> errors) {
+            this.transactions = transactions;
+            this.duplicates = duplicates;
+            this.errors = errors;
+        }
+
+        /**
+         * @return the transactions that were parsed, or added to the user when importing, in file order
+         */
+        public List<Transaction> getTransactions() {
+            return transactions;
+        }
+
+        /**
+         * @return number of rows skipped because the user had already recorded them
+         */
+        public int getDuplicates() {
+            return duplicates;
+        }
+
+        /**
+         * @return one message per row that could not be parsed, e.g. "Line 7: invalid amount"
+         */
+        public List<String> getErrors() {
+            return errors;
+        }
+    }
+
+    private final ColumnMapping mapping;
+    private final ForkJoinPool pool;
+
+    /**
+     * Creates an importer that parses on the common fork-join pool.
+     * @param mapping where the transaction fields are in each row
+     */
+    public CsvImporter(ColumnMapping mapping) {
+        this(mapping, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates an importer that parses on the given pool.
+     * @param mapping where the transaction fields are in each row
+     * @param pool pool to run the parsing tasks on
+     */
+    public CsvImporter(ColumnMapping mapping, ForkJoinPool pool) {
+        this.mapping = mapping;
+        this.pool = pool;
+    }
+
+    /**
+     * Parses a CSV file into transactions without touching any user.
+     * Rows that cannot be parsed are skipped and reported in the result's errors.
+     * @param csv the CSV file
+     * @return the parsed transactions and errors
+     * @throws IOException if the file cannot be read
+     */
+    public ImportResult parse(Path csv) throws IOException {
+        byte[] data = Files.readAllBytes(csv);
+        int start = 0;
+        int firstLine = 1;
+        if (mapping.header) {
+            start = nextLine(data, 0, data.length);
+            firstLine = 2;
+        }
+        Chunk chunk = pool.invoke(new ParseTask(data, start, data.length));
+        List<String> errors = new ArrayList<>(chunk.errorLines.size());
+        for (int i = 0; i < chunk.errorLines.size(); i++) {
+            errors.add("Line " + (chunk.errorLines.get(i) + firstLine) + ": " + chunk.errorMessages.get(i));
+        }
+        return new ImportResult(chunk.transactions, 0, errors);
+    }
+
+    /**
+     * Imports a CSV file into a user and persists the new transactions in one batch.
+     * Rows matching a transaction the user had already recorded are skipped, so overlapping exports can be
+     * imported again safely; identical rows within the file itself are all kept.
+     * @param user user to add the transactions to
+     * @param csv the CSV file
+     * @param fileName data file the user is saved in
+     * @return the transactions that were added, the number of skipped duplicates and any row errors
+     * @throws IOException if the CSV file cannot be read
+     */
+    public ImportResult importInto(User user, Path csv, String fileName) throws IOException {
+        ImportResult parsed = parse(csv);
+        List<Transaction> rows = parsed.getTransactions();
+        // Check against the history as it was before the import, so repeats inside the file are not dropped
+        boolean[] seen = new boolean[rows.size()];
+        for (int i = 0; i < rows.size(); i++) {
+            seen[i] = user.isDuplicate(rows.get(i));
+        }
+        List<Transaction> added = new ArrayList<>(rows.size());
+        int duplicates = 0;
+        for (int i = 0; i < rows.size(); i++) {
+            if (seen[i] || !user.addTransaction(rows.get(i))) {
+                duplicates++;
+            } else {
+                added.add(rows.get(i));
+            }
+        }
+        FileManager.persistTransactions(user, added, fileName);
+        return new ImportResult(added, duplicates, parsed.getErrors());
+    }
+
+    /**
+     * Imports a CSV file into a user saved in the default file.
+     * @param user user to add the transactions to
+     * @param csv the CSV file
+     * @return the transactions that were added, the number of skipped duplicates and any row errors
+     * @throws IOException if the CSV file cannot be read
+     */
+    public ImportResult importInto(User user, Path csv) throws IOException {
+        return importInto(user, csv, FileManager.defaultFile(user.getUsername()));
+    }
+
+    private static int nextLine(byte[] data, int from, int to) {
+        while (from < to && data[from] != '\n') {
+            from++;
+        }
+        return Math.min(from + 1, to);
+    }
+
+    /**
+     * Transactions and errors parsed from a run of whole lines. Error lines are relative to the run's first line.
+     */
+    private static final class Chunk {
+        private final List<Transaction> transactions = new ArrayList<>();
+        private final List<Integer> errorLines = new ArrayList<>();
+        private final List<String> errorMessages = new ArrayList<>();
+        private int lines;
+
+        Chunk append(Chunk next) {
+            transactions.addAll(next.transactions);
+            for (int i = 0; i < next.errorLines.size(); i++) {
+                errorLines.add(next.errorLines.get(i) + lines);
+                errorMessages.add(next.errorMessages.get(i));
+            }
+            lines += next.lines;
+            return this;
+        }
+    }
+
+    /**
+     * Parses the lines in [from, to), splitting at a line boundary near the middle while the range is large.
+     */
+    @SuppressWarnings("serial") // Only ever forked in this process, never serialized.
+    private final class ParseTask extends RecursiveTask<Chunk> {
+        private final byte[] data;
+        private final int from;
+        private final int to;
+
+        ParseTask(byte[] data, int from, int to) {
+            this.data = data;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Chunk compute() {
+            if (to - from > CHUNK_SIZE) {
+                int middle = nextLine(data, from + (to - from) / 2, to);
+                if (middle < to) {
+                    ParseTask right = new ParseTask(data, middle, to);
+                    right.fork();
+                    Chunk left = new ParseTask(data, from, middle).compute();
+                    return left.append(right.join());
+                }
+            }
+            Chunk chunk = new Chunk();
+            List<String> fields = new ArrayList<>();
+            int lineStart = from;
+            while (lineStart < to) {
+                int lineEnd = lineStart;
+                while (lineEnd < to && data[lineEnd] != '\n') {
+                    lineEnd++;
+                }
+                int contentEnd = lineEnd > lineStart && data[lineEnd - 1] == '\r' ? lineEnd - 1 : lineEnd;
+                if (contentEnd > lineStart) {
+                    try {
+                        split(data, lineStart, contentEnd, fields);
+                        chunk.transactions.add(toTransaction(fields));
+                    } catch (IllegalArgumentException | DateTimeParseException e) {
+                        chunk.errorLines.add(chunk.lines);
+                        chunk.errorMessages.add(e.getMessage());
+                    }
+                }
+                chunk.lines++;
+                lineStart = lineEnd + 1;
+            }
+            return chunk;
+        }
+    }
+
+    /**
+     * Splits one line into fields, honouring double-quoted fields.
+     */
+    private void split(byte[] data, int from, int to, List<String> fields) {
+        fields.clear();
+        StringBuilder quoted = new StringBuilder();
+        int i = from;
+        while (true) {
+            if (i < to && data[i] == '"') {
+                quoted.setLength(0);
+                int runStart = ++i;
+                while (true) {
+                    if (i >= to) {
+                        throw new IllegalArgumentException("unterminated quoted field");
+                    }
+                    if (data[i] == '"') {
+                        quoted.append(new String(data, runStart, i - runStart, StandardCharsets.UTF_8));
+                        if (i + 1 < to && data[i + 1] == '"') {
+                            quoted.append('"'); // Doubled quote inside a quoted field
+                            i += 2;
+                            runStart = i;
+                            continue;
+                        }
+                        i++;
+                        break;
+                    }
+                    i++;
+                }
+                fields.add(quoted.toString());
+                while (i < to && data[i] != mapping.delimiter) {
+                    i++; // Ignore anything between the closing quote and the delimiter
+                }
+            } else {
+                int fieldStart = i;
+                while (i < to && data[i] != mapping.delimiter) {
+                    i++;
+                }
+                fields.add(new String(data, fieldStart, i - fieldStart, StandardCharsets.UTF_8));
+            }
+            if (i >= to) {
+                return;
+            }
+            i++; // Skip the delimiter
+        }
+    }
+
+    private Transaction toTransaction(List<String> fields) {
+        LocalDate date = LocalDate.parse(field(fields, mapping.dateColumn, "date"), mapping.dateFormat);
+        double amount = parseAmount(field(fields, mapping.amountColumn, "amount"));
+        String category = mapping.categoryColumn < 0 || mapping.categoryColumn >= fields.size()
+                || fields.get(mapping.categoryColumn).isBlank()
+                ? mapping.defaultCategory : fields.get(mapping.categoryColumn).trim();
+        if (category.contains(",") || category.contains("\n") || category.contains("\r")) {
+            // Categories end up in comma separated data files, where a comma would split the line
+            throw new IllegalArgumentException("category \"" + category + "\" cannot contain commas or line breaks");
+        }
+        TransactionType type;
+        if (mapping.typeColumn < 0) {
+            type = TransactionType.of(amount >= 0);
+        } else {
+            type = parseType(field(fields, mapping.typeColumn, "type"));
+        }
+        return new Transaction(date, category, Math.abs(amount), type);
+    }
+
+    private static String field(List<String> fields, int column, String name) {
+        if (column >= fields.size()) {
+            throw new IllegalArgumentException("missing " + name + " column");
+        }
+        return fields.get(column).trim();
+    }
+
+    /**
+     * Parses amounts as banks export them: an optional currency sign, thousands separators and
+     * parentheses for negative values, e.g. "$1,234.50" or "(12.00)".
+     */
+    private static double parseAmount(String text) {
+        boolean negative = text.startsWith("(") && text.endsWith(")");
+        StringBuilder digits = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if ((c >= '0' && c <= '9') || c == '.' || c == '-') {
+                digits.append(c);
+            } else if (c != '$' && c != ',' && c != ' ' && c != '(' && c != ')' && c != '+') {
+                throw new IllegalArgumentException("invalid amount \"" + text + "\"");
+            }
+        }
+        try {
+            double amount = Double.parseDouble(digits.toString());
+            return negative ? -amount : amount;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("invalid amount \"" + text + "\"");
+        }
+    }
+
+    private static TransactionType parseType(String text) {
+        return switch (text.toLowerCase()) {
+            case "income", "credit", "cr" -> TransactionType.INCOME;
+            case "expense", "debit", "dr" -> TransactionType.EXPENSE;
+            default -> throw new IllegalArgumentException("unknown transaction type \"" + text + "\"");
+        };
+    }
+}
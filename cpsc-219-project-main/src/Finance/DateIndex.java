@@ -0,0 +1,248 @@
+package Finance;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Prefix sums of a {@link TransactionStore} by date, answering "how much came in or went out between two dates"
+ * and "what was the balance on a date" in O(log n) instead of scanning the history. Income and expenses are kept
+ * in Fenwick trees over the sorted distinct days that have transactions, found by binary search; per-category
+ * trees are added the first time a category is asked about. Memory grows with the number of days that have
+ * transactions, not with the span between the first and last of them.
+ * <p>
+ * The trees are only built on the first query, so users who never ask pay nothing. After that, {@link #add(int)}
+ * folds each new row in as it is recorded: a row on a known day, or on a new day after every other, costs
+ * O(log n), with room for new days grown by doubling. A row on a new day earlier than the last one shifts every
+ * later position, so the trees are rebuilt on the next query instead. All methods are synchronized because
+ * queries may build the trees.
+ */
+public class DateIndex {
+    private static final int MIN_CAPACITY = 64;
+
+    private final TransactionStore store; // Store whose rows are summed.
+    private int rows; // Number of rows folded into the trees.
+    private boolean built; // Whether the trees exist yet.
+    private boolean stale; // Whether a row fell on a new day before the last one, so the trees must be rebuilt.
+    private int[] days = new int[0]; // Distinct epoch days in ascending order; day i is at tree position i + 1.
+    private int dayCount; // Number of days in use; the rest of the array is room to grow.
+    private long[] income; // Fenwick tree of income cents per day.
+    private long[] expenses; // Fenwick tree of expense cents per day.
+    private final Map<Integer, long[][]> categories = new HashMap<>(); // Category id -> {income, expenses} trees.
+
+    /**
+     * Creates an index over a store. Nothing is built until the first query.
+     * @param store store whose rows will be summed
+     */
+    public DateIndex(TransactionStore store) {
+        this.store = store;
+    }
+
+    /**
+     * Folds every row up to and including a newly added one into the trees, if they have been built.
+     * @param row row that was just added to the store
+     */
+    public synchronized void add(int row) {
+        if (built && !stale) {
+            catchUp(row + 1);
+        }
+    }
+
+    /**
+     * Sums income or expenses between two dates.
+     * @param from first day, inclusive; null for no lower bound
+     * @param to last day, inclusive; null for no upper bound
+     * @param income true to sum income; false to sum expenses
+     * @return the total in cents
+     */
+    public synchronized long sumCents(LocalDate from, LocalDate to, boolean income) {
+        prepare();
+        return range(income ? this.income : expenses, from, to);
+    }
+
+    /**
+     * Sums income or expenses in one category between two dates.
+     * @param from first day, inclusive; null for no lower bound
+     * @param to last day, inclusive; null for no upper bound
+     * @param category category to sum
+     * @param income true to sum income; false to sum expenses
+     * @return the total in cents; 0 if the category has never been used
+     */
+    public synchronized long sumCents(LocalDate from, LocalDate to, String category, boolean income) {
+        int categoryId = store.getCategories().find(category);
+        if (categoryId < 0) {
+            return 0;
+        }
+        prepare();
+        long[][] trees = categories.get(categoryId);
+        if (trees == null) {
+            trees = new long[][]{new long[days.length + 1], new long[days.length + 1]};
+            categories.put(categoryId, trees);
+            fill(trees, categoryId);
+        }
+        return range(trees[income ? 0 : 1], from, to);
+    }
+
+    /**
+     * @param date day to take the balance on, inclusive
+     * @return income minus expenses of every transaction on or before the date, in cents
+     */
+    public synchronized long balanceCents(LocalDate date) {
+        prepare();
+        int position = countUpTo(date);
+        return prefix(income, position) - prefix(expenses, position);
+    }
+
+    /**
+     * Builds the trees on first use, or after a back-dated row on a new day, and folds in rows the store gained
+     * since the last update.
+     */
+    private void prepare() {
+        if (built && !stale) {
+            catchUp(store.size());
+        }
+        if (!built || stale) {
+            rebuild(store.size());
+        }
+    }
+
+    private void catchUp(int end) {
+        while (rows < end) {
+            int row = rows;
+            int day = store.epochDay(row);
+            int index = Arrays.binarySearch(days, 0, dayCount, day);
+            if (index < 0) {
+                if (-index - 1 < dayCount || dayCount == days.length) {
+                    // A new day before the last one, or no room left: rebuild on the next query.
+                    stale = true;
+                    return;
+                }
+                index = dayCount;
+                days[dayCount++] = day; // Positions past the last day hold zeros, so the trees stay valid.
+            }
+            int position = index + 1;
+            boolean isIncome = store.isIncome(row);
+            long cents = store.amountCents(row);
+            update(isIncome ? income : expenses, position, cents);
+            long[][] trees = categories.get(store.categoryId(row));
+            if (trees != null) {
+                update(trees[isIncome ? 0 : 1], position, cents);
+            }
+            rows++;
+        }
+    }
+
+    /**
+     * Rebuilds every tree over the distinct days of the first rows of the store, with room to append as many
+     * new days again.
+     */
+    private void rebuild(int end) {
+        int[] sorted = new int[end];
+        for (int i = 0; i < end; i++) {
+            sorted[i] = store.epochDay(i);
+        }
+        Arrays.sort(sorted);
+        int distinct = 0;
+        for (int i = 0; i < end; i++) {
+            if (distinct == 0 || sorted[i] != sorted[distinct - 1]) {
+                sorted[distinct++] = sorted[i];
+            }
+        }
+        int capacity = Math.max(MIN_CAPACITY, Integer.highestOneBit(distinct) << 1);
+        days = Arrays.copyOf(sorted, capacity);
+        dayCount = distinct;
+        rows = end;
+        built = true;
+        stale = false;
+        income = new long[capacity + 1];
+        expenses = new long[capacity + 1];
+        for (int i = 0; i < end; i++) {
+            (store.isIncome(i) ? income : expenses)[positionOf(store.epochDay(i))] += store.amountCents(i);
+        }
+        heapify(income);
+        heapify(expenses);
+        for (Map.Entry<Integer, long[][]> entry : categories.entrySet()) {
+            long[][] trees = new long[][]{new long[capacity + 1], new long[capacity + 1]};
+            entry.setValue(trees);
+            fill(trees, entry.getKey());
+        }
+    }
+
+    /**
+     * Fills a category's trees from the rows folded in so far.
+     */
+    private void fill(long[][] trees, int categoryId) {
+        for (int i = 0; i < rows; i++) {
+            if (store.categoryId(i) == categoryId) {
+                trees[store.isIncome(i) ? 0 : 1][positionOf(store.epochDay(i))] += store.amountCents(i);
+            }
+        }
+        heapify(trees[0]);
+        heapify(trees[1]);
+    }
+
+    /**
+     * @return the tree position of a day that is in the index
+     */
+    private int positionOf(int day) {
+        return Arrays.binarySearch(days, 0, dayCount, day) + 1;
+    }
+
+    /**
+     * @return the number of indexed days on or before the date; every day if the date is null
+     */
+    private int countUpTo(LocalDate date) {
+        if (date == null) {
+            return dayCount;
+        }
+        int index = Arrays.binarySearch(days, 0, dayCount, TransactionStore.boundDay(date, Integer.MAX_VALUE));
+        return index >= 0 ? index + 1 : -index - 1;
+    }
+
+    /**
+     * @return the number of indexed days before the date; none if the date is null
+     */
+    private int countBefore(LocalDate date) {
+        if (date == null) {
+            return 0;
+        }
+        int index = Arrays.binarySearch(days, 0, dayCount, TransactionStore.boundDay(date, Integer.MIN_VALUE));
+        return index >= 0 ? index : -index - 1;
+    }
+
+    /**
+     * Turns per-day values into a Fenwick tree in place, in linear time.
+     */
+    private static void heapify(long[] tree) {
+        for (int position = 1; position < tree.length; position++) {
+            int parent = position + (position & -position);
+            if (parent < tree.length) {
+                tree[parent] += tree[position];
+            }
+        }
+    }
+
+    private static void update(long[] tree, int position, long cents) {
+        for (; position < tree.length; position += position & -position) {
+            tree[position] += cents;
+        }
+    }
+
+    private long range(long[] tree, LocalDate from, LocalDate to) {
+        int first = countBefore(from);
+        int last = countUpTo(to);
+        return last <= first ? 0 : prefix(tree, last) - prefix(tree, first);
+    }
+
+    /**
+     * @return the tree's total over the first positions
+     */
+    private static long prefix(long[] tree, int position) {
+        long total = 0;
+        for (int p = position; p > 0; p -= p & -p) {
+            total += tree[p];
+        }
+        return total;
+    }
+}
@@ -0,0 +1,108 @@
+package Finance;
+
+import java.util.Arrays;
+
+/**
+ * Hash index over the rows of a {@link TransactionStore}, keyed on (date, category, amount, type), used to spot
+ * exact duplicate transactions in O(1). The table stores row ids only and compares candidates against the
+ * store's columns, so no objects are created per row.
+ */
+public class DuplicateIndex {
+    /**
+     * What a user does when a transaction matches one already recorded.
+     */
+    public enum Policy {
+        ALLOW, // Record it anyway and count it as a flagged duplicate.
+        REJECT // Skip it and count it as a flagged duplicate.
+    }
+
+    private static final int EMPTY = -1;
+
+    private final TransactionStore store; // Store whose rows are indexed.
+    private int[] slots = new int[16]; // Row ids, or EMPTY; length is a power of two.
+    private int size; // Number of rows in the table.
+
+    /**
+     * Creates an empty index over a store.
+     * @param store store whose rows will be added to the index
+     */
+    public DuplicateIndex(TransactionStore store) {
+        this.store = store;
+        Arrays.fill(slots, EMPTY);
+    }
+
+    /**
+     * Finds a stored row with exactly the given values.
+     * @param epochDay date as days since 1970-01-01
+     * @param amountCents amount in cents
+     * @param categoryId category id in the store's dictionary
+     * @param income true for Income; false for Expense
+     * @return the first matching row; -1 if there is none
+     */
+    public int find(int epochDay, long amountCents, int categoryId, boolean income) {
+        int mask = slots.length - 1;
+        for (int slot = hash(epochDay, amountCents, categoryId, income) & mask; slots[slot] != EMPTY; slot = (slot + 1) & mask) {
+            int row = slots[slot];
+            if (store.epochDay(row) == epochDay && store.amountCents(row) == amountCents
+                    && store.categoryId(row) == categoryId && store.isIncome(row) == income) {
+                return row;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Finds a stored row equal to a transaction once rounded to the store's precision.
+     * @param transaction transaction to look for
+     * @return the first matching row; -1 if there is none
+     */
+    public int find(Transaction transaction) {
+        int categoryId = store.getCategories().find(transaction.getCategory());
+        if (categoryId < 0) {
+            return -1; // A category the store has never seen cannot be a duplicate.
+        }
+        return find(TransactionStore.epochDay(transaction.getDate()), transaction.getAmountCents(),
+                categoryId, transaction.getTransactionType().isIncome());
+    }
+
+    /**
+     * Adds a store row to the index.
+     * @param row row id in the store
+     */
+    public void add(int row) {
+        if ((size + 1) * 2 > slots.length) {
+            resize();
+        }
+        insert(row);
+        size++;
+    }
+
+    private void insert(int row) {
+        int mask = slots.length - 1;
+        int slot = hash(store.epochDay(row), store.amountCents(row), store.categoryId(row), store.isIncome(row)) & mask;
+        while (slots[slot] != EMPTY) {
+            slot = (slot + 1) & mask;
+        }
+        slots[slot] = row;
+    }
+
+    private void resize() {
+        int[] old = slots;
+        slots = new int[old.length * 2];
+        Arrays.fill(slots, EMPTY);
+        for (int row : old) {
+            if (row != EMPTY) {
+                insert(row);
+            }
+        }
+    }
+
+    private static int hash(int epochDay, long amountCents, int categoryId, boolean income) {
+        long h = amountCents * 0x9E3779B97F4A7C15L;
+        h ^= (((long) epochDay << 32) | (categoryId & 0xffffffffL)) * 0xC2B2AE3D27D4EB4FL;
+        h ^= income ? 0x165667B19E3779F9L : 0;
+        h ^= h >>> 29;
+        h *= 0xBF58476D1CE4E5B9L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
@@ -1,14 +1,25 @@
 package Finance;
 
 import java.io.*; // Import classes for handling input and output through files.
-import java.time.LocalDate; // Import the LocalDate class for handling dates.
-import java.util.ArrayList; // Import the ArrayList class for handling dynamic arrays.
-import java.util.List; // Import the List interface to use list collections.
-import java.util.Scanner; // Import the Scanner class for reading data from a file.
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel; // Import FileChannel for mapping user blocks into memory.
+import java.nio.file.Files; // Import Files for replacing the data file after a rewrite.
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*; // Import collection classes for holding file lines and users.
 
 public class FileManager {
     // Define a constant for the file name where user data is stored.
-    private static final String FILE_NAME = "userData.txt";
+    static final String FILE_NAME = "userData.txt";
+    // Whether changes are appended to per-user journals instead of rewriting the data file.
+    private static boolean journalMode = false;
+    // Whether newly written users keep their transactions in binary segments instead of the text file.
+    private static boolean binaryTransactions = false;
+    // Queue that takes over whole-block writes of changed users, or null to write them immediately.
+    private static WriteBehindQueue writeBehind = null;
+    // Layout the default-file methods spread users across, or null to keep every user in FILE_NAME.
+    private static ShardLayout shardLayout = null;
 
     /**
      * Serializes fields of a user object into local file
@@ -16,44 +27,68 @@ public class FileManager {
      * @param fileName file to save user data into
      */
     public static void saveUser(User user, String fileName) {
+        // Open the index before appending so it describes the file as it was before this write.
+        UserIndex index = UserIndex.forFile(fileName);
+        long offset = new File(fileName).length();
+        boolean segmented = usesSegment(user, fileName);
         try (BufferedWriter writer = new BufferedWriter(new FileWriter(fileName, true))) {
-            // Write the user's string representation to the file.
-            writer.write(user.toString());
-            writer.newLine();
-            // Iterate through the user's transactions and write them to the file.
-            writer.write("TRANSACTIONS:");
-            for (Transaction transaction : user.getTransactions()) {
-                writer.newLine();
-                writer.write(transaction.toString());
-            }
-            writer.newLine();
-            // Iterate through the user's recurring transactions and write them to the file.
-            writer.write("RECURRING TRANSACTIONS:");
-            for (RecurringTransaction recurringTransaction : user.getRecurringTransactions()) {
-                writer.newLine();
-                writer.write(recurringTransaction.toString());
-            }
-            writer.newLine();
-            // Iterate through the user's budget limits and write them to the file.
-            writer.write("BUDGET LIMITS:");
-            for (String budgetLimits : user.getBudgetLimits().keySet()) {
-                writer.newLine();
-                writer.write(budgetLimits + "," + user.getBudgetLimits().get(budgetLimits));
-            }
-            writer.newLine();
-            writer.write("---"); // Write a separator line after each user's data.
-            writer.newLine();
+            writeUserBlock(writer, user, !segmented);
         } catch (IOException e) {
             // Catch and report any IO exceptions during file writing.
             System.out.println("An error occurred while saving the user data.");
+            return;
         }
+        if (segmented) {
+            TransactionSegment.write(user.getUsername(), user.getTransactions(), fileName);
+        }
+        // Record where the new block landed so later lookups can seek straight to it.
+        index.recordAppend(user.getUsername(), offset, new File(fileName).length() - offset);
+        UserSnapshot.discard(user.getUsername(), fileName);
+        UserCache.written(fileName, user);
     }
 
     /**
      * Overridden function to use default file for saving user data
      * @param user object to be archived
      */
-    public static void saveUser(User user) { saveUser(user, FILE_NAME); }
+    public static void saveUser(User user) { saveUser(user, defaultFile(user.getUsername())); }
+
+    /**
+     * Writes the full text block for a user, from the header line through the closing separator
+     * @param writer writer to write the block to
+     * @param user object whose data is written
+     * @param includeTransactions false if the transactions are kept in a binary segment instead
+     */
+    private static void writeUserBlock(BufferedWriter writer, User user, boolean includeTransactions) throws IOException {
+        // Write the user's string representation to the file.
+        writer.write(user.toString());
+        writer.newLine();
+        // Iterate through the user's transactions and write them to the file.
+        writer.write("TRANSACTIONS:");
+        if (includeTransactions) {
+            for (Transaction transaction : user.getTransactions()) {
+                writer.newLine();
+                writer.write(transaction.toString());
+            }
+        }
+        writer.newLine();
+        // Iterate through the user's recurring transactions and write them to the file.
+        writer.write("RECURRING TRANSACTIONS:");
+        for (RecurringTransaction recurringTransaction : user.getRecurringTransactions()) {
+            writer.newLine();
+            writer.write(recurringTransaction.toString());
+        }
+        writer.newLine();
+        // Iterate through the user's budget limits and write them to the file.
+        writer.write("BUDGET LIMITS:");
+        for (String budgetLimits : user.getBudgetLimits().keySet()) {
+            writer.newLine();
+            writer.write(budgetLimits + "," + user.getBudgetLimits().get(budgetLimits));
+        }
+        writer.newLine();
+        writer.write("---"); // Write a separator line after each user's data.
+        writer.newLine();
+    }
 
     /**
      * Deserializes user object specified by its username
@@ -62,45 +97,58 @@ public class FileManager {
      * @return user object with appropriate username
      */
     public static User loadUser(String username, String fileName) {
-        try (BufferedReader reader = new BufferedReader(new FileReader(fileName))) {
-            // Read lines from the file until the end is reached.
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String[] userData = line.split(","); // Split the line by commas.
-                if (userData[0].equals(username)) {
-                    // If the username matches, create a new User object.
-                    User user = new User(userData[0], userData[1], userData[2]);
-                    // Add saved transaction data to new User object
-                    reader.readLine();
-                    while (!(line = reader.readLine()).equals("RECURRING TRANSACTIONS:")) {
-                        String[] transactionData = line.split(",");
-                        user.addTransaction(new Transaction(LocalDate.parse(transactionData[0]), transactionData[1], Double.parseDouble(transactionData[2]), transactionData[3]));
-                    }
-                    // Add saved recurring transaction data to new User object
-                    while (!(line = reader.readLine()).equals("BUDGET LIMITS:")) {
-                        String[] recurringTransactionData = line.split(",");
-                        user.addRecurringTransaction(new RecurringTransaction(recurringTransactionData[0],Double.parseDouble(recurringTransactionData[1]), recurringTransactionData[2], recurringTransactionData[3]));
-                    }
-                    // Add saved budget limit data to new User object
-                    while (!(line = reader.readLine()).equals("---")) {
-                        String[] budgetLimitData = line.split(",");
-                        user.getBudgetLimits().put(budgetLimitData[0], Double.parseDouble(budgetLimitData[1]));
-                    }
-                    return user; // Return the loaded user.
-                }
+        if (!new File(fileName).exists()) {
+            System.out.println("An error occurred while loading the user data.");
+            return null;
+        }
+        // Serve recently loaded users from memory when the file has a cache.
+        UserCache cache = UserCache.forFile(fileName);
+        long cacheVersion = 0;
+        if (cache != null) {
+            User cached = cache.get(username);
+            if (cached != null) {
+                return cached;
             }
-        } catch (IOException e) {
+            cacheVersion = cache.version();
+        }
+        // Find the user's block through the index instead of scanning every line of the file.
+        long[] entry = UserIndex.forFile(fileName).lookup(username);
+        if (entry == null) {
+            return null; // Return null if the user was not found.
+        }
+        // A snapshot, if one is kept, holds the whole user and only the changes made since it need replaying.
+        User snapshot = UserSnapshot.load(username, fileName);
+        if (snapshot != null) {
+            if (cache != null) {
+                cache.put(snapshot, cacheVersion);
+            }
+            return snapshot;
+        }
+        try (FileChannel channel = FileChannel.open(Path.of(fileName), StandardOpenOption.READ)) {
+            // Map just the user's block and parse everything but the transactions in place.
+            UserDataParser.Header header = UserDataParser.parseHeader(
+                    channel.map(FileChannel.MapMode.READ_ONLY, entry[0], entry[1]));
+            User user = header.user();
+            // Transactions in the block, the user's segment and the journal are read the first time they are needed.
+            user.deferHistory(new TransactionHistory(username, fileName, header.historyEnd() - header.historyStart()));
+            // Apply any other changes journaled since the block was last written.
+            UserJournal.replaySettings(user, fileName);
+            if (cache != null) {
+                cache.put(user, cacheVersion);
+            }
+            return user;
+        } catch (IOException | IllegalStateException e) {
             // Catch and report any IO exceptions during file reading.
             System.out.println("An error occurred while loading the user data.");
         }
-        return null; // Return null if the user was not found.
+        return null;
     }
 
     /**
      * Overridden function to use default file for loading user data
      * @param username string field of object to be restored
      */
-    public static User loadUser(String username) { return loadUser(username, FILE_NAME); }
+    public static User loadUser(String username) { return loadUser(username, defaultFile(username)); }
 
     /**
      * Updates stored user data; done after a single operation on the user
@@ -108,28 +156,50 @@ public class FileManager {
      * @param fileName file to save user data to
      */
     public static void updateUser(User user, String fileName) {
+        // A user with journaled changes has a stale block on disk; replace it wholesale instead.
+        if (UserJournal.exists(user.getUsername(), fileName)) {
+            rewriteUsers(List.of(user), fileName);
+            return;
+        }
         List<String> fileLines = new ArrayList<>(); // Create a list to hold file lines.
         int index; // Variable to hold the index where the new transaction will be inserted.
+        long insertedBytes = 0; // Growth of the user's block, used to shift the index afterwards.
+        UserIndex userIndex = UserIndex.forFile(fileName);
+        // Segmented users keep an empty transaction section; bring their segment up to date instead.
+        boolean segmented = TransactionSegment.exists(user.getUsername(), fileName);
+        if (segmented) {
+            List<Transaction> transactions = user.getTransactions();
+            for (int i = TransactionSegment.count(user.getUsername(), fileName); i < transactions.size(); i++) {
+                TransactionSegment.append(user.getUsername(), transactions.get(i), fileName);
+            }
+        }
         try (Scanner scanner = new Scanner(new File(fileName))) {
             // Read the file content into the list.
             while (scanner.hasNext()) {
                 fileLines.add(scanner.nextLine());
             }
+            // Leave the file untouched if the user has never been saved to it.
+            if (!fileLines.contains(user.toString())) {
+                return;
+            }
             // Insert latest transaction of the user at the calculated index if it did not previously exist.
-            index = fileLines.indexOf(user.toString()) + user.getTransactions().size() + 1;
-            if (fileLines.get(index).equals("RECURRING TRANSACTIONS:")) {
+            index = fileLines.indexOf(user.toString()) + (segmented ? 0 : user.getTransactions().size()) + 1;
+            if (!segmented && fileLines.get(index).equals("RECURRING TRANSACTIONS:")) {
                 fileLines.add(index, user.getTransactions().getLast().toString());
+                insertedBytes += lineLength(fileLines.get(index));
             }
             // Insert latest recurring transaction of the user at the calculated index if it did not previously exist.
             index += user.getRecurringTransactions().size() + 1;
             if (fileLines.get(index).equals("BUDGET LIMITS:")) {
                 fileLines.add(index, user.getRecurringTransactions().getLast().toString());
+                insertedBytes += lineLength(fileLines.get(index));
             }
             // Insert latest budget limits of the user at the calculated index if it did not previously exist.
             index += user.getBudgetLimits().size() + 1;
             if (fileLines.get(index).equals("---")) {
-                String budgetLimit = user.getBudgetLimits().lastEntry().getKey();
+                String budgetLimit = user.getBudgetLimits().lastCategory();
                 fileLines.add(index, budgetLimit + "," + user.getBudgetLimits().get(budgetLimit));
+                insertedBytes += lineLength(fileLines.get(index));
             }
         } catch (IOException e) {
             // Catch and report any IO exceptions during file reading.
@@ -145,13 +215,425 @@ public class FileManager {
             // Catch and report any IO exceptions during file writing.
             System.out.println("An error occurred while loading the user data.");
         }
+        // Shift the offsets of every block stored after this user's.
+        userIndex.recordResize(user.getUsername(), insertedBytes);
+        UserSnapshot.discard(user.getUsername(), fileName);
+        UserCache.written(fileName, user);
+    }
+
+    /**
+     * Calculates how many bytes a line takes up once written with a trailing line separator
+     * @param line line of text as written by a BufferedWriter
+     * @return length of the line in bytes
+     */
+    private static long lineLength(String line) {
+        return (line + System.lineSeparator()).getBytes().length;
     }
 
     /**
      * Overridden function to use default file for updating user data
      * @param user object to be archived
      */
-    public static void updateUser(User user) { updateUser(user, FILE_NAME); }
+    public static void updateUser(User user) { updateUser(user, defaultFile(user.getUsername())); }
+
+    /**
+     * Replaces the stored blocks of the given users with their current state in a single pass over the file,
+     * appending any user that is not stored yet. Journals of the rewritten users are cleared afterwards.
+     * @param users objects whose stored data should be replaced
+     * @param fileName file to save user data to
+     */
+    public static void rewriteUsers(Collection<User> users, String fileName) {
+        Map<String, byte[]> blocks = new LinkedHashMap<>();
+        try {
+            for (User user : users) {
+                blocks.put(user.getUsername(), userBlockBytes(user, fileName));
+            }
+        } catch (IOException e) {
+            System.out.println("An error occurred while saving the user data.");
+            return;
+        }
+        rewriteBlocks(blocks, fileName, false);
+        for (User user : users) {
+            UserCache.written(fileName, user);
+        }
+    }
+
+    /**
+     * Replaces stored user blocks with already serialized ones in a single pass over the file, appending blocks
+     * of users that are not stored yet. Journals of the written users are cleared afterwards.
+     * @param blocks serialized blocks, as made by {@link #snapshotBlock}, keyed by username
+     * @param fileName file to save user data to
+     * @param force true to flush the new contents, and the rename that installs them, to the storage device
+     *              before returning; the whole batch costs one sync of the file and one of its directory
+     * @return true if every block was written
+     */
+    static boolean rewriteBlocks(Map<String, byte[]> blocks, String fileName, boolean force) {
+        UserIndex index = UserIndex.forFile(fileName);
+        // Order the users by where their blocks sit so the file can be copied front to back.
+        TreeMap<Long, String> stored = new TreeMap<>();
+        List<String> appended = new ArrayList<>();
+        Map<String, long[]> entries = new HashMap<>();
+        for (String username : blocks.keySet()) {
+            long[] entry = index.lookup(username);
+            if (entry == null) {
+                appended.add(username);
+            } else {
+                stored.put(entry[0], username);
+                entries.put(username, entry);
+            }
+        }
+        File file = new File(fileName);
+        boolean created = !file.exists();
+        Map<String, Long> offsets = new HashMap<>(); // Where each appended block lands.
+        if (!stored.isEmpty()) {
+            // Rewritten and new blocks go into one temporary file, so the batch is synced once.
+            File temp = new File(fileName + ".tmp");
+            try (InputStream in = new BufferedInputStream(new FileInputStream(file));
+                 FileOutputStream tempOut = new FileOutputStream(temp);
+                 OutputStream out = new BufferedOutputStream(tempOut)) {
+                long position = 0;
+                for (String username : stored.values()) {
+                    long[] entry = entries.get(username);
+                    // Copy everything between the previous block and this one, then skip the stale block.
+                    copy(in, out, entry[0] - position);
+                    in.skipNBytes(entry[1]);
+                    position = entry[0] + entry[1];
+                    out.write(blocks.get(username));
+                }
+                in.transferTo(out);
+                out.flush();
+                long offset = tempOut.getChannel().position();
+                for (String username : appended) {
+                    offsets.put(username, offset);
+                    out.write(blocks.get(username));
+                    offset += blocks.get(username).length;
+                }
+                out.flush();
+                if (force) {
+                    tempOut.getChannel().force(true); // One sync for the whole batch.
+                }
+            } catch (IOException e) {
+                System.out.println("An error occurred while saving the user data.");
+                temp.delete();
+                return false;
+            }
+            try {
+                // An atomic rename leaves either the old file or the new one after a crash, never neither.
+                Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                System.out.println("An error occurred while saving the user data.");
+                temp.delete();
+                return false;
+            }
+        } else if (!appended.isEmpty()) {
+            try (FileChannel out = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.APPEND)) {
+                long offset = out.size();
+                for (String username : appended) {
+                    offsets.put(username, offset);
+                    ByteBuffer block = ByteBuffer.wrap(blocks.get(username));
+                    while (block.hasRemaining()) {
+                        offset += out.write(block);
+                    }
+                }
+                if (force) {
+                    out.force(true); // One sync for every new user in the batch.
+                }
+            } catch (IOException e) {
+                System.out.println("An error occurred while saving the user data.");
+                return false;
+            }
+        }
+        // The rename, or the creation of a new file, is only durable once the directory entry is synced too.
+        if (force && (!stored.isEmpty() || created) && !syncDirectory(file)) {
+            System.out.println("An error occurred while saving the user data.");
+            return false;
+        }
+        Map<String, Long> deltas = new HashMap<>();
+        for (String username : stored.values()) {
+            deltas.put(username, blocks.get(username).length - entries.get(username)[1]);
+        }
+        Map<String, long[]> appends = new LinkedHashMap<>();
+        for (String username : appended) {
+            appends.put(username, new long[]{offsets.get(username), blocks.get(username).length});
+        }
+        index.recordRewrite(deltas, appends);
+        for (String username : blocks.keySet()) {
+            UserJournal.clear(username, fileName);
+            UserSnapshot.discard(username, fileName);
+        }
+        return true;
+    }
+
+    /**
+     * Flushes the directory entry of a file to the storage device.
+     * @return false if the directory could not be synced
+     */
+    private static boolean syncDirectory(File file) {
+        File directory = file.getAbsoluteFile().getParentFile();
+        try (FileChannel channel = FileChannel.open(directory.toPath(), StandardOpenOption.READ)) {
+            channel.force(true);
+            return true;
+        } catch (IOException e) {
+            // Windows cannot open a directory as a channel, so there is no directory entry to sync there.
+            return System.getProperty("os.name", "").startsWith("Windows");
+        }
+    }
+
+    /**
+     * Folds every pending journal into the data file so the next loads read a single block per user
+     * @param fileName file to save user data to
+     */
+    public static void compactJournal(String fileName) {
+        List<User> users = new ArrayList<>();
+        for (String username : UserJournal.journaledUsers(fileName)) {
+            User user = loadUser(username, fileName); // Loads the stored block and replays the journal.
+            if (user != null) {
+                users.add(user);
+            }
+        }
+        if (!users.isEmpty()) {
+            rewriteUsers(users, fileName);
+        }
+    }
+
+    /**
+     * Overridden function to use default file for compacting journals
+     */
+    public static void compactJournal() {
+        ShardLayout layout = shardLayout;
+        if (layout != null) {
+            layout.compactJournals();
+        } else {
+            compactJournal(FILE_NAME);
+        }
+    }
+
+    /**
+     * Turns the append-only journal on or off. While it is on, recording a transaction, recurring transaction
+     * or budget limit appends one record to the user's journal instead of rewriting the data file.
+     * @param enabled true to journal changes; false to update the data file directly
+     */
+    public static void setJournalMode(boolean enabled) { journalMode = enabled; }
+
+    /**
+     * @return true if changes are currently written to the append-only journal
+     */
+    public static boolean isJournalMode() { return journalMode; }
+
+    /**
+     * Persists a transaction that was just added to the user
+     * @param user object the transaction was added to
+     * @param transaction the newly added transaction
+     * @param fileName file to save user data to
+     */
+    public static void persistTransaction(User user, Transaction transaction, String fileName) {
+        if (TransactionSegment.exists(user.getUsername(), fileName)) {
+            TransactionSegment.append(user.getUsername(), transaction, fileName);
+            UserSnapshot.recordMutation(user, fileName);
+        } else if (journalMode) {
+            UserJournal.appendTransaction(user, transaction, fileName);
+            UserSnapshot.recordMutation(user, fileName);
+        } else if (!writeBehind(user, fileName)) {
+            updateUser(user, fileName);
+        }
+        UserCache.written(fileName, user);
+    }
+
+    /**
+     * Overridden function to use default file for persisting a transaction
+     */
+    public static void persistTransaction(User user, Transaction transaction) {
+        persistTransaction(user, transaction, defaultFile(user.getUsername()));
+    }
+
+    /**
+     * Persists a batch of transactions that were just added to the user in one step: a single segment or
+     * journal append, or a single rewrite of the user's block
+     * @param user object the transactions were added to
+     * @param transactions the newly added transactions, in order
+     * @param fileName file to save user data to
+     */
+    public static void persistTransactions(User user, List<Transaction> transactions, String fileName) {
+        if (transactions.isEmpty()) {
+            return;
+        }
+        if (TransactionSegment.exists(user.getUsername(), fileName)) {
+            TransactionSegment.append(user.getUsername(), transactions, fileName);
+            UserSnapshot.recordMutation(user, fileName);
+        } else if (journalMode) {
+            UserJournal.appendTransactions(user, transactions, fileName);
+            UserSnapshot.recordMutation(user, fileName);
+        } else if (!writeBehind(user, fileName)) {
+            // updateUser inserts a single line, so write the user's whole block once instead.
+            rewriteUsers(List.of(user), fileName);
+        }
+        UserCache.written(fileName, user);
+    }
+
+    /**
+     * Persists a batch of transactions to the default file
+     * @param user object the transactions were added to
+     * @param transactions the newly added transactions, in order
+     */
+    public static void persistTransactions(User user, List<Transaction> transactions) {
+        persistTransactions(user, transactions, defaultFile(user.getUsername()));
+    }
+
+    /**
+     * Persists a recurring transaction that was just added to the user
+     * @param user object the recurring transaction was added to
+     * @param recurringTransaction the newly added recurring transaction
+     * @param fileName file to save user data to
+     */
+    public static void persistRecurringTransaction(User user, RecurringTransaction recurringTransaction, String fileName) {
+        if (journalMode) {
+            UserJournal.appendRecurringTransaction(user, recurringTransaction, fileName);
+            UserSnapshot.recordMutation(user, fileName);
+        } else if (!writeBehind(user, fileName)) {
+            updateUser(user, fileName);
+        }
+        UserCache.written(fileName, user);
+    }
+
+    /**
+     * Overridden function to use default file for persisting a recurring transaction
+     */
+    public static void persistRecurringTransaction(User user, RecurringTransaction recurringTransaction) {
+        persistRecurringTransaction(user, recurringTransaction, defaultFile(user.getUsername()));
+    }
+
+    /**
+     * Persists a budget limit that was just set for the user
+     * @param user object the budget limit was set on
+     * @param category category whose limit was set
+     * @param fileName file to save user data to
+     */
+    public static void persistBudgetLimit(User user, String category, String fileName) {
+        if (journalMode) {
+            UserJournal.appendBudgetLimit(user, category, fileName);
+            UserSnapshot.recordMutation(user, fileName);
+        } else if (!writeBehind(user, fileName)) {
+            updateUser(user, fileName);
+        }
+        UserCache.written(fileName, user);
+    }
+
+    /**
+     * Overridden function to use default file for persisting a budget limit
+     */
+    public static void persistBudgetLimit(User user, String category) {
+        persistBudgetLimit(user, category, defaultFile(user.getUsername()));
+    }
+
+    /**
+     * Routes the whole-block writes made by the persist methods through a write-behind queue, so changes are
+     * coalesced per user and written in batches. Pass null to write every change immediately again.
+     * @param queue queue to submit changed users to; only used for the file the queue writes to
+     */
+    public static void setWriteBehindQueue(WriteBehindQueue queue) { writeBehind = queue; }
+
+    /**
+     * @return the write-behind queue in use, or null if changes are written immediately
+     */
+    public static WriteBehindQueue getWriteBehindQueue() { return writeBehind; }
+
+    private static boolean writeBehind(User user, String fileName) {
+        WriteBehindQueue queue = writeBehind;
+        if (queue == null || !new File(queue.getFileName()).getAbsoluteFile().equals(new File(fileName).getAbsoluteFile())) {
+            return false;
+        }
+        queue.submit(user);
+        return true;
+    }
+
+    /**
+     * Spreads the users of the default-file methods across the shards of a layout, so each call reads and
+     * writes only the shard the user hashes to. Pass null to keep every user in the single default file again.
+     * @param layout layout to route users through
+     */
+    public static void setShardLayout(ShardLayout layout) { shardLayout = layout; }
+
+    /**
+     * @return the layout the default-file methods route users through, or null if they use the single default file
+     */
+    public static ShardLayout getShardLayout() { return shardLayout; }
+
+    /**
+     * @param username user to read or write
+     * @return the file the default-file methods use for the user
+     */
+    static String defaultFile(String username) {
+        ShardLayout layout = shardLayout;
+        return layout == null ? FILE_NAME : layout.fileFor(username);
+    }
+
+    /**
+     * Turns binary transaction segments on or off for users written from now on. While it is on, saveUser and
+     * rewriteUsers store a user's transactions in a memory-mapped segment file and leave the text section empty.
+     * Users that already have a segment keep using it either way.
+     * @param enabled true to store transactions in binary segments
+     */
+    public static void setBinaryTransactions(boolean enabled) { binaryTransactions = enabled; }
+
+    /**
+     * @return true if newly written users store their transactions in binary segments
+     */
+    public static boolean isBinaryTransactions() { return binaryTransactions; }
+
+    private static boolean usesSegment(User user, String fileName) {
+        return binaryTransactions || TransactionSegment.exists(user.getUsername(), fileName);
+    }
+
+    /**
+     * Serializes a user's block into the bytes saveUser would append for it, writing the user's segment too
+     * if their transactions are stored in one
+     * @param user object to serialize
+     * @param fileName file the block will be written to
+     * @return the encoded block
+     */
+    private static byte[] userBlockBytes(User user, String fileName) throws IOException {
+        boolean segmented = usesSegment(user, fileName);
+        if (segmented) {
+            TransactionSegment.write(user.getUsername(), user.getTransactions(), fileName);
+        }
+        return blockBytes(user, !segmented);
+    }
+
+    /**
+     * Serializes a user's block as it should be stored right now, without touching any file. Users whose
+     * transactions live in a segment get an empty transaction section, as in the data file.
+     * @param user object to serialize
+     * @param fileName file the block will be written to
+     * @return the block's bytes
+     */
+    static byte[] snapshotBlock(User user, String fileName) {
+        try {
+            return blockBytes(user, !TransactionSegment.exists(user.getUsername(), fileName));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // Writing to memory does not fail.
+        }
+    }
+
+    private static byte[] blockBytes(User user, boolean includeTransactions) throws IOException {
+        StringWriter buffer = new StringWriter();
+        try (BufferedWriter writer = new BufferedWriter(buffer)) {
+            writeUserBlock(writer, user, includeTransactions);
+        }
+        return buffer.toString().getBytes();
+    }
+
+    private static void copy(InputStream in, OutputStream out, long count) throws IOException {
+        byte[] buffer = new byte[8192];
+        while (count > 0) {
+            int read = in.read(buffer, 0, (int) Math.min(buffer.length, count));
+            if (read < 0) {
+                throw new EOFException();
+            }
+            out.write(buffer, 0, read);
+            count -= read;
+        }
+    }
 
     /**
      * Checks stored data to see if user exists with appropriate username
@@ -160,22 +642,13 @@ public class FileManager {
      * @return true if user exists; false otherwise
      */
     public static boolean checkExists(String username, String fileName) {
-        // Try-with-resources to automatically close the BufferedReader after use.
-        try (BufferedReader reader = new BufferedReader(new FileReader(fileName))) {
-            // Read lines from the file until the appropriate user data is found or end is reached.
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String[] userData = line.split(",");
-                // Return true if the username is found.
-                if (userData[0].equals(username)) {
-                    return true;
-                }
-            }
-        } catch (IOException e) {
-            // Print an error message if an exception occurs during the read process.
+        if (!new File(fileName).exists()) {
+            // Print an error message if there is no data to read.
             System.out.println("An error occurred while loading the user data.");
+            return false;
         }
-        return false; // Return false if the username is not found.
+        // The index answers from memory; its Bloom filter rejects most free usernames without a map probe.
+        return UserIndex.forFile(fileName).contains(username);
     }
 
     /**
@@ -183,5 +656,5 @@ public class FileManager {
      * @param username specified field needed
      * @return true if user exists; false otherwise
      */
-    public static boolean checkExists(String username) { return checkExists(username, FILE_NAME); }
+    public static boolean checkExists(String username) { return checkExists(username, defaultFile(username)); }
 }
\ No newline at end of file
@@ -1,12 +1,30 @@
 package Finance;
 
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.fxml.FXMLLoader;
+import javafx.geometry.Insets;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
+import javafx.scene.control.Alert;
+import javafx.scene.control.Button;
+import javafx.scene.control.ButtonType;
+import javafx.scene.control.Dialog;
+import javafx.scene.control.Label;
+import javafx.scene.control.PasswordField;
+import javafx.scene.control.TextArea;
+import javafx.scene.control.TextField;
+import javafx.scene.layout.BorderPane;
+import javafx.scene.layout.GridPane;
+import javafx.scene.layout.HBox;
+import javafx.stage.FileChooser;
 import javafx.stage.Stage;
 
+import java.io.File;
+import java.io.IOException;
+
 public class FinPalApp extends Application {
+    private Scene home; // Scene loaded from FinPalGUI.fxml, shown again on logout.
 
     @Override
     public void start(Stage primaryStage) throws Exception {
@@ -14,14 +32,106 @@ public class FinPalApp extends Application {
         Parent root = FXMLLoader.load(getClass().getResource("FinPalGUI.fxml"));
 
         // Create a scene with the loaded FXML
-        Scene scene = new Scene(root);
+        home = new Scene(root);
+        Button loginButton = (Button) root.lookup("#loginButton");
+        loginButton.setOnAction(event -> login(primaryStage));
 
         // Set the scene on the primary stage and configure the stage
-        primaryStage.setScene(scene);
+        primaryStage.setScene(home);
         primaryStage.setTitle("FinPal - Your Personal Finance Manager");
         primaryStage.show();
     }
 
+    /**
+     * Asks for credentials and shows the user's statement if they match a stored user.
+     * @param stage window to show the statement in
+     */
+    private void login(Stage stage) {
+        TextField username = new TextField();
+        PasswordField password = new PasswordField();
+        GridPane fields = new GridPane();
+        fields.setHgap(10);
+        fields.setVgap(10);
+        fields.addRow(0, new Label("Username:"), username);
+        fields.addRow(1, new Label("Password:"), password);
+
+        Dialog<ButtonType> dialog = new Dialog<>();
+        dialog.initOwner(stage);
+        dialog.setTitle("Login");
+        dialog.getDialogPane().setContent(fields);
+        dialog.getDialogPane().getButtonTypes().addAll(ButtonType.OK, ButtonType.CANCEL);
+        if (dialog.showAndWait().orElse(ButtonType.CANCEL) != ButtonType.OK) {
+            return;
+        }
+
+        // Same check as the console login
+        User user = FileManager.loadUser(username.getText());
+        if (user == null || !user.getPassword().equals(password.getText())) {
+            new Alert(Alert.AlertType.ERROR, "Invalid username or password.").showAndWait();
+            return;
+        }
+        showStatement(stage, user);
+    }
+
+    /**
+     * Replaces the window's content with the user's financial statement, streamed in as it is rendered.
+     * @param stage window to show the statement in
+     * @param user logged in user
+     */
+    private void showStatement(Stage stage, User user) {
+        TextArea statement = new TextArea();
+        statement.setEditable(false);
+        statement.setStyle("-fx-font-family: monospace;");
+
+        Button export = new Button("Export...");
+        export.setOnAction(event -> exportStatement(stage, user));
+        Button logout = new Button("Logout");
+        logout.setOnAction(event -> stage.setScene(home));
+        HBox actions = new HBox(10, export, logout);
+        actions.setPadding(new Insets(10));
+
+        BorderPane layout = new BorderPane(statement);
+        layout.setTop(new Label("  Welcome back, " + user.getNickname() + "!"));
+        layout.setBottom(actions);
+        stage.setScene(new Scene(layout, 600, 400));
+
+        // Render off the FX thread; the writer hands text to the text area in blocks
+        Thread.ofVirtual().start(() -> {
+            try {
+                new StatementRenderer(user).render(new TextAreaWriter(statement));
+            } catch (IOException e) {
+                Platform.runLater(() -> new Alert(Alert.AlertType.ERROR,
+                        "An error occurred while displaying the financial statement.").show());
+            }
+        });
+    }
+
+    /**
+     * Asks for a file and writes the user's financial statement to it.
+     * @param stage window that owns the file chooser
+     * @param user logged in user
+     */
+    private void exportStatement(Stage stage, User user) {
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("Export Statement");
+        chooser.setInitialFileName(user.getUsername() + "-statement.txt");
+        chooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("Text files", "*.txt"));
+        File file = chooser.showSaveDialog(stage);
+        if (file == null) {
+            return;
+        }
+        Thread.ofVirtual().start(() -> {
+            try {
+                new StatementRenderer(user).renderToFile(file.toPath());
+                Platform.runLater(() -> new Alert(Alert.AlertType.INFORMATION,
+                        "Statement saved to " + file + ".").show());
+            } catch (IOException e) {
+                Platform.runLater(() -> new Alert(Alert.AlertType.ERROR,
+                        "An error occurred while saving the financial statement.").show());
+            }
+        });
+    }
+
     public static void main(String[] args) {
         launch(args);
     }
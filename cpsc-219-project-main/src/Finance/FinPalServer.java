@@ -0,0 +1,533 @@
+package Finance;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Embedded HTTP/JSON API over the user operations, backed by a {@link UserStore}. Every request runs on its own
+ * virtual thread, so a blocked file read or write parks only that request and one process can hold thousands
+ * of clients.
+ * <p>
+ * Endpoints (all but register and login need an {@code Authorization: Bearer <token>} header; a token expires
+ * after {@link #DEFAULT_SESSION_TIMEOUT} without requests, and dates outside 1900-9999 are rejected with 400):
+ * <ul>
+ *     <li>{@code POST /register} {"username", "password", "nickname"}</li>
+ *     <li>{@code POST /login} {"username", "password"} returns {"token"}</li>
+ *     <li>{@code POST /logout}</li>
+ *     <li>{@code POST /transactions} {"category", "amount", "type", optional "date"}</li>
+ *     <li>{@code GET /transactions?limit=} returns the most recent transactions, newest first</li>
+ *     <li>{@code GET /insights} returns lifetime totals, and each budget with this month's spending against it</li>
+ *     <li>{@code GET /statement?from=&to=&page=&pageSize=} returns the statement as text</li>
+ *     <li>{@code GET /totals?from=&to=&category=} returns income and expenses in the range and the balance at its end</li>
+ *     <li>{@code GET /query?from=&to=&category=&type=&min=&max=&groupBy=} returns the count, sum, average, min and max
+ *     of the matching transactions per group; category takes a comma-separated list, groupBy is category or month</li>
+ *     <li>{@code GET /budgets}, {@code POST /budgets} {"category", "limit"}</li>
+ *     <li>{@code GET /recurring}, {@code POST /recurring} {"category", "amount", "frequency", "type", optional "startDate"}</li>
+ * </ul>
+ * <p>
+ * Usage: java Finance.FinPalServer [port] [data file]
+ */
+public class FinPalServer {
+    private static final int DEFAULT_PORT = 8080;
+    private static final int CACHED_USERS = 10_000; // Most users kept loaded between logins.
+    private static final long CACHED_BYTES = 256L << 20; // Most memory the loaded users may hold.
+    private static final int RECENT_TRANSACTIONS = 50; // Transactions returned by GET /transactions by default.
+    private static final int SNAPSHOT_INTERVAL = 1_000; // Journaled changes between snapshots of a user.
+    public static final Duration DEFAULT_SESSION_TIMEOUT = Duration.ofMinutes(30); // Idle time before a token expires.
+
+    private final UserStore store;
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Map<String, Session> sessions = new ConcurrentHashMap<>(); // Token -> logged in user.
+    private final SecureRandom random = new SecureRandom();
+    private final Clock clock; // Source of the time sessions were last used.
+    private final long sessionTimeoutMillis; // Idle time after which a session expires.
+    private volatile long lastSweepMillis; // When expired sessions were last removed.
+
+    /**
+     * A logged in user and when their token was last used.
+     */
+    private static final class Session {
+        private final User user;
+        private volatile long lastUsedMillis;
+
+        Session(User user, long now) {
+            this.user = user;
+            this.lastUsedMillis = now;
+        }
+    }
+
+    /**
+     * A request handler; returns normally after sending a response.
+     */
+    private interface Route {
+        void handle(HttpExchange exchange) throws IOException;
+    }
+
+    /**
+     * Creates a server on a port; call {@link #start()} to begin accepting requests.
+     * @param port port to listen on; 0 picks a free port
+     * @param store store holding the users
+     * @throws IOException if the port cannot be bound
+     */
+    public FinPalServer(int port, UserStore store) throws IOException {
+        this(port, store, Clock.systemUTC(), DEFAULT_SESSION_TIMEOUT);
+    }
+
+    /**
+     * Creates a server with a specific clock and session timeout; call {@link #start()} to begin accepting requests.
+     * @param port port to listen on; 0 picks a free port
+     * @param store store holding the users
+     * @param clock clock that decides when sessions were last used
+     * @param sessionTimeout idle time after which a login token stops working
+     * @throws IOException if the port cannot be bound
+     */
+    public FinPalServer(int port, UserStore store, Clock clock, Duration sessionTimeout) throws IOException {
+        this.store = store;
+        this.clock = clock;
+        this.sessionTimeoutMillis = sessionTimeout.toMillis();
+        this.lastSweepMillis = clock.millis();
+        this.server = HttpServer.create(new InetSocketAddress(port), 1024);
+        server.setExecutor(executor);
+        route("/register", this::register);
+        route("/login", this::login);
+        route("/logout", this::logout);
+        route("/transactions", this::transactions);
+        route("/insights", this::insights);
+        route("/statement", this::statement);
+        route("/totals", this::totals);
+        route("/query", this::transactionQuery);
+        route("/budgets", this::budgets);
+        route("/recurring", this::recurring);
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        UserStore store = args.length > 1 ? UserStore.forFile(args[1]) : UserStore.forDefaultFile();
+        UserCache.enable(store.getFileName(), CACHED_USERS, CACHED_BYTES);
+        UserSnapshot.setInterval(SNAPSHOT_INTERVAL);
+        FinPalServer server = new FinPalServer(port, store);
+        server.start();
+        System.out.println("FinPal API listening on port " + server.getPort());
+    }
+
+    /**
+     * Starts accepting requests.
+     */
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * Stops accepting requests and waits up to the given time for running ones to finish.
+     * @param delaySeconds seconds to wait for running requests
+     */
+    public void stop(int delaySeconds) {
+        server.stop(delaySeconds);
+        executor.shutdown();
+    }
+
+    /**
+     * @return the port the server listens on
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    private void route(String path, Route route) {
+        server.createContext(path, exchange -> {
+            try {
+                if (!exchange.getRequestURI().getPath().equals(path)) {
+                    sendError(exchange, 404, "Not found");
+                } else {
+                    route.handle(exchange);
+                }
+            } catch (IllegalArgumentException | DateTimeParseException e) {
+                sendError(exchange, 400, e.getMessage());
+            } catch (RuntimeException e) {
+                sendError(exchange, 500, "Internal error");
+            } finally {
+                exchange.close();
+            }
+        });
+    }
+
+    private void register(HttpExchange exchange) throws IOException {
+        if (!requireMethod(exchange, "POST")) return;
+        Map<String, String> body = readBody(exchange);
+        String username = required(body, "username");
+        String password = required(body, "password");
+        if (!UserUtility.isPasswordStrong(password)) {
+            throw new IllegalArgumentException("Password must be at least 8 characters long and include letters, numbers and special characters");
+        }
+        String nickname = body.get("nickname") == null ? username : required(body, "nickname");
+        if (!store.register(new User(username, password, nickname))) {
+            sendError(exchange, 409, "Username is taken");
+            return;
+        }
+        sendJson(exchange, 201, "{\"username\":" + Json.quote(username) + "}");
+    }
+
+    private void login(HttpExchange exchange) throws IOException {
+        if (!requireMethod(exchange, "POST")) return;
+        Map<String, String> body = readBody(exchange);
+        User user = store.load(required(body, "username"));
+        if (user == null || !user.getPassword().equals(required(body, "password"))) {
+            sendError(exchange, 401, "Invalid username or password");
+            return;
+        }
+        byte[] bytes = new byte[24];
+        random.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        long now = clock.millis();
+        expireSessions(now);
+        sessions.put(token, new Session(user, now));
+        sendJson(exchange, 200, "{\"token\":" + Json.quote(token) + ",\"nickname\":" + Json.quote(user.getNickname()) + "}");
+    }
+
+    private void logout(HttpExchange exchange) throws IOException {
+        if (!requireMethod(exchange, "POST")) return;
+        String token = token(exchange);
+        Session session = token == null ? null : sessions.remove(token);
+        if (session == null || isExpired(session, clock.millis())) {
+            sendError(exchange, 401, "Not logged in");
+            return;
+        }
+        sendJson(exchange, 200, "{}");
+    }
+
+    private void transactions(HttpExchange exchange) throws IOException {
+        User user = authenticate(exchange);
+        if (user == null) return;
+        if (exchange.getRequestMethod().equals("GET")) {
+            recentTransactions(exchange, user);
+            return;
+        }
+        if (!requireMethod(exchange, "POST")) return;
+        Map<String, String> body = readBody(exchange);
+        String category = required(body, "category");
+        double amount = amount(required(body, "amount"));
+        String type = type(required(body, "type"));
+        String date = body.get("date");
+        Transaction transaction = date == null ? new Transaction(category, amount, type)
+                : new Transaction(date(date), category, amount, type);
+        boolean recorded = store.addTransaction(user, transaction);
+        BudgetMonitor.Level level = store.read(user, u -> u.getBudgetMonitor().getLevel(category));
+        sendJson(exchange, recorded ? 201 : 409, "{\"recorded\":" + recorded
+                + ",\"budgetLevel\":" + (level == null ? "null" : Json.quote(level.name())) + "}");
+    }
+
+    private void recentTransactions(HttpExchange exchange, User user) throws IOException {
+        int limit = Integer.parseInt(query(exchange).getOrDefault("limit", String.valueOf(RECENT_TRANSACTIONS)));
+        // Only the newest page is read, so a user who has not asked for anything else keeps their history on disk.
+        String json = store.read(user, u -> {
+            StringBuilder out = new StringBuilder("[");
+            boolean first = true;
+            for (Transaction transaction : u.getRecentTransactions(limit)) {
+                out.append(first ? "" : ",").append("{\"date\":").append(Json.quote(transaction.getDate().toString()))
+                        .append(",\"category\":").append(Json.quote(transaction.getCategory()))
+                        .append(",\"amount\":").append(transaction.getAmount())
+                        .append(",\"type\":").append(Json.quote(transaction.getType())).append('}');
+                first = false;
+            }
+            return out.append(']').toString();
+        });
+        sendJson(exchange, 200, json);
+    }
+
+    private void insights(HttpExchange exchange) throws IOException {
+        User user = authenticate(exchange);
+        if (user == null || !requireMethod(exchange, "GET")) return;
+        String json = store.read(user, u -> {
+            InsightAggregates insights = u.getInsights();
+            double income = insights.getTotalIncome();
+            double expenses = insights.getTotalExpenses();
+            StringBuilder out = new StringBuilder("{\"totalIncome\":").append(income)
+                    .append(",\"totalExpenses\":").append(expenses)
+                    .append(",\"netSavings\":").append(income - expenses)
+                    .append(",\"budgets\":[");
+            boolean first = true;
+            for (Map.Entry<String, Double> entry : u.getBudgetLimits().entrySet()) {
+                out.append(first ? "" : ",").append("{\"category\":").append(Json.quote(entry.getKey()))
+                        .append(",\"limit\":").append(entry.getValue())
+                        .append(",\"spent\":").append(Money.toDouble(u.getBudgetMonitor().getMonthlySpentCents(entry.getKey())))
+                        .append('}');
+                first = false;
+            }
+            return out.append("]}").toString();
+        });
+        sendJson(exchange, 200, json);
+    }
+
+    private void statement(HttpExchange exchange) throws IOException {
+        User user = authenticate(exchange);
+        if (user == null || !requireMethod(exchange, "GET")) return;
+        Map<String, String> query = query(exchange);
+        StatementRenderer renderer = new StatementRenderer(user)
+                .withDateRange(date(query.get("from")), date(query.get("to")))
+                .withPage(Integer.parseInt(query.getOrDefault("page", "0")), Integer.parseInt(query.getOrDefault("pageSize", "0")));
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        exchange.sendResponseHeaders(200, 0); // Chunked: the statement is streamed as it is rendered
+        Writer writer = new OutputStreamWriter(exchange.getResponseBody(), StandardCharsets.UTF_8);
+        IOException[] failure = new IOException[1];
+        store.read(user, u -> {
+            try {
+                return renderer.render(writer);
+            } catch (IOException e) {
+                failure[0] = e;
+                return null;
+            }
+        });
+        if (failure[0] != null) {
+            throw failure[0];
+        }
+    }
+
+    private void totals(HttpExchange exchange) throws IOException {
+        User user = authenticate(exchange);
+        if (user == null || !requireMethod(exchange, "GET")) return;
+        Map<String, String> query = query(exchange);
+        LocalDate from = date(query.get("from"));
+        LocalDate to = date(query.get("to"));
+        String category = query.get("category");
+        String json = store.read(user, u -> {
+            DateIndex index = u.getDateIndex();
+            long income = category == null ? index.sumCents(from, to, true) : index.sumCents(from, to, category, true);
+            long expenses = category == null ? index.sumCents(from, to, false) : index.sumCents(from, to, category, false);
+            return "{\"income\":" + Money.toDouble(income) + ",\"expenses\":" + Money.toDouble(expenses)
+                    + ",\"balance\":" + Money.toDouble(index.balanceCents(to)) + "}";
+        });
+        sendJson(exchange, 200, json);
+    }
+
+    private void transactionQuery(HttpExchange exchange) throws IOException {
+        User user = authenticate(exchange);
+        if (user == null || !requireMethod(exchange, "GET")) return;
+        Map<String, String> query = query(exchange);
+        TransactionQuery transactionQuery = new TransactionQuery()
+                .between(date(query.get("from")), date(query.get("to")));
+        if (query.containsKey("category")) {
+            transactionQuery.inCategories(query.get("category").split(","));
+        }
+        if (query.containsKey("type")) {
+            transactionQuery.ofType(TransactionType.parse(type(query.get("type"))));
+        }
+        if (query.containsKey("min") || query.containsKey("max")) {
+            transactionQuery.amountBetween(Double.parseDouble(query.getOrDefault("min", "0")),
+                    query.containsKey("max") ? Double.parseDouble(query.get("max")) : Double.MAX_VALUE);
+        }
+        if (query.containsKey("groupBy")) {
+            transactionQuery.groupBy(TransactionQuery.Grouping.valueOf(query.get("groupBy").toUpperCase(Locale.ROOT)));
+        }
+        // A user whose history is still on disk is queried there, without loading it.
+        String json = store.read(user, u -> {
+            StringBuilder out = new StringBuilder("{");
+            boolean first = true;
+            for (Map.Entry<String, TransactionQuery.Summary> entry : transactionQuery.summarize(u).entrySet()) {
+                TransactionQuery.Summary summary = entry.getValue();
+                out.append(first ? "" : ",").append(Json.quote(entry.getKey()))
+                        .append(":{\"count\":").append(summary.getCount())
+                        .append(",\"sum\":").append(summary.getSum())
+                        .append(",\"average\":").append(summary.getAverage())
+                        .append(",\"min\":").append(summary.getMin())
+                        .append(",\"max\":").append(summary.getMax()).append('}');
+                first = false;
+            }
+            return out.append('}').toString();
+        });
+        sendJson(exchange, 200, json);
+    }
+
+    private void budgets(HttpExchange exchange) throws IOException {
+        User user = authenticate(exchange);
+        if (user == null) return;
+        if (exchange.getRequestMethod().equals("POST")) {
+            Map<String, String> body = readBody(exchange);
+            String category = required(body, "category");
+            double limit = amount(required(body, "limit"));
+            store.setBudgetLimit(user, category, limit);
+        } else if (!requireMethod(exchange, "GET")) {
+            return;
+        }
+        String json = store.read(user, u -> {
+            StringBuilder out = new StringBuilder("{");
+            boolean first = true;
+            for (Map.Entry<String, Double> entry : u.getBudgetLimits().entrySet()) {
+                out.append(first ? "" : ",").append(Json.quote(entry.getKey())).append(':').append(entry.getValue());
+                first = false;
+            }
+            return out.append('}').toString();
+        });
+        sendJson(exchange, 200, json);
+    }
+
+    private void recurring(HttpExchange exchange) throws IOException {
+        User user = authenticate(exchange);
+        if (user == null) return;
+        if (exchange.getRequestMethod().equals("POST")) {
+            Map<String, String> body = readBody(exchange);
+            RecurringTransaction recurringTransaction = new RecurringTransaction(required(body, "category"),
+                    amount(required(body, "amount")), required(body, "frequency"), type(required(body, "type")),
+                    date(body.get("startDate")));
+            store.addRecurringTransaction(user, recurringTransaction);
+        } else if (!requireMethod(exchange, "GET")) {
+            return;
+        }
+        String json = store.read(user, u -> {
+            StringBuilder out = new StringBuilder("[");
+            boolean first = true;
+            for (RecurringTransaction rt : u.getRecurringTransactions()) {
+                out.append(first ? "" : ",").append("{\"category\":").append(Json.quote(rt.getCategory()))
+                        .append(",\"amount\":").append(rt.getAmount())
+                        .append(",\"frequency\":").append(Json.quote(rt.getFrequency()))
+                        .append(",\"type\":").append(Json.quote(rt.getType()));
+                if (rt.getStartDate() != null) {
+                    out.append(",\"startDate\":").append(Json.quote(rt.getStartDate().toString()));
+                }
+                out.append('}');
+                first = false;
+            }
+            return out.append(']').toString();
+        });
+        sendJson(exchange, 200, json);
+    }
+
+    private User authenticate(HttpExchange exchange) throws IOException {
+        String token = token(exchange);
+        Session session = token == null ? null : sessions.get(token);
+        long now = clock.millis();
+        if (session != null && isExpired(session, now)) {
+            sessions.remove(token, session);
+            session = null;
+        }
+        if (session == null) {
+            sendError(exchange, 401, "Not logged in");
+            return null;
+        }
+        session.lastUsedMillis = now;
+        return session.user;
+    }
+
+    private boolean isExpired(Session session, long now) {
+        return now - session.lastUsedMillis > sessionTimeoutMillis;
+    }
+
+    /**
+     * Drops every expired session, at most once per timeout, so tokens that are never used again do not pile up.
+     */
+    private void expireSessions(long now) {
+        if (now - lastSweepMillis > sessionTimeoutMillis) {
+            lastSweepMillis = now;
+            sessions.values().removeIf(session -> isExpired(session, now));
+        }
+    }
+
+    private static String token(HttpExchange exchange) {
+        String header = exchange.getRequestHeaders().getFirst("Authorization");
+        return header != null && header.startsWith("Bearer ") ? header.substring(7).trim() : null;
+    }
+
+    private static boolean requireMethod(HttpExchange exchange, String method) throws IOException {
+        if (!exchange.getRequestMethod().equals(method)) {
+            exchange.getResponseHeaders().set("Allow", method);
+            sendError(exchange, 405, "Method not allowed");
+            return false;
+        }
+        return true;
+    }
+
+    private static Map<String, String> readBody(HttpExchange exchange) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            return Json.parseObject(new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    private static Map<String, String> query(HttpExchange exchange) {
+        Map<String, String> query = new HashMap<>();
+        String raw = exchange.getRequestURI().getRawQuery();
+        if (raw != null) {
+            for (String pair : raw.split("&")) {
+                int equals = pair.indexOf('=');
+                if (equals > 0) {
+                    query.put(URLDecoder.decode(pair.substring(0, equals), StandardCharsets.UTF_8),
+                            URLDecoder.decode(pair.substring(equals + 1), StandardCharsets.UTF_8));
+                }
+            }
+        }
+        return query;
+    }
+
+    private static String required(Map<String, String> body, String field) {
+        String value = body.get(field);
+        if (value == null || value.isBlank()) {
+            throw new IllegalArgumentException("Missing field: " + field);
+        }
+        if (value.contains(",") || value.contains("\n")) {
+            // Fields end up in comma separated data files
+            throw new IllegalArgumentException("Field " + field + " cannot contain commas or line breaks");
+        }
+        return value;
+    }
+
+    /**
+     * Parses an optional date parameter.
+     * @param text date as yyyy-MM-dd; null if the parameter was not given
+     * @return the date; null if not given
+     * @throws IllegalArgumentException if the date is outside the range transactions may have
+     */
+    private static LocalDate date(String text) {
+        return text == null ? null : Transaction.checkDate(LocalDate.parse(text));
+    }
+
+    private static double amount(String text) {
+        double amount = Double.parseDouble(text);
+        if (!(amount > 0) || Double.isInfinite(amount)) {
+            throw new IllegalArgumentException("Amount must be a positive number");
+        }
+        return amount;
+    }
+
+    private static String type(String text) {
+        if (!text.equals("Income") && !text.equals("Expense")) {
+            throw new IllegalArgumentException("Type must be Income or Expense");
+        }
+        return text;
+    }
+
+    private static void sendJson(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static void sendError(HttpExchange exchange, int status, String message) throws IOException {
+        if (exchange.getResponseCode() != -1) {
+            return; // Headers already sent, e.g. a statement failed half way
+        }
+        sendJson(exchange, status, "{\"error\":" + Json.quote(message == null ? "Bad request" : message) + "}");
+    }
+}
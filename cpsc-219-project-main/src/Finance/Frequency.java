@@ -0,0 +1,92 @@
+package Finance;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * How often a recurring transaction repeats. Occurrences are counted from the schedule's start date, so a
+ * monthly schedule starting on the 31st falls on the last day of shorter months and returns to the 31st after.
+ */
+public enum Frequency {
+    DAILY("daily", 30), // Approximate days in a month
+    WEEKLY("weekly", 4.3), // Approximate weeks in a month
+    BI_WEEKLY("bi-weekly", 2.15), // Twice a month
+    MONTHLY("monthly", 1); // Once a month
+
+    private final String label; // Name as the user types it and as it is stored.
+    private final double monthlyMultiplier; // Occurrences in an average month, for monthly projections.
+
+    Frequency(String label, double monthlyMultiplier) {
+        this.label = label;
+        this.monthlyMultiplier = monthlyMultiplier;
+    }
+
+    /**
+     * Parses a frequency the way the user types it, ignoring case.
+     * @param text frequency text, e.g. "Weekly"
+     * @return the frequency; null if the text is not a known frequency
+     */
+    public static Frequency parse(String text) {
+        if (text == null) {
+            return null;
+        }
+        return switch (text.toLowerCase()) {
+            case "daily" -> DAILY;
+            case "weekly" -> WEEKLY;
+            case "bi-weekly" -> BI_WEEKLY;
+            case "monthly" -> MONTHLY;
+            default -> null;
+        };
+    }
+
+    /**
+     * @return the frequency's name as it is stored, e.g. "bi-weekly"
+     */
+    public String getLabel() {
+        return label;
+    }
+
+    /**
+     * @return approximate number of occurrences in a month, used for monthly projections
+     */
+    public double getMonthlyMultiplier() {
+        return monthlyMultiplier;
+    }
+
+    /**
+     * @param start date of the first occurrence
+     * @param n index of the occurrence; 0 is the start date
+     * @return date of the n-th occurrence
+     */
+    public LocalDate occurrence(LocalDate start, long n) {
+        return switch (this) {
+            case DAILY -> start.plusDays(n);
+            case WEEKLY -> start.plusWeeks(n);
+            case BI_WEEKLY -> start.plusWeeks(2 * n);
+            case MONTHLY -> start.plusMonths(n);
+        };
+    }
+
+    /**
+     * Finds the first occurrence on or after a date without stepping through the ones before it.
+     * @param start date of the first occurrence
+     * @param date date to search from
+     * @return index of the first occurrence on or after the date
+     */
+    public long firstIndexOnOrAfter(LocalDate start, LocalDate date) {
+        if (!date.isAfter(start)) {
+            return 0;
+        }
+        long days = ChronoUnit.DAYS.between(start, date);
+        long n = switch (this) {
+            case DAILY -> days;
+            case WEEKLY -> Math.ceilDiv(days, 7);
+            case BI_WEEKLY -> Math.ceilDiv(days, 14);
+            case MONTHLY -> ChronoUnit.MONTHS.between(start, date);
+        };
+        while (occurrence(start, n).isBefore(date)) {
+            n++; // Only for months, whose end-of-month clamping can land one occurrence early.
+        }
+        return n;
+    }
+}
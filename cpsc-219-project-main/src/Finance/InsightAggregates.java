@@ -0,0 +1,153 @@
+package Finance;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Running totals behind a user's financial insights. Every transaction and recurring transaction is folded in
+ * once, in O(1), when it is added to the user, so showing insights costs O(categories) instead of a pass over
+ * the whole history. One-time transactions are totalled exactly in cents per type and per category id;
+ * recurring transactions are totalled as projected monthly amounts.
+ */
+public class InsightAggregates {
+    private final CategoryDictionary categories; // Dictionary of the store whose category ids are used here.
+    private long incomeCents; // Total of one-time Income transactions.
+    private long expenseCents; // Total of one-time Expense transactions.
+    private long[] categoryIncomeCents = new long[8]; // One-time income by category id.
+    private long[] categoryExpenseCents = new long[8]; // One-time expenses by category id.
+    private double recurringIncome; // Projected monthly income from recurring transactions.
+    private double recurringExpenses; // Projected monthly expenses from recurring transactions.
+    // Recurring expense amounts by category, unprojected, as the insights advice reports them.
+    private final Map<String, Double> recurringCategoryExpenses = new HashMap<>();
+    // Recurring expenses by category, projected over a month, as budget checks count them.
+    private final Map<String, Double> projectedCategoryExpenses = new HashMap<>();
+
+    /**
+     * Creates empty aggregates for a store that encodes categories with the given dictionary.
+     * @param categories dictionary of the store the transactions are added to
+     */
+    public InsightAggregates(CategoryDictionary categories) {
+        this.categories = categories;
+    }
+
+    /**
+     * Folds one transaction into the totals.
+     * @param categoryId category id of the transaction
+     * @param amountCents amount in cents
+     * @param income true for Income; false for Expense
+     */
+    public void addTransaction(int categoryId, long amountCents, boolean income) {
+        if (categoryId >= categoryExpenseCents.length) {
+            int capacity = Math.max(categoryId + 1, categoryExpenseCents.length * 2);
+            categoryIncomeCents = Arrays.copyOf(categoryIncomeCents, capacity);
+            categoryExpenseCents = Arrays.copyOf(categoryExpenseCents, capacity);
+        }
+        if (income) {
+            incomeCents += amountCents;
+            categoryIncomeCents[categoryId] += amountCents;
+        } else {
+            expenseCents += amountCents;
+            categoryExpenseCents[categoryId] += amountCents;
+        }
+    }
+
+    /**
+     * Replaces the one-time totals with ones computed earlier, e.g. stored in a snapshot.
+     * @param incomeCents total income
+     * @param expenseCents total expenses
+     * @param categoryIncomeCents income by category id
+     * @param categoryExpenseCents expenses by category id
+     */
+    void restore(long incomeCents, long expenseCents, long[] categoryIncomeCents, long[] categoryExpenseCents) {
+        this.incomeCents = incomeCents;
+        this.expenseCents = expenseCents;
+        int capacity = Math.max(8, categoryExpenseCents.length);
+        this.categoryIncomeCents = Arrays.copyOf(categoryIncomeCents, capacity);
+        this.categoryExpenseCents = Arrays.copyOf(categoryExpenseCents, capacity);
+    }
+
+    /**
+     * Folds one recurring transaction into the projected monthly totals.
+     * @param recurringTransaction the recurring transaction to add
+     */
+    public void addRecurringTransaction(RecurringTransaction recurringTransaction) {
+        double projected = recurringTransaction.getAmount() * UserUtility.calculateFrequencyMultiplier(recurringTransaction.getPeriod());
+        String category = recurringTransaction.getCategory();
+        if (recurringTransaction.getTransactionType() == TransactionType.INCOME) {
+            recurringIncome += projected;
+        } else {
+            recurringExpenses += projected;
+            recurringCategoryExpenses.merge(category, recurringTransaction.getAmount(), Double::sum);
+            projectedCategoryExpenses.merge(category, projected, Double::sum);
+        }
+    }
+
+    /**
+     * @return one-time income plus projected monthly recurring income
+     */
+    public double getTotalIncome() {
+        return Money.toDouble(incomeCents) + recurringIncome;
+    }
+
+    /**
+     * @return one-time expenses plus projected monthly recurring expenses
+     */
+    public double getTotalExpenses() {
+        return Money.toDouble(expenseCents) + recurringExpenses;
+    }
+
+    /**
+     * @return total of one-time Income transactions in cents
+     */
+    public long getIncomeCents() {
+        return incomeCents;
+    }
+
+    /**
+     * @return total of one-time Expense transactions in cents
+     */
+    public long getExpenseCents() {
+        return expenseCents;
+    }
+
+    /**
+     * Returns the one-time expenses recorded against a category.
+     * @param category category name
+     * @return total in cents; 0 if nothing was spent in the category
+     */
+    public long getCategoryExpenseCents(String category) {
+        int categoryId = categories.find(category);
+        return categoryId < 0 || categoryId >= categoryExpenseCents.length ? 0 : categoryExpenseCents[categoryId];
+    }
+
+    /**
+     * Returns the one-time income recorded against a category.
+     * @param category category name
+     * @return total in cents; 0 if nothing was earned in the category
+     */
+    public long getCategoryIncomeCents(String category) {
+        int categoryId = categories.find(category);
+        return categoryId < 0 || categoryId >= categoryIncomeCents.length ? 0 : categoryIncomeCents[categoryId];
+    }
+
+    /**
+     * Returns the spending in a category the way the insights advice reports it: one-time expenses plus the
+     * unprojected amounts of recurring expenses.
+     * @param category category name
+     * @return amount spent
+     */
+    public double getCategorySpending(String category) {
+        return Money.toDouble(getCategoryExpenseCents(category)) + recurringCategoryExpenses.getOrDefault(category, 0.0);
+    }
+
+    /**
+     * Returns the spending in a category the way budget checks count it: one-time expenses plus recurring
+     * expenses projected over a month.
+     * @param category category name
+     * @return projected amount spent
+     */
+    public double getProjectedCategorySpending(String category) {
+        return Money.toDouble(getCategoryExpenseCents(category)) + projectedCategoryExpenses.getOrDefault(category, 0.0);
+    }
+}
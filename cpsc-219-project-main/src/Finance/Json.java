@@ -0,0 +1,142 @@
+package Finance;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Just enough JSON for the HTTP API: reading flat request objects and quoting strings in responses.
+ */
+final class Json {
+    private Json() {
+    }
+
+    /**
+     * Parses a JSON object whose values are strings, numbers, booleans or null.
+     * @param text the JSON text
+     * @return field names mapped to their values as text; null values map to null
+     * @throws IllegalArgumentException if the text is not such an object
+     */
+    static Map<String, String> parseObject(String text) {
+        Map<String, String> fields = new LinkedHashMap<>();
+        int[] pos = {skipSpace(text, 0)};
+        expect(text, pos, '{');
+        if (peek(text, pos) == '}') {
+            pos[0]++;
+            return fields;
+        }
+        while (true) {
+            String name = readString(text, pos);
+            expect(text, pos, ':');
+            String value;
+            if (peek(text, pos) == '"') {
+                value = readString(text, pos);
+            } else {
+                int start = pos[0];
+                while (pos[0] < text.length() && ",} \t\r\n".indexOf(text.charAt(pos[0])) < 0) {
+                    pos[0]++;
+                }
+                value = text.substring(start, pos[0]);
+                if (value.isEmpty() || value.charAt(0) == '{' || value.charAt(0) == '[') {
+                    throw new IllegalArgumentException("Only flat JSON objects are supported");
+                }
+                if (value.equals("null")) {
+                    value = null;
+                }
+            }
+            fields.put(name, value);
+            char next = peek(text, pos);
+            pos[0]++;
+            if (next == '}') {
+                return fields;
+            }
+            if (next != ',') {
+                throw new IllegalArgumentException("Expected ',' or '}' in JSON object");
+            }
+        }
+    }
+
+    /**
+     * @param value string to quote
+     * @return the string as a JSON string literal
+     */
+    static String quote(String value) {
+        StringBuilder quoted = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> quoted.append("\\\"");
+                case '\\' -> quoted.append("\\\\");
+                case '\n' -> quoted.append("\\n");
+                case '\r' -> quoted.append("\\r");
+                case '\t' -> quoted.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        quoted.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        quoted.append(c);
+                    }
+                }
+            }
+        }
+        return quoted.append('"').toString();
+    }
+
+    private static String readString(String text, int[] pos) {
+        expect(text, pos, '"');
+        StringBuilder value = new StringBuilder();
+        while (true) {
+            if (pos[0] >= text.length()) {
+                throw new IllegalArgumentException("Unterminated JSON string");
+            }
+            char c = text.charAt(pos[0]++);
+            if (c == '"') {
+                return value.toString();
+            }
+            if (c != '\\') {
+                value.append(c);
+                continue;
+            }
+            if (pos[0] >= text.length()) {
+                throw new IllegalArgumentException("Unterminated JSON string");
+            }
+            char escaped = text.charAt(pos[0]++);
+            switch (escaped) {
+                case 'n' -> value.append('\n');
+                case 'r' -> value.append('\r');
+                case 't' -> value.append('\t');
+                case 'b' -> value.append('\b');
+                case 'f' -> value.append('\f');
+                case 'u' -> {
+                    if (pos[0] + 4 > text.length()) {
+                        throw new IllegalArgumentException("Invalid JSON escape");
+                    }
+                    value.append((char) Integer.parseInt(text.substring(pos[0], pos[0] + 4), 16));
+                    pos[0] += 4;
+                }
+                default -> value.append(escaped); // \" \\ \/
+            }
+        }
+    }
+
+    private static void expect(String text, int[] pos, char expected) {
+        if (peek(text, pos) != expected) {
+            throw new IllegalArgumentException("Expected '" + expected + "' in JSON");
+        }
+        pos[0]++;
+    }
+
+    private static char peek(String text, int[] pos) {
+        pos[0] = skipSpace(text, pos[0]);
+        if (pos[0] >= text.length()) {
+            throw new IllegalArgumentException("Unexpected end of JSON");
+        }
+        return text.charAt(pos[0]);
+    }
+
+    private static int skipSpace(String text, int pos) {
+        while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) {
+            pos++;
+        }
+        return pos;
+    }
+}
@@ -0,0 +1,33 @@
+package Finance;
+
+/**
+ * Conversions between amounts in dollars and whole cents. Amounts are stored and summed as {@code long} cents so
+ * totals over long histories never drift the way sums of doubles do; these helpers convert at the edges, where
+ * amounts are typed in or displayed, without creating objects.
+ */
+public final class Money {
+    // Decimal places of the currency the application works in.
+    public static final int SCALE = 2;
+    // Minor units in a major unit, 10^SCALE.
+    private static final long UNIT = (long) Math.pow(10, SCALE);
+
+    private Money() {
+    }
+
+    /**
+     * Rounds an amount typed in or read as a double to whole cents.
+     * @param amount amount in major units
+     * @return the amount in cents
+     */
+    public static long toMinor(double amount) {
+        return Math.round(amount * UNIT);
+    }
+
+    /**
+     * @param minorUnits amount in cents
+     * @return the amount in major units, for display in the same format amounts have always been shown in
+     */
+    public static double toDouble(long minorUnits) {
+        return (double) minorUnits / UNIT;
+    }
+}
@@ -1,27 +1,43 @@
 package Finance;
 
+import java.time.LocalDate;
+import java.util.Objects;
+
 public class RecurringTransaction {
     private final String category;
-    private final double amount;
+    private final long amount; // in cents
     private final String frequency; // e.g., "monthly", "weekly"
-    private final String type; // "Income" or "Expense"
+    private final Frequency period; // frequency parsed once; null if it is not a known frequency
+    private final TransactionType type; // Income or Expense
+    private final LocalDate startDate; // first occurrence; null if none was recorded
 
     public RecurringTransaction(String category, double amount, String frequency, String type) {
+        this(category, amount, frequency, type, null);
+    }
+
+    public RecurringTransaction(String category, double amount, String frequency, String type, LocalDate startDate) {
         this.category = category;
-        this.amount = amount;
+        this.amount = Money.toMinor(amount);
         this.frequency = frequency;
-        this.type = type;
+        this.period = Frequency.parse(frequency);
+        this.type = TransactionType.parse(type);
+        this.startDate = startDate == null ? null : Transaction.checkDate(startDate);
     }
 
     // Getters and Setters
     public String getCategory() { return category; }
-    public double getAmount() { return amount; }
+    public double getAmount() { return Money.toDouble(amount); }
+    public long getAmountCents() { return amount; }
     public String getFrequency() { return frequency; }
-    public String getType() { return type; }
+    public Frequency getPeriod() { return period; }
+    public String getType() { return type.getLabel(); }
+    public TransactionType getTransactionType() { return type; }
+    public LocalDate getStartDate() { return startDate; }
 
     @Override
     public String toString() {
-        return category + "," + amount + "," + frequency + "," + type;
+        String line = category + "," + getAmount() + "," + frequency + "," + type.getLabel();
+        return startDate == null ? line : line + "," + startDate;
     }
 
     @Override
@@ -31,9 +47,20 @@ public class RecurringTransaction {
 
         RecurringTransaction that = (RecurringTransaction) o;
 
-        if (Double.compare(getAmount(), that.getAmount()) != 0) return false;
+        if (amount != that.amount) return false;
         if (!getCategory().equals(that.getCategory())) return false;
         if (!getFrequency().equals(that.getFrequency())) return false;
-        return getType().equals(that.getType());
+        if (!Objects.equals(getStartDate(), that.getStartDate())) return false;
+        return type == that.type;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = getCategory().hashCode();
+        result = 31 * result + Long.hashCode(amount);
+        result = 31 * result + getFrequency().hashCode();
+        result = 31 * result + getType().hashCode();
+        result = 31 * result + Objects.hashCode(getStartDate());
+        return result;
     }
 }
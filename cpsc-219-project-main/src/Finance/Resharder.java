@@ -0,0 +1,235 @@
+package Finance;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Splits a single data file into the shards of a {@link ShardLayout}, in parallel.
+ * <p>
+ * The source is cut into regions at "---" user boundaries as in {@link BatchReportJob}. A fork-join task per region
+ * sorts its user blocks by shard and writes one part file per shard it touched. The parts of each shard are then
+ * joined in region order, one shard per task, so each shard keeps its users in their original order. Blocks are
+ * copied byte for byte. Only users with a transaction segment or pending journal in the source are parsed, and
+ * they are written back as plain text blocks with their changes applied.
+ * <p>
+ * Usage: java Finance.Resharder [data file] [shard count]
+ */
+public class Resharder {
+    private static final String PART_SUFFIX = ".part";
+
+    private final ForkJoinPool pool;
+
+    /**
+     * Creates a resharder that runs on the common fork-join pool.
+     */
+    public Resharder() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates a resharder that runs on the given pool.
+     * @param pool pool to split and join the shards on
+     */
+    public Resharder(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Moves every user of a data file into the shard of a layout. The source file is left as it is.
+     * @param sourceFile data file to split
+     * @param target layout to fill; its shards must be empty
+     * @return number of users moved
+     * @throws IOException if the source cannot be read, a shard cannot be written or a shard already holds users
+     */
+    public int reshard(String sourceFile, ShardLayout target) throws IOException {
+        for (String shardFile : target.getShardFiles()) {
+            if (new File(shardFile).length() > 0) {
+                throw new IOException("Shard already holds users: " + shardFile);
+            }
+        }
+        int users;
+        int regions;
+        try (FileChannel channel = FileChannel.open(Path.of(sourceFile), StandardOpenOption.READ)) {
+            long[] bounds = BatchReportJob.regions(channel, pool.getParallelism());
+            regions = bounds.length - 1;
+            // Journals are listed once up front rather than checked for every user.
+            Set<String> journaled = new HashSet<>(UserJournal.journaledUsers(sourceFile));
+            boolean segmented = new File(sourceFile + TransactionSegment.SEGMENT_SUFFIX).isDirectory();
+            users = pool.invoke(new SplitTask(new Split(sourceFile, channel, bounds, journaled, segmented, target),
+                    0, regions));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        List<ForkJoinTask<Void>> joins = new ArrayList<>();
+        for (String shardFile : target.getShardFiles()) {
+            final int parts = regions;
+            joins.add(pool.submit(() -> {
+                joinParts(shardFile, parts);
+                return null;
+            }));
+        }
+        for (ForkJoinTask<Void> join : joins) {
+            try {
+                join.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while joining shards", e);
+            } catch (ExecutionException e) {
+                throw e.getCause() instanceof IOException io ? io : new IOException(e.getCause());
+            }
+        }
+        for (String shardFile : target.getShardFiles()) {
+            UserIndex.forFile(shardFile).rebuild(); // The shard was written behind the index's back.
+        }
+        return users;
+    }
+
+    /**
+     * Appends the parts of one shard to its file in region order and deletes them.
+     */
+    private static void joinParts(String shardFile, int regions) throws IOException {
+        try (FileChannel out = FileChannel.open(Path.of(shardFile), StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            for (int region = 0; region < regions; region++) {
+                Path part = Path.of(partFile(shardFile, region));
+                if (!Files.exists(part)) {
+                    continue; // The region held no users of this shard.
+                }
+                try (FileChannel in = FileChannel.open(part, StandardOpenOption.READ)) {
+                    long position = 0;
+                    long size = in.size();
+                    while (position < size) {
+                        position += in.transferTo(position, size - position, out);
+                    }
+                }
+                Files.delete(part);
+            }
+        }
+    }
+
+    private static String partFile(String shardFile, int region) {
+        return shardFile + PART_SUFFIX + region;
+    }
+
+    /**
+     * What every task of one reshard shares.
+     * @param sourceFile data file being split
+     * @param channel open source file
+     * @param bounds region boundaries; region i is [bounds[i], bounds[i + 1])
+     * @param journaled users with journaled changes in the source
+     * @param segmented whether any user has a transaction segment in the source
+     * @param target layout being filled
+     */
+    private record Split(String sourceFile, FileChannel channel, long[] bounds, Set<String> journaled,
+                         boolean segmented, ShardLayout target) {
+    }
+
+    /**
+     * Splits regions [first, last) into part files, halving the run while it holds more than one region.
+     */
+    @SuppressWarnings("serial") // A fork/join task that never leaves the process.
+    private static final class SplitTask extends RecursiveTask<Integer> {
+        private final Split split;
+        private final int first;
+        private final int last;
+
+        SplitTask(Split split, int first, int last) {
+            this.split = split;
+            this.first = first;
+            this.last = last;
+        }
+
+        @Override
+        protected Integer compute() {
+            if (last - first > 1) {
+                int middle = (first + last) >>> 1;
+                SplitTask right = new SplitTask(split, middle, last);
+                right.fork();
+                return new SplitTask(split, first, middle).compute() + right.join();
+            }
+            if (last == first) {
+                return 0; // Empty file.
+            }
+            try {
+                return splitRegion();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private int splitRegion() throws IOException {
+            long start = split.bounds()[first];
+            MappedByteBuffer region = split.channel().map(FileChannel.MapMode.READ_ONLY, start, split.bounds()[last] - start);
+            ShardLayout target = split.target();
+            OutputStream[] parts = new OutputStream[target.getShardCount()];
+            int[] users = new int[1];
+            try {
+                UserDataParser.forEachBlock(region, (username, offset, length) -> {
+                    int shard = target.shardOf(username);
+                    String shardFile = target.getShardFile(shard);
+                    try {
+                        if (parts[shard] == null) {
+                            parts[shard] = new FileOutputStream(partFile(shardFile, first));
+                        }
+                        parts[shard].write(blockBytes(username, region, offset, length, shardFile));
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    users[0]++;
+                });
+            } finally {
+                for (OutputStream part : parts) {
+                    if (part != null) {
+                        part.close();
+                    }
+                }
+            }
+            return users[0];
+        }
+
+        /**
+         * @return the bytes to store for a user in their shard
+         */
+        private byte[] blockBytes(String username, MappedByteBuffer region, int offset, int length, String shardFile) {
+            String sourceFile = split.sourceFile();
+            boolean hasSegment = split.segmented() && TransactionSegment.exists(username, sourceFile);
+            if (!hasSegment && !split.journaled().contains(username)) {
+                byte[] block = new byte[length];
+                region.get(offset, block);
+                return block;
+            }
+            // Same steps as FileManager.loadUser, so the shard gets the user's current state as plain text.
+            User user = UserDataParser.parseBlock(region.slice(offset, length));
+            if (hasSegment) {
+                for (Transaction transaction : TransactionSegment.read(username, sourceFile)) {
+                    user.addTransaction(transaction);
+                }
+            }
+            UserJournal.replay(user, sourceFile);
+            return FileManager.snapshotBlock(user, shardFile);
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        String fileName = args.length > 0 ? args[0] : FileManager.FILE_NAME;
+        int shardCount = args.length > 1 ? Integer.parseInt(args[1]) : 16;
+        long start = System.nanoTime();
+        int users = new Resharder().reshard(fileName, new ShardLayout(fileName, shardCount));
+        System.out.printf("Moved %d users into %d shards in %.2f s%n", users, shardCount, (System.nanoTime() - start) / 1e9);
+    }
+}
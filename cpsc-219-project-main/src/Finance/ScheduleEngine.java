@@ -0,0 +1,219 @@
+package Finance;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+
+/**
+ * Expands recurring transactions into their actual dates. Unlike the monthly projection in the insights, which
+ * treats every month as 30 days or 4.3 weeks, each occurrence falls on a real calendar date counted from the
+ * schedule's start date.
+ * <p>
+ * Occurrences are produced lazily: each schedule jumps straight to its first occurrence in the range, and a
+ * priority queue holding one upcoming occurrence per schedule merges them into date order. Totals over a range
+ * are counted per schedule without expanding the occurrences at all.
+ */
+public class ScheduleEngine {
+    private final List<Schedule> schedules = new ArrayList<>();
+
+    /**
+     * One occurrence of a recurring transaction.
+     * @param date day the transaction happens
+     * @param transaction the recurring transaction it belongs to
+     */
+    public record Occurrence(LocalDate date, RecurringTransaction transaction) {
+    }
+
+    /**
+     * A recurring transaction with its start date and period resolved.
+     * @param order position among the schedules, used to break ties between occurrences on the same day
+     */
+    private record Schedule(int order, RecurringTransaction transaction, LocalDate start, Frequency period, long amountCents) {
+    }
+
+    /**
+     * The next occurrence of one schedule, ordered by date and then by schedule.
+     */
+    private static final class Cursor implements Comparable<Cursor> {
+        private final Schedule schedule;
+        private final long last; // Index of the schedule's last occurrence in the range.
+        private long n; // Index of the upcoming occurrence.
+        private LocalDate date; // Date of the upcoming occurrence.
+
+        private Cursor(Schedule schedule, long first, long last) {
+            this.schedule = schedule;
+            this.last = last;
+            this.n = first;
+            this.date = schedule.period().occurrence(schedule.start(), first);
+        }
+
+        /**
+         * @return true if the schedule has another occurrence in the range
+         */
+        private boolean advance() {
+            if (++n > last) {
+                return false;
+            }
+            // Counted from the start date so monthly schedules do not drift after a short month.
+            date = schedule.period().occurrence(schedule.start(), n);
+            return true;
+        }
+
+        @Override
+        public int compareTo(Cursor other) {
+            int byDate = date.compareTo(other.date);
+            return byDate != 0 ? byDate : Integer.compare(schedule.order(), other.schedule.order());
+        }
+    }
+
+    /**
+     * Income, expenses and number of occurrences in a date range.
+     */
+    public static final class Projection {
+        private long incomeCents;
+        private long expenseCents;
+        private long occurrences;
+
+        /**
+         * @return total income of the occurrences
+         */
+        public double getIncome() {
+            return Money.toDouble(incomeCents);
+        }
+
+        /**
+         * @return total expenses of the occurrences
+         */
+        public double getExpenses() {
+            return Money.toDouble(expenseCents);
+        }
+
+        /**
+         * @return total income of the occurrences, in cents
+         */
+        public long getIncomeCents() {
+            return incomeCents;
+        }
+
+        /**
+         * @return total expenses of the occurrences, in cents
+         */
+        public long getExpenseCents() {
+            return expenseCents;
+        }
+
+        /**
+         * @return income minus expenses
+         */
+        public double getNet() {
+            return Money.toDouble(incomeCents - expenseCents);
+        }
+
+        /**
+         * @return number of occurrences
+         */
+        public long getOccurrences() {
+            return occurrences;
+        }
+    }
+
+    /**
+     * Creates an engine over a set of recurring transactions.
+     * @param recurringTransactions the recurring transactions, in the order ties on the same day are reported
+     * @param defaultStart start date for recurring transactions that have none recorded
+     */
+    public ScheduleEngine(Collection<RecurringTransaction> recurringTransactions, LocalDate defaultStart) {
+        for (RecurringTransaction recurringTransaction : recurringTransactions) {
+            LocalDate start = recurringTransaction.getStartDate() != null ? recurringTransaction.getStartDate() : defaultStart;
+            // Unknown frequencies default to monthly, as they do in the insights.
+            Frequency period = recurringTransaction.getPeriod() != null ? recurringTransaction.getPeriod() : Frequency.MONTHLY;
+            schedules.add(new Schedule(schedules.size(), recurringTransaction, start, period,
+                    recurringTransaction.getAmountCents()));
+        }
+    }
+
+    /**
+     * Creates an engine over a user's recurring transactions.
+     * @param user user whose recurring transactions are scheduled
+     * @param defaultStart start date for recurring transactions that have none recorded
+     * @return the engine
+     */
+    public static ScheduleEngine forUser(User user, LocalDate defaultStart) {
+        return new ScheduleEngine(user.getRecurringTransactions(), defaultStart);
+    }
+
+    /**
+     * Lists the occurrences of every schedule in a date range, in date order. Occurrences are computed as
+     * the iteration reaches them, so a range of decades costs nothing until it is consumed.
+     * @param from first day of the range, inclusive
+     * @param to last day of the range, inclusive
+     * @return the occurrences in date order; occurrences on the same day follow the order of the schedules
+     */
+    public Iterable<Occurrence> occurrences(LocalDate from, LocalDate to) {
+        return () -> {
+            PriorityQueue<Cursor> upcoming = new PriorityQueue<>(Math.max(1, schedules.size()));
+            for (Schedule schedule : schedules) {
+                long first = firstIndex(schedule, from);
+                long last = lastIndex(schedule, to);
+                if (first <= last) {
+                    upcoming.add(new Cursor(schedule, first, last));
+                }
+            }
+            return new Iterator<>() {
+                @Override
+                public boolean hasNext() {
+                    return !upcoming.isEmpty();
+                }
+
+                @Override
+                public Occurrence next() {
+                    Cursor cursor = upcoming.poll();
+                    if (cursor == null) {
+                        throw new NoSuchElementException();
+                    }
+                    Occurrence occurrence = new Occurrence(cursor.date, cursor.schedule.transaction());
+                    if (cursor.advance()) {
+                        upcoming.add(cursor);
+                    }
+                    return occurrence;
+                }
+            };
+        };
+    }
+
+    /**
+     * Totals the occurrences of every schedule in a date range. Each schedule's occurrences are counted
+     * from its first and last index in the range, so the cost does not grow with the length of the range.
+     * @param from first day of the range, inclusive
+     * @param to last day of the range, inclusive
+     * @return income, expenses and number of occurrences in the range
+     */
+    public Projection project(LocalDate from, LocalDate to) {
+        Projection projection = new Projection();
+        for (Schedule schedule : schedules) {
+            long count = lastIndex(schedule, to) - firstIndex(schedule, from) + 1;
+            if (count <= 0) {
+                continue;
+            }
+            projection.occurrences += count;
+            if (schedule.transaction().getTransactionType() == TransactionType.INCOME) {
+                projection.incomeCents += count * schedule.amountCents();
+            } else {
+                projection.expenseCents += count * schedule.amountCents();
+            }
+        }
+        return projection;
+    }
+
+    private static long firstIndex(Schedule schedule, LocalDate from) {
+        return schedule.period().firstIndexOnOrAfter(schedule.start(), from);
+    }
+
+    private static long lastIndex(Schedule schedule, LocalDate to) {
+        return schedule.period().firstIndexOnOrAfter(schedule.start(), to.plusDays(1)) - 1;
+    }
+}
@@ -0,0 +1,145 @@
+package Finance;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hash-partitioned layout of user data across several data files. Each user belongs to exactly one shard,
+ * chosen from a hash of the username, and each shard is an ordinary data file with its own index, journals,
+ * segments and cache, so loading, updating or checking a user only ever touches that user's shard.
+ * <p>
+ * The shards of userData.txt live in userData.txt.shards/ as shard-000.txt, shard-001.txt and so on, next to a
+ * "layout" file holding the shard count. The count is fixed once the layout exists; {@link Resharder} splits an
+ * existing data file into a new layout. Install a layout with {@link FileManager#setShardLayout(ShardLayout)} to
+ * route the default-file FileManager methods through it.
+ */
+public class ShardLayout {
+    // Suffix appended to the data file name to get the shard directory.
+    public static final String SHARD_SUFFIX = ".shards";
+    private static final String LAYOUT_FILE = "layout";
+    private static final int MAX_SHARDS = 1000; // Shard file names have three digits.
+
+    private final String fileName; // Data file the layout shards.
+    private final String[] shardFiles; // File name of each shard.
+
+    /**
+     * Opens the layout of a data file, creating it with the given shard count if it does not exist yet.
+     * @param fileName data file whose users are sharded
+     * @param shardCount number of shards
+     * @throws IllegalArgumentException if the count is out of range or the layout exists with another count
+     * @throws IOException if the shard directory or files cannot be created
+     */
+    public ShardLayout(String fileName, int shardCount) throws IOException {
+        if (shardCount < 1 || shardCount > MAX_SHARDS) {
+            throw new IllegalArgumentException("Shard count must be between 1 and " + MAX_SHARDS);
+        }
+        File directory = new File(fileName + SHARD_SUFFIX);
+        File layout = new File(directory, LAYOUT_FILE);
+        if (layout.exists()) {
+            int stored = readShardCount(layout);
+            if (stored != shardCount) {
+                throw new IllegalArgumentException("Data file is already split into " + stored + " shards");
+            }
+        } else {
+            Files.createDirectories(directory.toPath());
+            Files.writeString(layout.toPath(), shardCount + System.lineSeparator(), StandardCharsets.UTF_8);
+        }
+        this.fileName = fileName;
+        this.shardFiles = new String[shardCount];
+        for (int shard = 0; shard < shardCount; shard++) {
+            File file = new File(directory, String.format("shard-%03d.txt", shard));
+            // Empty shards exist up front so lookups in them find no users instead of a missing file.
+            if (!file.exists()) {
+                Files.createFile(file.toPath());
+            }
+            shardFiles[shard] = file.getPath();
+        }
+    }
+
+    /**
+     * Opens the existing layout of a data file.
+     * @param fileName data file whose users are sharded
+     * @return the layout; null if the data file has not been sharded
+     * @throws IOException if the layout cannot be read
+     */
+    public static ShardLayout open(String fileName) throws IOException {
+        File layout = new File(fileName + SHARD_SUFFIX, LAYOUT_FILE);
+        if (!layout.exists()) {
+            return null;
+        }
+        return new ShardLayout(fileName, readShardCount(layout));
+    }
+
+    private static int readShardCount(File layout) throws IOException {
+        try {
+            return Integer.parseInt(Files.readString(layout.toPath(), StandardCharsets.UTF_8).trim());
+        } catch (NumberFormatException e) {
+            throw new IOException("Unreadable shard layout: " + layout, e);
+        }
+    }
+
+    /**
+     * Picks a user's shard. The hash only depends on the username, so it is the same in every run.
+     * @param username username to place
+     * @return the shard number, from 0 to the shard count - 1
+     */
+    public int shardOf(String username) {
+        // Spread String.hashCode, whose low bits are weak for similar names, before taking the remainder.
+        int hash = username.hashCode() * 0x9E3779B9;
+        return Math.floorMod(hash ^ (hash >>> 16), shardFiles.length);
+    }
+
+    /**
+     * @param username username to place
+     * @return the data file holding the user
+     */
+    public String fileFor(String username) {
+        return shardFiles[shardOf(username)];
+    }
+
+    /**
+     * @param shard shard number
+     * @return the data file of the shard
+     */
+    public String getShardFile(int shard) {
+        return shardFiles[shard];
+    }
+
+    /**
+     * @return the data file of every shard, in shard order
+     */
+    public List<String> getShardFiles() {
+        return List.of(shardFiles);
+    }
+
+    /**
+     * @return number of shards
+     */
+    public int getShardCount() {
+        return shardFiles.length;
+    }
+
+    /**
+     * @return the data file the layout shards
+     */
+    public String getFileName() {
+        return fileName;
+    }
+
+    /**
+     * Folds the pending journals of every shard into the shard files.
+     */
+    public void compactJournals() {
+        List<String> journaled = new ArrayList<>();
+        for (String shardFile : shardFiles) {
+            if (!UserJournal.journaledUsers(shardFile).isEmpty()) {
+                journaled.add(shardFile);
+            }
+        }
+        journaled.parallelStream().forEach(FileManager::compactJournal);
+    }
+}
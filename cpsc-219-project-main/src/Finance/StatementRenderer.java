@@ -0,0 +1,222 @@
+package Finance;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+
+/**
+ * Renders a user's financial statement to any {@link Writer} — the console, a file or the GUI — in a
+ * single streaming pass over their transactions in date order. Rows can be limited to a date range, found
+ * through the user's {@link TransactionIndex} without visiting rows outside it, and split into pages; the
+ * totals always cover every row in the range plus the next month's recurring transactions, each counted on the
+ * calendar dates it actually falls on in that month by a {@link ScheduleEngine}, and are
+ * accumulated in the same pass that writes the page. No row object or statement text is built up in
+ * memory, and output goes through a buffer instead of one console write per line.
+ */
+public class StatementRenderer {
+    private static final String NEW_LINE = System.lineSeparator();
+
+    private final User user;
+    private LocalDate from; // First day included; null for no lower bound.
+    private LocalDate to; // Last day included; null for no upper bound.
+    private int page; // Zero-based page to write.
+    private int pageSize; // Rows per page; 0 writes every row in the range.
+    private YearMonth projectionMonth; // Month the recurring transactions are projected over; null for next month.
+
+    /**
+     * Totals and row counts of a rendered statement.
+     */
+    public static final class Totals {
+        private final double income;
+        private final double expenses;
+        private final int rows;
+        private final int rowsWritten;
+
+        Totals(double income, double expenses, int rows, int rowsWritten) {
+            this.income = income;
+            this.expenses = expenses;
+            this.rows = rows;
+            this.rowsWritten = rowsWritten;
+        }
+
+        /**
+         * @return income in the date range plus next month's recurring income
+         */
+        public double getIncome() {
+            return income;
+        }
+
+        /**
+         * @return expenses in the date range plus next month's recurring expenses
+         */
+        public double getExpenses() {
+            return expenses;
+        }
+
+        /**
+         * @return number of transactions in the date range, across all pages
+         */
+        public int getRows() {
+            return rows;
+        }
+
+        /**
+         * @return number of transactions written on the rendered page
+         */
+        public int getRowsWritten() {
+            return rowsWritten;
+        }
+    }
+
+    /**
+     * Creates a renderer for every transaction of a user, on a single page.
+     * @param user user whose statement is rendered
+     */
+    public StatementRenderer(User user) {
+        this.user = user;
+    }
+
+    /**
+     * Limits the statement to transactions dated within a range.
+     * @param from first day to include; null for no lower bound
+     * @param to last day to include; null for no upper bound
+     * @return this renderer
+     */
+    public StatementRenderer withDateRange(LocalDate from, LocalDate to) {
+        this.from = from;
+        this.to = to;
+        return this;
+    }
+
+    /**
+     * Writes only one page of the transactions in the range.
+     * @param page zero-based page number
+     * @param pageSize number of transactions per page; 0 for a single page with every transaction
+     * @return this renderer
+     */
+    public StatementRenderer withPage(int page, int pageSize) {
+        if (page < 0 || pageSize < 0) {
+            throw new IllegalArgumentException("Page and page size must not be negative");
+        }
+        this.page = page;
+        this.pageSize = pageSize;
+        return this;
+    }
+
+    /**
+     * Sets the month the recurring transactions are projected over.
+     * @param month month to project; null for the month after the current one
+     * @return this renderer
+     */
+    public StatementRenderer withProjectionMonth(YearMonth month) {
+        this.projectionMonth = month;
+        return this;
+    }
+
+    /**
+     * Writes the statement. The writer is flushed but not closed.
+     * @param out writer to write to; it is buffered here if it is not already
+     * @return the statement's totals
+     * @throws IOException if writing fails
+     */
+    public Totals render(Writer out) throws IOException {
+        Writer writer = out instanceof BufferedWriter ? out : new BufferedWriter(out, 1 << 16);
+        TransactionStore store = user.getTransactionStore();
+        CategoryDictionary categories = store.getCategories();
+        int[] range = user.getTransactionIndex().rowsBetween(from, to);
+        long firstRow = pageSize == 0 ? 0 : (long) page * pageSize;
+        long endRow = pageSize == 0 ? Long.MAX_VALUE : firstRow + pageSize;
+        long incomeCents = 0, expenseCents = 0; // Summed in cents so long histories do not drift.
+        int rows = 0, rowsWritten = 0;
+        int lastDay = Integer.MIN_VALUE;
+        String lastDayText = null;
+
+        writer.write("Upcoming Financial Statement:" + NEW_LINE);
+        writer.write("[DATE], [CATEGORY], [AMOUNT], [TYPE]" + NEW_LINE);
+        for (int i : range) {
+            int day = store.epochDay(i);
+            long amountCents = store.amountCents(i);
+            boolean isIncome = store.isIncome(i);
+            if (isIncome) incomeCents += amountCents;
+            else expenseCents += amountCents;
+            if (rows >= firstRow && rows < endRow) {
+                if (day != lastDay) {
+                    // Rows come in date order, so every row of a day reuses that day's text
+                    lastDay = day;
+                    lastDayText = LocalDate.ofEpochDay(day).toString();
+                }
+                // Same layout as Transaction.toString
+                writer.write(lastDayText);
+                writer.write(',');
+                writer.write(categories.nameOf(store.categoryId(i)));
+                writer.write(',');
+                writer.write(Double.toString(Money.toDouble(amountCents)));
+                writer.write(isIncome ? ",Income" : ",Expense");
+                writer.write(NEW_LINE);
+                rowsWritten++;
+            }
+            rows++;
+        }
+
+        // Recurring transactions for the next month are part of every page's projection, counted once per
+        // calendar date they fall on; schedules without a start date run from today
+        YearMonth month = projectionMonth != null ? projectionMonth : YearMonth.now().plusMonths(1);
+        LocalDate today = LocalDate.now();
+        for (RecurringTransaction rt : user.getRecurringTransactions()) {
+            ScheduleEngine.Projection projection = new ScheduleEngine(List.of(rt), today)
+                    .project(month.atDay(1), month.atEndOfMonth());
+            if (projection.getOccurrences() == 0) {
+                continue;
+            }
+            boolean recurringIncome = rt.getTransactionType() == TransactionType.INCOME;
+            long cents = recurringIncome ? projection.getIncomeCents() : projection.getExpenseCents();
+            writer.write("Next Month " + rt.getCategory() + " (Recurring): " + (recurringIncome ? "+" : "-") + Money.toDouble(cents) + NEW_LINE);
+            if (recurringIncome) incomeCents += cents;
+            else expenseCents += cents;
+        }
+
+        if (pageSize > 0) {
+            int pages = Math.max(1, (rows + pageSize - 1) / pageSize);
+            writer.write("Page " + (page + 1) + " of " + pages + " (" + rows + " transactions)" + NEW_LINE);
+        }
+        double income = Money.toDouble(incomeCents);
+        double expenses = Money.toDouble(expenseCents);
+        writer.write("Projected Total Income: $" + income + NEW_LINE);
+        writer.write("Projected Total Expenses: $" + expenses + NEW_LINE);
+        writer.write("Projected Net Balance: $" + Money.toDouble(incomeCents - expenseCents) + NEW_LINE);
+        writer.flush();
+        return new Totals(income, expenses, rows, rowsWritten);
+    }
+
+    /**
+     * Writes the statement to standard output.
+     * @return the statement's totals
+     */
+    public Totals renderToConsole() {
+        try {
+            return render(new OutputStreamWriter(System.out));
+        } catch (IOException e) {
+            System.out.println("An error occurred while displaying the financial statement.");
+            return null;
+        }
+    }
+
+    /**
+     * Writes the statement to a UTF-8 text file, replacing its contents.
+     * @param file file to write to
+     * @return the statement's totals
+     * @throws IOException if the file cannot be written
+     */
+    public Totals renderToFile(Path file) throws IOException {
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            return render(writer);
+        }
+    }
+}
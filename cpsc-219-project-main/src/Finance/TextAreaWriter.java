@@ -0,0 +1,53 @@
+package Finance;
+
+import javafx.application.Platform;
+import javafx.scene.control.TextArea;
+
+import java.io.Writer;
+
+/**
+ * Writer that appends to a JavaFX TextArea, so a {@link StatementRenderer} can stream into the GUI.
+ * Text is collected until the writer is flushed, or 64K characters are pending, and then handed to the FX
+ * thread in one append, so the number of scene updates is proportional to the statement's size in blocks
+ * rather than its number of rows.
+ */
+public class TextAreaWriter extends Writer {
+    private static final int MAX_PENDING = 1 << 16; // Characters held back before appending without a flush.
+
+    private final TextArea textArea;
+    private final StringBuilder pending = new StringBuilder();
+
+    /**
+     * @param textArea text area to append to
+     */
+    public TextAreaWriter(TextArea textArea) {
+        this.textArea = textArea;
+    }
+
+    @Override
+    public void write(char[] chars, int offset, int length) {
+        pending.append(chars, offset, length);
+        if (pending.length() >= MAX_PENDING) {
+            flush();
+        }
+    }
+
+    @Override
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        String text = pending.toString();
+        pending.setLength(0);
+        if (Platform.isFxApplicationThread()) {
+            textArea.appendText(text);
+        } else {
+            Platform.runLater(() -> textArea.appendText(text));
+        }
+    }
+
+    @Override
+    public void close() {
+        flush();
+    }
+}
@@ -6,22 +6,49 @@ public class Transaction {
     // Declare private final fields for the properties of a Transaction.
     private final LocalDate date; // The date of the transaction.
     private final String category; // The category of the transaction (e.g., groceries, salary).
-    private final double amount; // The monetary value of the transaction.
-    private final String type; // The type of transaction: "Income" or "Expense".
+    private final long amount; // The monetary value of the transaction, in cents.
+    private final TransactionType type; // The type of transaction: Income or Expense.
 
-    // Constructor that initializes a Transaction object with all properties.
-    public Transaction(LocalDate date, String category, double amount, String type) {
-        this.date = date; // Assigns the provided date to the date field.
+    // Earliest and latest dates a transaction may have; their epoch days fit the int columns rows are stored in.
+    public static final LocalDate MIN_DATE = LocalDate.of(1900, 1, 1);
+    public static final LocalDate MAX_DATE = LocalDate.of(9999, 12, 31);
+
+    // Constructor that initializes a Transaction object with all properties; the amount is rounded to whole cents.
+    public Transaction(LocalDate date, String category, double amount, TransactionType type) {
+        this(date, category, type, Money.toMinor(amount)); // Calls the constructor that takes the amount in cents.
+    }
+
+    // Private constructor that takes the amount in cents, placed last so it cannot be confused with the double one.
+    private Transaction(LocalDate date, String category, TransactionType type, long amountCents) {
+        this.date = checkDate(date); // Assigns the provided date to the date field once it is known to be in range.
         this.category = category; // Assigns the provided category to the category field.
-        this.amount = amount; // Assigns the provided amount to the amount field.
+        this.amount = amountCents; // Assigns the provided amount to the amount field.
         this.type = type; // Assigns the provided type (Income/Expense) to the type field.
     }
 
+    // Factory method for a transaction whose amount is already in cents, as stored in a TransactionStore.
+    public static Transaction ofCents(LocalDate date, String category, long amountCents, TransactionType type) {
+        return new Transaction(date, category, type, amountCents); // No rounding needed.
+    }
+
+    // Overloaded constructor that parses the type from its label, "Income" or "Expense".
+    public Transaction(LocalDate date, String category, double amount, String type) {
+        this(date, category, amount, TransactionType.parse(type)); // Throws IllegalArgumentException for any other label.
+    }
+
     // Overloaded constructor for when the date is not provided, automatically using the current date.
     public Transaction(String category, double amount, String type) {
         this(LocalDate.now(), category, amount, type); // Calls the main constructor with the current date.
     }
 
+    // Checks that a date lies between MIN_DATE and MAX_DATE, returning it unchanged; throws IllegalArgumentException if not.
+    public static LocalDate checkDate(LocalDate date) {
+        if (date.isBefore(MIN_DATE) || date.isAfter(MAX_DATE)) {
+            throw new IllegalArgumentException("Date must be between " + MIN_DATE + " and " + MAX_DATE + ": " + date);
+        }
+        return date;
+    }
+
     // Getter method for category.
     public String getCategory() {
         return category; // Returns the category of the transaction.
@@ -29,12 +56,22 @@ public class Transaction {
 
     // Getter method for amount.
     public double getAmount() {
-        return amount; // Returns the amount of the transaction.
+        return Money.toDouble(amount); // Returns the amount of the transaction.
+    }
+
+    // Getter method for the amount in cents, for exact arithmetic.
+    public long getAmountCents() {
+        return amount; // Returns the amount of the transaction in cents.
     }
 
     // Getter method for type.
     public String getType() {
-        return type; // Returns the type of the transaction (Income/Expense).
+        return type.getLabel(); // Returns the type of the transaction (Income/Expense).
+    }
+
+    // Getter method for the type as a constant, for comparisons that should not compare strings.
+    public TransactionType getTransactionType() {
+        return type; // Returns INCOME or EXPENSE.
     }
 
     // Getter method for date.
@@ -46,7 +83,7 @@ public class Transaction {
     // Overrides the toString method to provide a string representation of the Transaction object.
     public String toString() {
         // Returns a string combining date, category, amount, and type, separated by commas.
-        return date + "," + category + "," + amount + "," + type;
+        return date + "," + category + "," + getAmount() + "," + type.getLabel();
     }
 
     /**
@@ -61,14 +98,22 @@ public class Transaction {
 
         Transaction that = (Transaction) o;
 
-        if (Double.compare(getAmount(), that.getAmount()) != 0) return false;
+        if (amount != that.amount) return false;
         if (!getDate().equals(that.getDate())) return false;
         if (!getCategory().equals(that.getCategory())) return false;
-        return getType().equals(that.getType());
+        return type == that.type;
     }
 
+    /**
+     * Computes a hash code from the same fields equals compares, so equal transactions hash alike
+     * @return hash code of this transaction
+     */
     @Override
     public int hashCode() {
-        return 0;
+        int result = getDate().hashCode();
+        result = 31 * result + getCategory().hashCode();
+        result = 31 * result + Long.hashCode(amount);
+        result = 31 * result + getType().hashCode();
+        return result;
     }
 }
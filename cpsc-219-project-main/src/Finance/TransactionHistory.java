@@ -0,0 +1,137 @@
+package Finance;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * The stored transaction history of a user whose other data was loaded without it. Nothing is read when the
+ * history is created; the user's block, segment and journal are read when the history is first needed, so
+ * logging in costs the same however many transactions a user has.
+ * <p>
+ * A history holds no bytes of the data file, only where to find them, so the file may be rewritten in the
+ * meantime. Transactions come back in the order they were recorded: the lines of the user's block, then their
+ * segment, then their journal.
+ */
+public class TransactionHistory {
+    // Rough length of a stored transaction line, used to size a history that has not been read yet.
+    private static final int ESTIMATED_LINE_BYTES = 32;
+
+    private final String username; // User the history belongs to.
+    private final String fileName; // Data file the user is stored in.
+    private final long textBytes; // Length of the transaction lines in the user's block when it was loaded.
+
+    /**
+     * @param username user the history belongs to
+     * @param fileName data file the user is stored in
+     * @param textBytes length in bytes of the transaction lines in the user's block
+     */
+    TransactionHistory(String username, String fileName, long textBytes) {
+        this.username = username;
+        this.fileName = fileName;
+        this.textBytes = textBytes;
+    }
+
+    /**
+     * Reads the whole history.
+     * @param consumer receives each transaction, in the order they were recorded
+     */
+    public void forEach(Consumer<Transaction> consumer) {
+        ByteBuffer lines = textLines();
+        if (lines != null) {
+            UserDataParser.parseTransactions(lines, consumer);
+        }
+        for (Transaction transaction : TransactionSegment.read(username, fileName)) {
+            consumer.accept(transaction);
+        }
+        for (Transaction transaction : UserJournal.readTransactions(username, fileName)) {
+            consumer.accept(transaction);
+        }
+    }
+
+    /**
+     * Reads the rows of the history that match a query, in the order they were recorded. The query's filters
+     * are checked on each stored line or segment record before anything is built from it.
+     * @param query query whose filters select the rows
+     * @param visitor receives the fields of each matching row
+     */
+    void scan(TransactionQuery query, TransactionQuery.RowVisitor visitor) {
+        ByteBuffer lines = textLines();
+        if (lines != null) {
+            UserDataParser.scanTransactions(lines, query, visitor);
+        }
+        CategoryDictionary dictionary = CategoryDictionary.forFile(fileName);
+        TransactionSegment.scan(username, fileName, (epochDay, amountCents, categoryId, income) -> {
+            if (query.matchesDay(epochDay)) {
+                String category = dictionary.nameOf(categoryId);
+                if (query.matches(epochDay, amountCents, category, income)) {
+                    visitor.visit(epochDay, amountCents, category, income);
+                }
+            }
+        });
+        for (Transaction transaction : UserJournal.readTransactions(username, fileName)) {
+            int epochDay = TransactionStore.epochDay(transaction.getDate());
+            boolean income = transaction.getTransactionType().isIncome();
+            if (query.matches(epochDay, transaction.getAmountCents(), transaction.getCategory(), income)) {
+                visitor.visit(epochDay, transaction.getAmountCents(), transaction.getCategory(), income);
+            }
+        }
+    }
+
+    /**
+     * Reads only the end of the history: the journal, then the segment, then as few lines of the block as needed.
+     * @param count most transactions to return
+     * @return up to count of the most recently recorded transactions, newest first
+     */
+    public List<Transaction> newest(int count) {
+        List<Transaction> newest = new ArrayList<>(count);
+        addNewest(UserJournal.readTransactions(username, fileName), newest, count);
+        if (newest.size() < count) {
+            addNewest(TransactionSegment.read(username, fileName), newest, count);
+        }
+        if (newest.size() < count) {
+            ByteBuffer lines = textLines();
+            if (lines != null) {
+                addNewest(UserDataParser.parseLastTransactions(lines, count - newest.size()), newest, count);
+            }
+        }
+        return newest;
+    }
+
+    /**
+     * @return a guess at the number of transactions in the history, made without reading it
+     */
+    public int estimatedSize() {
+        return (int) (textBytes / ESTIMATED_LINE_BYTES) + TransactionSegment.count(username, fileName);
+    }
+
+    private static void addNewest(List<Transaction> recorded, List<Transaction> newest, int count) {
+        for (int i = recorded.size() - 1; i >= 0 && newest.size() < count; i--) {
+            newest.add(recorded.get(i));
+        }
+    }
+
+    /**
+     * Maps the user's block as it is stored now and finds its transaction lines.
+     * @return the transaction lines; null if the block cannot be read
+     */
+    private ByteBuffer textLines() {
+        long[] entry = UserIndex.forFile(fileName).lookup(username);
+        if (entry == null) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(Path.of(fileName), StandardOpenOption.READ)) {
+            ByteBuffer block = channel.map(FileChannel.MapMode.READ_ONLY, entry[0], entry[1]);
+            int[] range = UserDataParser.historyRange(block);
+            return block.slice(range[0], range[1] - range[0]);
+        } catch (IOException | IllegalStateException e) {
+            System.out.println("An error occurred while loading the user data.");
+            return null;
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package Finance;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Secondary indexes over the rows of a {@link TransactionStore}: the rows of each category, and every row ordered
+ * by date. A category lookup costs the number of rows in the category, and a date range lookup O(log n) plus the
+ * number of rows in the range, instead of a pass over the whole history.
+ * <p>
+ * Rows are kept by category id in lists, and by epoch day in a sorted map whose values are the rows of that
+ * day, so a back-dated transaction is filed under its date in O(log n) however late it is recorded. Rows of the
+ * same day stay in the order they were recorded. Like {@link DateIndex}, the indexes are only built on the first
+ * lookup, and {@link #add(int)} keeps them up to date after that. All methods are synchronized because lookups
+ * may build the indexes.
+ */
+public class TransactionIndex {
+    private static final int[] NO_ROWS = new int[0];
+
+    private final TransactionStore store; // Store whose rows are indexed.
+    private int rows; // Number of rows filed into the indexes.
+    private boolean built; // Whether the indexes exist yet.
+    private final Map<Integer, RowList> byCategory = new HashMap<>(); // Category id -> rows, in recorded order.
+    private final NavigableMap<Integer, RowList> byDate = new TreeMap<>(); // Epoch day -> rows, in recorded order.
+
+    /**
+     * Growable list of row numbers.
+     */
+    private static final class RowList {
+        private int[] rows = new int[2];
+        private int size;
+
+        void add(int row) {
+            if (size == rows.length) {
+                rows = Arrays.copyOf(rows, size * 2);
+            }
+            rows[size++] = row;
+        }
+    }
+
+    /**
+     * Creates an index over a store. Nothing is built until the first lookup.
+     * @param store store whose rows will be indexed
+     */
+    public TransactionIndex(TransactionStore store) {
+        this.store = store;
+    }
+
+    /**
+     * Files every row up to and including a newly added one, if the indexes have been built.
+     * @param row row that was just added to the store
+     */
+    public synchronized void add(int row) {
+        if (built) {
+            catchUp(row + 1);
+        }
+    }
+
+    /**
+     * Finds the rows of one category.
+     * @param category category name
+     * @return the rows, in the order they were recorded; empty if the category has never been used
+     */
+    public synchronized int[] rowsInCategory(String category) {
+        int categoryId = store.getCategories().find(category);
+        if (categoryId < 0) {
+            return NO_ROWS;
+        }
+        prepare();
+        RowList list = byCategory.get(categoryId);
+        return list == null ? NO_ROWS : Arrays.copyOf(list.rows, list.size);
+    }
+
+    /**
+     * @param category category name
+     * @return number of rows in the category
+     */
+    public synchronized int countInCategory(String category) {
+        int categoryId = store.getCategories().find(category);
+        if (categoryId < 0) {
+            return 0;
+        }
+        prepare();
+        RowList list = byCategory.get(categoryId);
+        return list == null ? 0 : list.size;
+    }
+
+    /**
+     * Counts the rows dated within a range, in time proportional to the number of days in it that have rows.
+     * @param fromDay first epoch day, inclusive
+     * @param toDay last epoch day, inclusive
+     * @return number of rows in the range
+     */
+    public synchronized int countBetween(int fromDay, int toDay) {
+        if (fromDay > toDay) {
+            return 0;
+        }
+        prepare();
+        int count = 0;
+        for (RowList list : byDate.subMap(fromDay, true, toDay, true).values()) {
+            count += list.size;
+        }
+        return count;
+    }
+
+    /**
+     * Finds the rows dated within a range.
+     * @param from first day, inclusive; null for no lower bound
+     * @param to last day, inclusive; null for no upper bound
+     * @return the rows in date order, rows of the same day in the order they were recorded
+     */
+    public synchronized int[] rowsBetween(LocalDate from, LocalDate to) {
+        prepare();
+        int fromDay = TransactionStore.boundDay(from, Integer.MIN_VALUE);
+        int toDay = TransactionStore.boundDay(to, Integer.MAX_VALUE);
+        if (fromDay > toDay) {
+            return NO_ROWS;
+        }
+        NavigableMap<Integer, RowList> days = byDate.subMap(fromDay, true, toDay, true);
+        int count = 0;
+        for (RowList list : days.values()) {
+            count += list.size;
+        }
+        int[] result = new int[count];
+        int position = 0;
+        for (RowList list : days.values()) {
+            System.arraycopy(list.rows, 0, result, position, list.size);
+            position += list.size;
+        }
+        return result;
+    }
+
+    /**
+     * Builds the indexes on first use and files rows the store gained since the last update.
+     */
+    private void prepare() {
+        built = true;
+        catchUp(store.size());
+    }
+
+    private void catchUp(int end) {
+        for (; rows < end; rows++) {
+            byCategory.computeIfAbsent(store.categoryId(rows), id -> new RowList()).add(rows);
+            byDate.computeIfAbsent(store.epochDay(rows), day -> new RowList()).add(rows);
+        }
+    }
+}
@@ -0,0 +1,335 @@
+package Finance;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Composable query over a user's transactions: filters on a date range, a set of categories, a type and amount
+ * bounds, and a summary (count, sum, average, min and max) per category, per month or over everything.
+ * <pre>
+ * Map&lt;String, TransactionQuery.Summary&gt; spending = new TransactionQuery()
+ *         .between(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 6, 30))
+ *         .ofType(TransactionType.EXPENSE)
+ *         .groupBy(TransactionQuery.Grouping.MONTH)
+ *         .summarize(user);
+ * </pre>
+ * A planner picks how the rows are found, see {@link #plan(User)}. A user whose history has not been read yet is
+ * queried straight from storage, with the filters checked on each stored line or segment record before anything
+ * is built from it, so a selective query neither loads the history nor creates objects for rows it skips.
+ * A loaded user is queried through their {@link TransactionIndex} when the query names categories or dates, and
+ * by a pass over the store's columns otherwise. Either way, rows come back in the order they were recorded.
+ * <p>
+ * A query is a reusable description and holds no results; it is not safe to change while it runs.
+ */
+public class TransactionQuery {
+    // Key of the single group of a query that is not grouped.
+    public static final String ALL = "All";
+
+    private int fromDay = Integer.MIN_VALUE; // First epoch day included.
+    private int toDay = Integer.MAX_VALUE; // Last epoch day included.
+    private Set<String> categories; // Categories included; null for every category.
+    private TransactionType type; // Type included; null for both.
+    private long minCents = Long.MIN_VALUE; // Smallest amount included, in cents.
+    private long maxCents = Long.MAX_VALUE; // Largest amount included, in cents.
+    private Grouping grouping = Grouping.NONE;
+
+    /**
+     * How matching rows are grouped by {@link #summarize(User)}.
+     */
+    public enum Grouping {
+        NONE, // One group, keyed ALL.
+        CATEGORY, // One group per category name.
+        MONTH // One group per month, keyed yyyy-MM.
+    }
+
+    /**
+     * How the planner finds the rows of a query.
+     */
+    public enum AccessPath {
+        STORAGE_SCAN, // The history is not loaded: filter stored lines and records while reading them.
+        CATEGORY_INDEX, // Only the rows of the queried categories are visited.
+        DATE_INDEX, // Only the rows in the queried date range are visited.
+        FULL_SCAN // Every row of the store is checked.
+    }
+
+    /**
+     * Receives the fields of each matching row, without any object being created per row.
+     */
+    interface RowVisitor {
+        void visit(int epochDay, long amountCents, String category, boolean income);
+    }
+
+    /**
+     * Count, total and extremes of a group of rows.
+     */
+    public static final class Summary {
+        private int count;
+        private long sumCents;
+        private long minCents = Long.MAX_VALUE;
+        private long maxCents = Long.MIN_VALUE;
+
+        void add(long amountCents) {
+            count++;
+            sumCents += amountCents;
+            minCents = Math.min(minCents, amountCents);
+            maxCents = Math.max(maxCents, amountCents);
+        }
+
+        /**
+         * @return number of rows in the group
+         */
+        public int getCount() {
+            return count;
+        }
+
+        /**
+         * @return total amount in cents
+         */
+        public long getSumCents() {
+            return sumCents;
+        }
+
+        /**
+         * @return total amount
+         */
+        public double getSum() {
+            return Money.toDouble(sumCents);
+        }
+
+        /**
+         * @return average amount; 0 for an empty group
+         */
+        public double getAverage() {
+            return count == 0 ? 0 : Money.toDouble(sumCents) / count;
+        }
+
+        /**
+         * @return smallest amount; 0 for an empty group
+         */
+        public double getMin() {
+            return count == 0 ? 0 : Money.toDouble(minCents);
+        }
+
+        /**
+         * @return largest amount; 0 for an empty group
+         */
+        public double getMax() {
+            return count == 0 ? 0 : Money.toDouble(maxCents);
+        }
+    }
+
+    /**
+     * Keeps only transactions dated within a range.
+     * @param from first day, inclusive; null for no lower bound
+     * @param to last day, inclusive; null for no upper bound
+     * @return this query
+     */
+    public TransactionQuery between(LocalDate from, LocalDate to) {
+        fromDay = TransactionStore.boundDay(from, Integer.MIN_VALUE);
+        toDay = TransactionStore.boundDay(to, Integer.MAX_VALUE);
+        return this;
+    }
+
+    /**
+     * Keeps only transactions in the given categories.
+     * @param categories category names
+     * @return this query
+     */
+    public TransactionQuery inCategories(String... categories) {
+        return inCategories(Arrays.asList(categories));
+    }
+
+    /**
+     * Keeps only transactions in the given categories.
+     * @param categories category names
+     * @return this query
+     */
+    public TransactionQuery inCategories(Collection<String> categories) {
+        this.categories = new LinkedHashSet<>(categories);
+        return this;
+    }
+
+    /**
+     * Keeps only transactions of one type.
+     * @param type type to keep; null for both
+     * @return this query
+     */
+    public TransactionQuery ofType(TransactionType type) {
+        this.type = type;
+        return this;
+    }
+
+    /**
+     * Keeps only transactions whose amount lies within bounds.
+     * @param min smallest amount, inclusive
+     * @param max largest amount, inclusive
+     * @return this query
+     */
+    public TransactionQuery amountBetween(double min, double max) {
+        minCents = Money.toMinor(min);
+        maxCents = Money.toMinor(max);
+        return this;
+    }
+
+    /**
+     * Sets how {@link #summarize(User)} groups the matching rows.
+     * @param grouping grouping to use
+     * @return this query
+     */
+    public TransactionQuery groupBy(Grouping grouping) {
+        this.grouping = grouping;
+        return this;
+    }
+
+    /**
+     * Checks a row's date; the cheapest test, so storage scans try it before reading anything else.
+     * @param epochDay row date as days since 1970-01-01
+     * @return true if the date is in range
+     */
+    boolean matchesDay(int epochDay) {
+        return epochDay >= fromDay && epochDay <= toDay;
+    }
+
+    /**
+     * Checks every filter against a row.
+     * @return true if the row belongs in the result
+     */
+    boolean matches(int epochDay, long amountCents, String category, boolean income) {
+        return matchesDay(epochDay) && amountCents >= minCents && amountCents <= maxCents
+                && (type == null || type.isIncome() == income)
+                && (categories == null || categories.contains(category));
+    }
+
+    /**
+     * Picks how the rows of this query are found for a user.
+     * @param user user to query
+     * @return the access path {@link #list(User)} and {@link #summarize(User)} will take
+     */
+    public AccessPath plan(User user) {
+        if (user.getPendingHistory() != null) {
+            return AccessPath.STORAGE_SCAN;
+        }
+        boolean dated = fromDay != Integer.MIN_VALUE || toDay != Integer.MAX_VALUE;
+        if (categories == null) {
+            return dated ? AccessPath.DATE_INDEX : AccessPath.FULL_SCAN;
+        }
+        if (!dated) {
+            return AccessPath.CATEGORY_INDEX;
+        }
+        // Both indexes apply; visit whichever holds fewer rows.
+        TransactionIndex index = user.getTransactionIndex();
+        int categoryRows = 0;
+        for (String category : categories) {
+            categoryRows += index.countInCategory(category);
+        }
+        return categoryRows <= index.countBetween(fromDay, toDay) ? AccessPath.CATEGORY_INDEX : AccessPath.DATE_INDEX;
+    }
+
+    /**
+     * Finds the matching transactions.
+     * @param user user to query
+     * @return the matching transactions, in the order they were recorded
+     */
+    public List<Transaction> list(User user) {
+        List<Transaction> result = new ArrayList<>();
+        run(user, (epochDay, amountCents, category, income) -> result.add(
+                Transaction.ofCents(LocalDate.ofEpochDay(epochDay), category, amountCents, TransactionType.of(income))));
+        return result;
+    }
+
+    /**
+     * Summarizes the matching transactions in groups. No transaction objects are created.
+     * @param user user to query
+     * @return a summary per group, in the order each group was first seen; empty if nothing matched
+     */
+    public Map<String, Summary> summarize(User user) {
+        Map<String, Summary> groups = new LinkedHashMap<>();
+        int[] lastDay = {Integer.MIN_VALUE};
+        String[] lastMonth = {null};
+        run(user, (epochDay, amountCents, category, income) -> {
+            String key = switch (grouping) {
+                case NONE -> ALL;
+                case CATEGORY -> category;
+                case MONTH -> {
+                    if (epochDay != lastDay[0]) {
+                        // Rows mostly come in date order, so most of them reuse the previous row's key.
+                        lastDay[0] = epochDay;
+                        lastMonth[0] = YearMonth.from(LocalDate.ofEpochDay(epochDay)).toString();
+                    }
+                    yield lastMonth[0];
+                }
+            };
+            groups.computeIfAbsent(key, k -> new Summary()).add(amountCents);
+        });
+        return groups;
+    }
+
+    /**
+     * Runs the query along its planned access path.
+     */
+    private void run(User user, RowVisitor visitor) {
+        AccessPath path = plan(user);
+        if (path == AccessPath.STORAGE_SCAN) {
+            TransactionHistory history = user.getPendingHistory();
+            if (history != null) {
+                history.scan(this, visitor);
+                return;
+            }
+            path = AccessPath.FULL_SCAN; // Loaded by another thread since it was planned.
+        }
+        TransactionStore store = user.getTransactionStore();
+        CategoryDictionary dictionary = store.getCategories();
+        int[] rows = null;
+        if (path == AccessPath.CATEGORY_INDEX) {
+            rows = categoryRows(user.getTransactionIndex());
+        } else if (path == AccessPath.DATE_INDEX) {
+            rows = user.getTransactionIndex().rowsBetween(
+                    fromDay == Integer.MIN_VALUE ? null : LocalDate.ofEpochDay(fromDay),
+                    toDay == Integer.MAX_VALUE ? null : LocalDate.ofEpochDay(toDay));
+            Arrays.sort(rows); // Back to recorded order.
+        }
+        int count = rows == null ? store.size() : rows.length;
+        for (int i = 0; i < count; i++) {
+            int row = rows == null ? i : rows[i];
+            int epochDay = store.epochDay(row);
+            long amountCents = store.amountCents(row);
+            String category = dictionary.nameOf(store.categoryId(row));
+            boolean income = store.isIncome(row);
+            if (matches(epochDay, amountCents, category, income)) {
+                visitor.visit(epochDay, amountCents, category, income);
+            }
+        }
+    }
+
+    /**
+     * @return the rows of every queried category, in recorded order
+     */
+    private int[] categoryRows(TransactionIndex index) {
+        int[][] lists = new int[categories.size()][];
+        int total = 0;
+        int i = 0;
+        for (String category : categories) {
+            lists[i] = index.rowsInCategory(category);
+            total += lists[i++].length;
+        }
+        if (lists.length == 1) {
+            return lists[0];
+        }
+        int[] rows = new int[total];
+        int position = 0;
+        for (int[] list : lists) {
+            System.arraycopy(list, 0, rows, position, list.length);
+            position += list.length;
+        }
+        Arrays.sort(rows);
+        return rows;
+    }
+}
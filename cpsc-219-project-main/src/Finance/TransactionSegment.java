@@ -0,0 +1,236 @@
+package Finance;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URLEncoder;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fixed-width binary storage for a user's transaction history. Each user's transactions live in their own
+ * segment file next to the data file (e.g. userData.txt.segments/alice.seg), read through a memory mapping
+ * so a scan is a walk over the mapped bytes rather than a parse of text lines.
+ * <p>
+ * A segment starts with a 16 byte header (magic, version, record size, reserved) followed by 24 byte records:
+ * <pre>
+ *   offset 0   int   epoch day of the transaction date
+ *   offset 4   int   category id from the data file's {@link CategoryDictionary}
+ *   offset 8   long  amount in cents
+ *   offset 16  int   type: 1 for Income, 0 for Expense
+ *   offset 20  int   reserved
+ * </pre>
+ * Amounts are stored in cents, so anything finer than a cent is rounded when written.
+ */
+public class TransactionSegment {
+    // Suffix appended to the data file name to get the segment directory.
+    public static final String SEGMENT_SUFFIX = ".segments";
+    private static final String SEGMENT_EXTENSION = ".seg";
+    private static final int MAGIC = 0x46505347; // "FPSG"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 16;
+    public static final int RECORD_SIZE = 24;
+    private static final int TYPE_EXPENSE = 0;
+    private static final int TYPE_INCOME = 1;
+
+    /**
+     * Receives the fields of each record during a scan, without any objects being created per record.
+     */
+    public interface RecordVisitor {
+        /**
+         * @param epochDay transaction date as days since 1970-01-01
+         * @param amountCents transaction amount in cents
+         * @param categoryId category id in the data file's dictionary
+         * @param income true for Income; false for Expense
+         */
+        void visit(int epochDay, long amountCents, int categoryId, boolean income);
+    }
+
+    /**
+     * Checks whether a user's transactions are stored in a segment
+     * @param username user to check
+     * @param fileName data file the segment belongs to
+     * @return true if the user has a segment file; false otherwise
+     */
+    public static boolean exists(String username, String fileName) {
+        return segmentFile(username, fileName).exists();
+    }
+
+    /**
+     * Counts the records stored in a user's segment without reading them
+     * @param username user whose segment to check
+     * @param fileName data file the segment belongs to
+     * @return number of complete records in the segment; 0 if there is none
+     */
+    public static int count(String username, String fileName) {
+        long size = segmentFile(username, fileName).length();
+        return size < HEADER_SIZE ? 0 : (int) ((size - HEADER_SIZE) / RECORD_SIZE);
+    }
+
+    /**
+     * Writes a user's whole transaction history to their segment, replacing any previous contents
+     * @param username user the transactions belong to
+     * @param transactions transactions to store, in order
+     * @param fileName data file the segment belongs to
+     */
+    public static void write(String username, List<Transaction> transactions, String fileName) {
+        File file = segmentFile(username, fileName);
+        if (!file.getParentFile().mkdirs() && !file.getParentFile().isDirectory()) {
+            System.out.println("An error occurred while saving the transaction segment.");
+            return;
+        }
+        CategoryDictionary dictionary = CategoryDictionary.forFile(fileName);
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocate(64 * 1024).order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putInt(MAGIC).putInt(VERSION).putInt(RECORD_SIZE).putInt(0);
+            for (Transaction transaction : transactions) {
+                if (buffer.remaining() < RECORD_SIZE) {
+                    buffer.flip();
+                    while (buffer.hasRemaining()) {
+                        channel.write(buffer);
+                    }
+                    buffer.clear();
+                }
+                putRecord(buffer, transaction, dictionary);
+            }
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } catch (IOException e) {
+            System.out.println("An error occurred while saving the transaction segment.");
+        }
+    }
+
+    /**
+     * Appends one transaction to a user's segment, creating the segment if needed
+     * @param username user the transaction belongs to
+     * @param transaction transaction to store
+     * @param fileName data file the segment belongs to
+     */
+    public static void append(String username, Transaction transaction, String fileName) {
+        append(username, List.of(transaction), fileName);
+    }
+
+    /**
+     * Appends a batch of transactions to a user's segment with a single write, creating the segment if needed
+     * @param username user the transactions belong to
+     * @param transactions transactions to store, in order
+     * @param fileName data file the segment belongs to
+     */
+    public static void append(String username, List<Transaction> transactions, String fileName) {
+        File file = segmentFile(username, fileName);
+        if (!file.exists()) {
+            write(username, transactions, fileName);
+            return;
+        }
+        CategoryDictionary dictionary = CategoryDictionary.forFile(fileName);
+        ByteBuffer buffer = ByteBuffer.allocate(transactions.size() * RECORD_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        for (Transaction transaction : transactions) {
+            putRecord(buffer, transaction, dictionary);
+        }
+        buffer.flip();
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } catch (IOException e) {
+            System.out.println("An error occurred while saving the transaction segment.");
+        }
+    }
+
+    /**
+     * Walks every record of a user's segment through a read-only memory mapping
+     * @param username user whose segment to scan
+     * @param fileName data file the segment belongs to
+     * @param visitor receives the fields of each record in order
+     * @return number of records visited
+     */
+    public static int scan(String username, String fileName, RecordVisitor visitor) {
+        return scan(username, fileName, 0, visitor);
+    }
+
+    /**
+     * Walks the records of a user's segment from a given record on, through a read-only memory mapping
+     * @param username user whose segment to scan
+     * @param fileName data file the segment belongs to
+     * @param first index of the first record to visit
+     * @param visitor receives the fields of each record in order
+     * @return number of records visited
+     */
+    public static int scan(String username, String fileName, int first, RecordVisitor visitor) {
+        File file = segmentFile(username, fileName);
+        if (!file.exists()) {
+            return 0;
+        }
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE) {
+                return 0;
+            }
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            mapped.order(ByteOrder.LITTLE_ENDIAN);
+            if (mapped.getInt(0) != MAGIC || mapped.getInt(8) != RECORD_SIZE) {
+                System.out.println("An error occurred while loading the transaction segment.");
+                return 0;
+            }
+            // Ignore a trailing partial record left by an interrupted append.
+            int count = (int) ((size - HEADER_SIZE) / RECORD_SIZE);
+            for (int i = first, position = HEADER_SIZE + first * RECORD_SIZE; i < count; i++, position += RECORD_SIZE) {
+                visitor.visit(mapped.getInt(position), mapped.getLong(position + 8),
+                        mapped.getInt(position + 4), mapped.getInt(position + 16) == TYPE_INCOME);
+            }
+            return Math.max(0, count - first);
+        } catch (IOException e) {
+            System.out.println("An error occurred while loading the transaction segment.");
+            return 0;
+        }
+    }
+
+    /**
+     * Reads a user's segment back into Transaction objects
+     * @param username user whose segment to read
+     * @param fileName data file the segment belongs to
+     * @return the stored transactions, in order
+     */
+    public static List<Transaction> read(String username, String fileName) {
+        return read(username, fileName, 0);
+    }
+
+    /**
+     * Reads the records of a user's segment from a given record on back into Transaction objects
+     * @param username user whose segment to read
+     * @param fileName data file the segment belongs to
+     * @param first index of the first record to read
+     * @return the stored transactions from that record on, in order
+     */
+    public static List<Transaction> read(String username, String fileName, int first) {
+        CategoryDictionary dictionary = CategoryDictionary.forFile(fileName);
+        List<Transaction> transactions = new ArrayList<>();
+        scan(username, fileName, first, (epochDay, amountCents, categoryId, income) ->
+                transactions.add(Transaction.ofCents(LocalDate.ofEpochDay(epochDay), dictionary.nameOf(categoryId),
+                        amountCents, TransactionType.of(income))));
+        return transactions;
+    }
+
+    private static void putRecord(ByteBuffer buffer, Transaction transaction, CategoryDictionary dictionary) {
+        int type = transaction.getTransactionType().isIncome() ? TYPE_INCOME : TYPE_EXPENSE;
+        buffer.putInt(TransactionStore.epochDay(transaction.getDate()));
+        buffer.putInt(dictionary.idOf(transaction.getCategory()));
+        buffer.putLong(transaction.getAmountCents());
+        buffer.putInt(type);
+        buffer.putInt(0);
+    }
+
+    private static File segmentFile(String username, String fileName) {
+        // Encode the username so any characters it contains are safe to use in a file name.
+        return new File(fileName + SEGMENT_SUFFIX, URLEncoder.encode(username, StandardCharsets.UTF_8) + SEGMENT_EXTENSION);
+    }
+}
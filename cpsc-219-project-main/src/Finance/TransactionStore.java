@@ -0,0 +1,194 @@
+package Finance;
+
+import java.time.LocalDate;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+
+/**
+ * Columnar, append-only storage for a user's transaction history. Instead of one object per transaction,
+ * each field is kept in its own primitive array: dates as epoch days, amounts in cents, categories as ids
+ * into a {@link CategoryDictionary}, and the Income/Expense type as one bit per row. A row costs about
+ * 16 bytes, and loops over the arrays stay cache friendly.
+ * <p>
+ * The store is a read-only {@code List<Transaction>} from the outside: {@link #get(int)} hands out a
+ * short-lived Transaction built from the row, and new rows are added with {@link #add(Transaction)}.
+ * Amounts are kept in cents, so anything finer than a cent is rounded when a transaction is added.
+ */
+public class TransactionStore extends AbstractList<Transaction> implements RandomAccess {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final CategoryDictionary categories; // Category names for the ids stored in categoryIds.
+    private int[] epochDays = new int[INITIAL_CAPACITY]; // Transaction dates as days since 1970-01-01.
+    private long[] amounts = new long[INITIAL_CAPACITY]; // Transaction amounts in cents.
+    private int[] categoryIds = new int[INITIAL_CAPACITY]; // Category ids.
+    private long[] incomeBits = new long[(INITIAL_CAPACITY + 63) / 64]; // Bit set: 1 for Income, 0 for Expense.
+    private int size; // Number of rows in use.
+
+    /**
+     * Creates an empty store with its own category dictionary.
+     */
+    public TransactionStore() {
+        this(new CategoryDictionary());
+    }
+
+    /**
+     * Creates an empty store that encodes categories with the given dictionary.
+     * @param categories dictionary used to turn category names into ids
+     */
+    public TransactionStore(CategoryDictionary categories) {
+        this.categories = categories;
+    }
+
+    /**
+     * Appends a transaction as a new row.
+     * @param transaction transaction to store
+     * @return always true
+     */
+    @Override
+    public boolean add(Transaction transaction) {
+        add(epochDay(transaction.getDate()), transaction.getAmountCents(),
+                categories.idOf(transaction.getCategory()), transaction.getTransactionType().isIncome());
+        return true;
+    }
+
+    /**
+     * Appends a row from its primitive fields.
+     * @param epochDay transaction date as days since 1970-01-01
+     * @param amountCents transaction amount in cents
+     * @param categoryId category id in this store's dictionary
+     * @param income true for Income; false for Expense
+     */
+    public void add(int epochDay, long amountCents, int categoryId, boolean income) {
+        if (size == epochDays.length) {
+            grow();
+        }
+        epochDays[size] = epochDay;
+        amounts[size] = amountCents;
+        categoryIds[size] = categoryId;
+        if (income) {
+            incomeBits[size >>> 6] |= 1L << size;
+        }
+        size++;
+        modCount++;
+    }
+
+    /**
+     * Converts a date to the epoch day a row stores.
+     * @param date date within the range {@link Transaction} allows
+     * @return days since 1970-01-01
+     * @throws IllegalArgumentException if the date is outside that range
+     */
+    static int epochDay(LocalDate date) {
+        return Math.toIntExact(Transaction.checkDate(date).toEpochDay());
+    }
+
+    /**
+     * Converts a query bound to an epoch day. Bounds may be any date, so ones beyond what an int holds are
+     * clamped, which still includes or excludes every storable date correctly.
+     * @param date bound; null for none
+     * @param unbounded value to use for a missing bound
+     * @return days since 1970-01-01
+     */
+    static int boundDay(LocalDate date, int unbounded) {
+        if (date == null) {
+            return unbounded;
+        }
+        return (int) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, date.toEpochDay()));
+    }
+
+    /**
+     * Builds a Transaction from a row.
+     * @param index row to read
+     * @return a new Transaction holding the row's values
+     */
+    @Override
+    public Transaction get(int index) {
+        checkIndex(index);
+        return Transaction.ofCents(LocalDate.ofEpochDay(epochDays[index]), categories.nameOf(categoryIds[index]),
+                amounts[index], TransactionType.of(isIncome(index)));
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param index row to read
+     * @return the row's date as days since 1970-01-01
+     */
+    public int epochDay(int index) {
+        checkIndex(index);
+        return epochDays[index];
+    }
+
+    /**
+     * @param index row to read
+     * @return the row's amount in cents
+     */
+    public long amountCents(int index) {
+        checkIndex(index);
+        return amounts[index];
+    }
+
+    /**
+     * @param index row to read
+     * @return the row's category id in this store's dictionary
+     */
+    public int categoryId(int index) {
+        checkIndex(index);
+        return categoryIds[index];
+    }
+
+    /**
+     * @param index row to read
+     * @return true if the row is an Income; false if it is an Expense
+     */
+    public boolean isIncome(int index) {
+        checkIndex(index);
+        return (incomeBits[index >>> 6] & (1L << index)) != 0;
+    }
+
+    /**
+     * @return the dictionary that maps this store's category ids to names
+     */
+    public CategoryDictionary getCategories() {
+        return categories;
+    }
+
+    /**
+     * Adds up the amounts of every row with the given category and type.
+     * @param category category name
+     * @param income true to add up Income rows; false for Expense rows
+     * @return the total in cents
+     */
+    public long sumCents(String category, boolean income) {
+        int categoryId = categories.find(category);
+        if (categoryId < 0) {
+            return 0;
+        }
+        long total = 0;
+        for (int i = 0; i < size; i++) {
+            if (categoryIds[i] == categoryId && ((incomeBits[i >>> 6] & (1L << i)) != 0) == income) {
+                total += amounts[i];
+            }
+        }
+        return total;
+    }
+
+    private void grow() {
+        // Grow by half again, so appends stay amortized O(1) without doubling very large histories.
+        int capacity = epochDays.length + (epochDays.length >> 1);
+        epochDays = Arrays.copyOf(epochDays, capacity);
+        amounts = Arrays.copyOf(amounts, capacity);
+        categoryIds = Arrays.copyOf(categoryIds, capacity);
+        incomeBits = Arrays.copyOf(incomeBits, (capacity + 63) / 64);
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + size);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package Finance;
+
+/**
+ * Whether money came in or went out. Transactions hold the constant rather than the text, so checking a type is
+ * a reference comparison; the label is what the user sees and what the data file stores.
+ */
+public enum TransactionType {
+    INCOME("Income"),
+    EXPENSE("Expense");
+
+    private final String label; // Name as it is displayed and stored.
+
+    TransactionType(String label) {
+        this.label = label;
+    }
+
+    /**
+     * Parses a type as it is displayed and stored.
+     * @param label "Income" or "Expense"
+     * @return the matching type
+     * @throws IllegalArgumentException if the label is neither
+     */
+    public static TransactionType parse(String label) {
+        if (INCOME.label.equals(label)) {
+            return INCOME;
+        } else if (EXPENSE.label.equals(label)) {
+            return EXPENSE;
+        }
+        throw new IllegalArgumentException("Unknown transaction type: " + label);
+    }
+
+    /**
+     * @param income true for income; false for an expense
+     * @return the matching type
+     */
+    public static TransactionType of(boolean income) {
+        return income ? INCOME : EXPENSE;
+    }
+
+    /**
+     * @return "Income" or "Expense"
+     */
+    public String getLabel() {
+        return label;
+    }
+
+    /**
+     * @return true for income
+     */
+    public boolean isIncome() {
+        return this == INCOME;
+    }
+}
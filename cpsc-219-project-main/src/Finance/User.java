@@ -1,5 +1,7 @@
 package Finance;
 
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
 import java.util.*;
 
 /**
@@ -12,12 +14,28 @@ public class User {
     private final String username; // A unique identifier for each user.
     private final String password; // A security measure for user authentication.
     private final String nickname; // A casual name for user interaction purposes.
-    // A list to store financial transactions made by the user.
-    private final List<Transaction> transactions;
+    // Columnar store of the financial transactions made by the user.
+    private final TransactionStore transactions;
     //
-    private final LinkedHashMap<String, Double> budgetLimits;
+    private final BudgetLimits budgetLimits;
     //
     private final List<RecurringTransaction> recurringTransactions;
+    // Running totals for insights, kept up to date as transactions are added
+    private final InsightAggregates insights;
+    // Monthly and rolling spending per category, checked against the budget limits as expenses arrive
+    private final BudgetMonitor budgetMonitor;
+    // Hash index of the recorded transactions, used to detect exact duplicates
+    private final DuplicateIndex duplicates;
+    // Prefix sums by date, for range totals and balances; built on the first query
+    private final DateIndex dateIndex;
+    // Rows by category and by date, for lookups that cost the size of the result; built on the first query
+    private final TransactionIndex rowIndex;
+    // What to do with a transaction that duplicates one already recorded
+    private DuplicateIndex.Policy duplicatePolicy = DuplicateIndex.Policy.ALLOW;
+    // Number of duplicate transactions seen so far, recorded or not
+    private int flaggedDuplicates;
+    // Stored transactions not read yet, or null once the history is in the store
+    private volatile TransactionHistory pendingHistory;
     // Object to parse input into strings
     private final Scanner scanner;
 
@@ -31,10 +49,15 @@ public class User {
         this.username = username;
         this.password = password;
         this.nickname = nickname;
-        // Initialize the budgetLimits HashMap in the User constructor
-        this.transactions = new ArrayList<>();
-        this.budgetLimits = new LinkedHashMap<>();
+        // Initialize the budget limits in the User constructor, sharing the store's category ids
+        this.transactions = new TransactionStore();
+        this.budgetLimits = new BudgetLimits(transactions.getCategories());
         this.recurringTransactions = new ArrayList<>();
+        this.insights = new InsightAggregates(transactions.getCategories());
+        this.budgetMonitor = new BudgetMonitor(budgetLimits, transactions.getCategories());
+        this.duplicates = new DuplicateIndex(transactions);
+        this.dateIndex = new DateIndex(transactions);
+        this.rowIndex = new TransactionIndex(transactions);
         scanner = new Scanner(System.in);
     }
 
@@ -114,7 +137,8 @@ public class User {
     }
 
     /**
-     * Adds a new recurring transaction for the user, prompting for category, amount, frequency, and type.
+     * Adds a new recurring transaction for the user, prompting for category, amount, frequency, type and an
+     * optional start date that defaults to today.
      * The projected expense or income is calculated based on the specified frequency.
      */
     protected void addRecurringTransaction() {
@@ -135,12 +159,25 @@ public class User {
         }
         type = type.equals("I") ? "Income" : "Expense";
 
+        // Prompt for the first occurrence; a blank line starts the schedule today.
+        LocalDate startDate = null;
+        while (startDate == null) {
+            System.out.print("Enter start date (YYYY-MM-DD), or leave blank for today: ");
+            String input = scanner.nextLine().trim();
+            try {
+                startDate = input.isEmpty() ? LocalDate.now() : Transaction.checkDate(LocalDate.parse(input));
+            } catch (DateTimeParseException | IllegalArgumentException e) {
+                System.out.println("Invalid date. Please enter a date between " + Transaction.MIN_DATE + " and "
+                        + Transaction.MAX_DATE + " as YYYY-MM-DD.");
+            }
+        }
+
         // Creating and adding the recurring transaction with projected monthly amount
-        RecurringTransaction recurringTransaction = new RecurringTransaction(category, amount, frequency, type);
+        RecurringTransaction recurringTransaction = new RecurringTransaction(category, amount, frequency, type, startDate);
         addRecurringTransaction(recurringTransaction);
         System.out.println("Recurring transaction added with monthly projection.");
         // Update user data in storage.
-        FileManager.updateUser(this);
+        FileManager.persistRecurringTransaction(this, recurringTransaction);
     }
 
 
@@ -183,84 +220,81 @@ public class User {
                 System.out.println("Invalid option. Input a valid floating point number.");
             }
         }
+        // Create a new Transaction object; its type is compared as a constant from here on.
+        Transaction transaction = new Transaction(category, amount, type);
+
         // Inside the recordTransaction method, after capturing the amount and before adding the transaction
-        if ("Expense".equals(type)) {
-            Double budgetLimit = this.getBudgetLimits().getOrDefault(category, Double.MAX_VALUE);
-            if (amount > budgetLimit) {
-                System.out.println("Warning: This expense exceeds your budget limit for " + category);
-            } else {
-                // Check if adding this transaction will exceed the total budget for the category
-                double totalSpentOnCategory = this.getTransactions().stream()
-                        .filter(t -> t.getCategory().equals(category) && "Expense".equals(t.getType()))
-                        .mapToDouble(Transaction::getAmount)
-                        .sum();
-                if (totalSpentOnCategory + amount > budgetLimit) {
-                    System.out.println("Warning: Adding this transaction will exceed your budget for " + category);
-                }
-            }
+        if (transaction.getTransactionType() == TransactionType.EXPENSE) {
+            checkBudget(category, amount);
         }
 
-
-        // Create a new Transaction object and add it to the user's transaction list.
-        Transaction transaction = new Transaction(category, amount, type);
-        addTransaction(transaction);
-        FileManager.updateUser(this); // Update user data in storage.
+        // Add the transaction to the user's transaction list.
+        if (isDuplicate(transaction)) {
+            System.out.println("Warning: An identical transaction has already been recorded today.");
+        }
+        if (!addTransaction(transaction)) {
+            System.out.println("Transaction was not recorded.");
+            return;
+        }
+        FileManager.persistTransaction(this, transaction); // Update user data in storage.
         System.out.println("Transaction recorded successfully.");
     }
 
+    /**
+     * Warns the user if a new expense is over its category's budget limit on its own, or would take this month's
+     * spending in the category over the limit.
+     * @param category category of the expense
+     * @param amount amount of the expense
+     */
+    void checkBudget(String category, double amount) {
+        ensureHistory();
+        long budgetLimitCents = this.getBudgetLimits().getCents(category, Long.MAX_VALUE);
+        if (budgetLimitCents == Long.MAX_VALUE) {
+            return; // No limit for this category.
+        }
+        long amountCents = Money.toMinor(amount);
+        if (amountCents > budgetLimitCents) {
+            System.out.println("Warning: This expense exceeds your budget limit for " + category);
+        } else {
+            // Check if adding this transaction will exceed the category's budget for this month
+            long totalSpentOnCategory = budgetMonitor.getMonthlySpentCents(category);
+            if (totalSpentOnCategory + amountCents > budgetLimitCents) {
+                System.out.println("Warning: Adding this transaction will exceed your budget for " + category);
+            }
+        }
+    }
+
     /**
      * Calculates and displays the total income, expenses, and net savings for the user based on their transaction history.
      * Additionally, it provides insights related to the user's budget, including areas where expenses have exceeded budget limits,
      * and offers advice on managing expenses better relative to set budgets.
      */
     protected void displayInsights() {
-        double totalIncome = 0;
-        double totalExpenses = 0;
-        // Initialize maps to track expenses and income by category
-        Map<String, Double> categoryExpenses = new HashMap<>();
-        Map<String, Double> categoryIncome = new HashMap<>();
-
-        // Process one-time transactions
-        for (Transaction transaction : getTransactions()) {
-            if ("Income".equals(transaction.getType())) {
-                totalIncome += transaction.getAmount();
-                categoryIncome.put(transaction.getCategory(), categoryIncome.getOrDefault(transaction.getCategory(), 0.0) + transaction.getAmount());
-            } else if ("Expense".equals(transaction.getType())) {
-                totalExpenses += transaction.getAmount();
-                categoryExpenses.put(transaction.getCategory(), categoryExpenses.getOrDefault(transaction.getCategory(), 0.0) + transaction.getAmount());
-            }
-        }
-        // Process recurring transactions for the next month (as an example)
-        for (RecurringTransaction rt : getRecurringTransactions()) {
-            if ("Income".equals(rt.getType())) {
-                totalIncome += rt.getAmount() * UserUtility.calculateFrequencyMultiplier(rt.getFrequency());
-                categoryIncome.put(rt.getCategory(), categoryIncome.getOrDefault(rt.getCategory(), 0.0) + rt.getAmount());
-            } else if ("Expense".equals(rt.getType())) {
-                totalExpenses += rt.getAmount() * UserUtility.calculateFrequencyMultiplier(rt.getFrequency());
-                categoryExpenses.put(rt.getCategory(), categoryExpenses.getOrDefault(rt.getCategory(), 0.0) + rt.getAmount());
-            }
-        }
+        ensureHistory();
+        // Totals are maintained as transactions are added, so no pass over the history is needed here
+        double totalIncome = insights.getTotalIncome();
+        double totalExpenses = insights.getTotalExpenses();
 
         // Display total income, expenses, and net savings
         System.out.println("Total Income: $" + totalIncome);
         System.out.println("Total Expenses: $" + totalExpenses);
         System.out.println("Net Savings: $" + (totalIncome - totalExpenses));
 
-        // Offer advice based on the comparison of expenses with budget limits for each category
+        // Offer advice based on the comparison of this month's expenses with the monthly budget for each category
         for (Map.Entry<String, Double> entry : getBudgetLimits().entrySet()) {
             String category = entry.getKey();
             Double budget = entry.getValue();
-            Double spent = categoryExpenses.getOrDefault(category, 0.0);
+            double spent = Money.toDouble(budgetMonitor.getMonthlySpentCents(category));
 
             // Advice for categories where spending exceeds budget
             if (spent > budget) {
                 System.out.println("Consider reducing expenses in " + category + ". You've spent $" + String.format("%.2f", spent)
-                        + ", which is over your budget of $" + String.format("%.2f", budget) + ".");
+                        + " this month, which is over your budget of $" + String.format("%.2f", budget) + ".");
             }
             // Encouragement for categories where spending is within budget
             else if (spent > 0) {
                 System.out.println("Good job on managing your " + category + " expenses. You've spent $"
-                        + String.format("%.2f", spent) + " out of your budget of $" + String.format("%.2f", budget) + ".");
+                        + String.format("%.2f", spent) + " this month out of your budget of $" + String.format("%.2f", budget) + ".");
             }
         }
     }
@@ -271,27 +305,8 @@ public class User {
      * listing all transactions and summarizing total income and expenses.
      */
     protected void displayFinancialStatement() {
-        System.out.println("Upcoming Financial Statement:");
-        double projectedIncome = 0, projectedExpenses = 0;
-
-        // Process and display one-time transactions
-        System.out.println("[DATE], [CATEGORY], [AMOUNT], [TYPE]");
-        for (Transaction t : getTransactions()) {
-            System.out.println(t);
-            if ("Income".equals(t.getType())) projectedIncome += t.getAmount();
-            else projectedExpenses += t.getAmount();
-        }
-
-        // Process and display recurring transactions for the next month
-        for (RecurringTransaction rt : getRecurringTransactions()) {
-            System.out.println("Next Month " + rt.getCategory() + " (Recurring): " + (rt.getType().equals("Income") ? "+" : "-") + rt.getAmount());
-            if ("Income".equals(rt.getType())) projectedIncome += rt.getAmount();
-            else projectedExpenses += rt.getAmount();
-        }
-
-        System.out.println("Projected Total Income: $" + projectedIncome);
-        System.out.println("Projected Total Expenses: $" + projectedExpenses);
-        System.out.println("Projected Net Balance: $" + (projectedIncome - projectedExpenses));
+        // Stream the statement through a buffered writer instead of printing row by row
+        new StatementRenderer(this).renderToConsole();
     }
 
     protected void setBudgetForCategory() {
@@ -313,17 +328,8 @@ public class User {
         }
 
 
-        // Calculate total expenses in the category from one-time transactions
-        double totalExpenses = getTransactions().stream()
-                .filter(t -> t.getCategory().equals(category) && "Expense".equals(t.getType()))
-                .mapToDouble(Transaction::getAmount)
-                .sum();
-
-        // Add total expenses from recurring transactions in the same category
-        totalExpenses += getRecurringTransactions().stream()
-                .filter(rt -> rt.getCategory().equals(category) && "Expense".equals(rt.getType()))
-                .mapToDouble(rt -> rt.getAmount() * UserUtility.calculateFrequencyMultiplier(rt.getFrequency()))
-                .sum();
+        // Expenses in the category this month, the period budget limits apply to
+        double totalExpenses = Money.toDouble(getBudgetMonitor().getMonthlySpentCents(category));
 
         // Set the budget limit for the category
         getBudgetLimits().put(category, limit);
@@ -331,20 +337,173 @@ public class User {
 
         // Warn the user if their budget limit is lower than their total expenses in that category
         if (totalExpenses > limit) {
-            System.out.println("Warning: Your current spending in " + category + " is $" + totalExpenses +
+            System.out.println("Warning: Your spending in " + category + " this month is $" + totalExpenses +
                     ", which exceeds your new budget limit. Consider adjusting your budget or expenses.");
         }
 
-        FileManager.updateUser(this);
+        FileManager.persistBudgetLimit(this, category);
     }
 
     /**
      * Adds a transaction to this user's list of transactions.
+     * A transaction identical to one already recorded is flagged, and skipped if the duplicate policy is REJECT.
      *
      * @param transaction The transaction to add.
+     * @return true if the transaction was added; false if it was rejected as a duplicate
+     */
+    public boolean addTransaction(Transaction transaction) {
+        ensureHistory();
+        return appendTransaction(transaction, duplicatePolicy);
+    }
+
+    /**
+     * Adds a transaction to the store and every running total, assuming the stored history has been read.
      */
-    public void addTransaction(Transaction transaction) {
+    private boolean appendTransaction(Transaction transaction, DuplicateIndex.Policy policy) {
+        boolean duplicate = duplicates.find(transaction) >= 0;
+        if (duplicate) {
+            flaggedDuplicates++;
+            if (policy == DuplicateIndex.Policy.REJECT) {
+                return false;
+            }
+        }
         transactions.add(transaction);
+        int row = transactions.size() - 1;
+        if (!duplicate) {
+            duplicates.add(row); // Only the first copy needs indexing to detect later ones
+        }
+        dateIndex.add(row);
+        rowIndex.add(row);
+        insights.addTransaction(transactions.categoryId(row), transactions.amountCents(row), transactions.isIncome(row));
+        if (!transactions.isIncome(row)) {
+            budgetMonitor.recordExpense(transactions.epochDay(row), transactions.categoryId(row), transactions.amountCents(row));
+        }
+        return true;
+    }
+
+    /**
+     * Checks whether a transaction with the same date, category, amount and type has already been recorded.
+     *
+     * @param transaction the transaction to check
+     * @return true if an identical transaction exists
+     */
+    public boolean isDuplicate(Transaction transaction) {
+        ensureHistory();
+        return duplicates.find(transaction) >= 0;
+    }
+
+    /**
+     * Sets what happens when a transaction identical to a recorded one is added.
+     *
+     * @param duplicatePolicy ALLOW to record and flag duplicates; REJECT to skip them
+     */
+    public void setDuplicatePolicy(DuplicateIndex.Policy duplicatePolicy) {
+        this.duplicatePolicy = duplicatePolicy;
+    }
+
+    /**
+     * @return the current duplicate policy
+     */
+    public DuplicateIndex.Policy getDuplicatePolicy() {
+        return duplicatePolicy;
+    }
+
+    /**
+     * @return number of duplicate transactions added so far, whether they were recorded or rejected
+     */
+    public int getFlaggedDuplicates() {
+        return flaggedDuplicates;
+    }
+
+    /**
+     * Returns the most recently recorded transactions. A history that has not been read yet is read from its end,
+     * one page at a time, without loading the rest of it.
+     *
+     * @param count most transactions to return
+     * @return up to count transactions, newest first
+     */
+    public List<Transaction> getRecentTransactions(int count) {
+        TransactionHistory history = pendingHistory;
+        if (history != null) {
+            synchronized (this) {
+                if (pendingHistory != null) {
+                    return history.newest(count);
+                }
+            }
+        }
+        List<Transaction> recent = new ArrayList<>(Math.min(count, transactions.size()));
+        for (int row = transactions.size() - 1; row >= 0 && recent.size() < count; row--) {
+            recent.add(transactions.get(row));
+        }
+        return recent;
+    }
+
+    /**
+     * Appends a row restored from a snapshot. The insight totals are left alone, since the snapshot restores
+     * them as a whole with {@link #restoreInsights}.
+     */
+    void restoreRow(int epochDay, long amountCents, int categoryId, boolean income) {
+        boolean duplicate = duplicates.find(epochDay, amountCents, categoryId, income) >= 0;
+        if (duplicate) {
+            flaggedDuplicates++;
+        }
+        transactions.add(epochDay, amountCents, categoryId, income);
+        int row = transactions.size() - 1;
+        if (!duplicate) {
+            duplicates.add(row);
+        }
+        dateIndex.add(row);
+        rowIndex.add(row);
+        if (!income) {
+            budgetMonitor.recordExpense(epochDay, categoryId, amountCents);
+        }
+    }
+
+    /**
+     * Sets the one-time insight totals of rows restored from a snapshot.
+     */
+    void restoreInsights(long incomeCents, long expenseCents, long[] categoryIncomeCents, long[] categoryExpenseCents) {
+        insights.restore(incomeCents, expenseCents, categoryIncomeCents, categoryExpenseCents);
+    }
+
+    /**
+     * Leaves this user's stored transactions to be read the first time anything needs them.
+     * @param history where the transactions are stored
+     */
+    void deferHistory(TransactionHistory history) {
+        pendingHistory = history;
+    }
+
+    /**
+     * @return where this user's stored transactions can be read, or null once they are in the store
+     */
+    TransactionHistory getPendingHistory() {
+        return pendingHistory;
+    }
+
+    /**
+     * @return the number of transactions, or an estimate if they have not been read yet
+     */
+    int estimatedTransactionCount() {
+        TransactionHistory history = pendingHistory;
+        return history != null ? history.estimatedSize() : transactions.size();
+    }
+
+    /**
+     * Reads the stored transaction history into the store if it has not been read yet.
+     */
+    private void ensureHistory() {
+        if (pendingHistory == null) {
+            return;
+        }
+        synchronized (this) {
+            TransactionHistory history = pendingHistory;
+            if (history != null) {
+                // Stored duplicates were accepted when they were recorded, so they are kept whatever the policy is now.
+                history.forEach(transaction -> appendTransaction(transaction, DuplicateIndex.Policy.ALLOW));
+                pendingHistory = null; // Only now, so other threads wait for the whole history.
+            }
+        }
     }
 
     /**
@@ -353,6 +512,7 @@ public class User {
      */
     public void addRecurringTransaction(RecurringTransaction recurringTransaction) {
         recurringTransactions.add(recurringTransaction);
+        insights.addRecurringTransaction(recurringTransaction);
     }
 
     // Getter methods
@@ -389,9 +549,90 @@ public class User {
      * @return The list of transactions.
      */
     public List<Transaction> getTransactions() {
+        ensureHistory();
+        return transactions;
+    }
+
+    /**
+     * Returns the columnar store behind {@link #getTransactions()}, for code that reads rows field by field.
+     *
+     * @return the transaction store
+     */
+    public TransactionStore getTransactionStore() {
+        ensureHistory();
         return transactions;
     }
 
+    /**
+     * Returns the date index over this user's transactions, for totals between two dates and balances on a date.
+     *
+     * @return the date index
+     */
+    public DateIndex getDateIndex() {
+        ensureHistory();
+        return dateIndex;
+    }
+
+    /**
+     * Returns the category and date indexes over the rows of this user's transaction store.
+     *
+     * @return the row index
+     */
+    public TransactionIndex getTransactionIndex() {
+        ensureHistory();
+        return rowIndex;
+    }
+
+    /**
+     * Returns the transactions recorded in one category, found through the row index.
+     *
+     * @param category category name
+     * @return the category's transactions, in the order they were recorded
+     */
+    public List<Transaction> getTransactions(String category) {
+        return rowsToTransactions(getTransactionIndex().rowsInCategory(category));
+    }
+
+    /**
+     * Returns the transactions dated within a range, found through the row index.
+     *
+     * @param from first day, inclusive; null for no lower bound
+     * @param to last day, inclusive; null for no upper bound
+     * @return the transactions in date order
+     */
+    public List<Transaction> getTransactions(LocalDate from, LocalDate to) {
+        return rowsToTransactions(getTransactionIndex().rowsBetween(from, to));
+    }
+
+    private List<Transaction> rowsToTransactions(int[] rows) {
+        List<Transaction> result = new ArrayList<>(rows.length);
+        for (int row : rows) {
+            result.add(transactions.get(row));
+        }
+        return result;
+    }
+
+    /**
+     * Returns the running insight totals for this user.
+     *
+     * @return the insight aggregates
+     */
+    public InsightAggregates getInsights() {
+        ensureHistory();
+        return insights;
+    }
+
+    /**
+     * Returns the monitor that tracks this user's spending against their monthly budget limits.
+     * Register a listener on it to be told when a category nears or goes over its limit.
+     *
+     * @return the budget monitor
+     */
+    public BudgetMonitor getBudgetMonitor() {
+        ensureHistory();
+        return budgetMonitor;
+    }
+
     /**
      *  Returns an unmodifiable list of recurring transactions for this user
      * @return the list of recurring transaction
@@ -404,7 +645,7 @@ public class User {
      * Returns an immutable collection of budget limits for this user
      * @return the budget limits represented as doubles mapped to a string
      */
-    public LinkedHashMap<String, Double> getBudgetLimits() {
+    public BudgetLimits getBudgetLimits() {
         return budgetLimits;
     }
 
@@ -0,0 +1,204 @@
+package Finance;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Least-recently-used cache of loaded users for one data file, bounded both by number of users and by an
+ * estimate of the memory they hold. Once enabled for a file, {@link FileManager#loadUser(String, String)}
+ * returns cached users without touching the file, so a user who logged in a moment ago is not parsed again.
+ * <p>
+ * The cache is write-through: when FileManager or UserStore writes a user, the cached copy is kept if it is
+ * the object that was written, and dropped otherwise, so the next load reads the stored state.
+ */
+public class UserCache {
+    // Caches by absolute data file path; files without an entry are not cached.
+    private static final Map<String, UserCache> CACHES = new HashMap<>();
+    // Estimated bytes held by a user object apart from its rows.
+    private static final long USER_OVERHEAD = 512;
+    // Estimated bytes per transaction row in the columnar store, including growth slack.
+    private static final long TRANSACTION_BYTES = 24;
+    // Estimated bytes per recurring transaction or budget limit.
+    private static final long ENTRY_BYTES = 128;
+
+    private final int maxUsers; // Most users kept at once.
+    private final long maxBytes; // Most estimated bytes kept at once.
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true); // Access order.
+    private long bytes; // Estimated bytes of the cached users.
+    private long version; // Bumped whenever a cached user is dropped because it was written.
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    private record Entry(User user, long bytes) {
+    }
+
+    private UserCache(int maxUsers, long maxBytes) {
+        this.maxUsers = maxUsers;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Starts caching users loaded from a data file, replacing any cache it already had.
+     * @param fileName data file whose users are cached
+     * @param maxUsers most users to keep
+     * @param maxBytes most memory, in estimated bytes, the cached users may hold
+     * @return the new cache
+     */
+    public static synchronized UserCache enable(String fileName, int maxUsers, long maxBytes) {
+        if (maxUsers < 1 || maxBytes < 1) {
+            throw new IllegalArgumentException("Cache bounds must be positive");
+        }
+        UserCache cache = new UserCache(maxUsers, maxBytes);
+        CACHES.put(key(fileName), cache);
+        return cache;
+    }
+
+    /**
+     * Stops caching users of a data file.
+     * @param fileName data file whose cache is dropped
+     */
+    public static synchronized void disable(String fileName) {
+        CACHES.remove(key(fileName));
+    }
+
+    /**
+     * @param fileName data file
+     * @return the file's cache; null if caching is not enabled for it
+     */
+    public static synchronized UserCache forFile(String fileName) {
+        return CACHES.isEmpty() ? null : CACHES.get(key(fileName));
+    }
+
+    /**
+     * Tells the file's cache, if any, that a user was just written.
+     * @param fileName data file the user was written to
+     * @param user the object whose state was written
+     */
+    static void written(String fileName, User user) {
+        UserCache cache = forFile(fileName);
+        if (cache != null) {
+            cache.written(user);
+        }
+    }
+
+    /**
+     * Returns a cached user and marks it as recently used.
+     * @param username user to look up
+     * @return the cached user; null on a miss
+     */
+    public synchronized User get(String username) {
+        Entry entry = entries.get(username);
+        if (entry == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        return entry.user();
+    }
+
+    /**
+     * @return a token to pass to {@link #put(User, long)}, taken before loading a user from the file
+     */
+    public synchronized long version() {
+        return version;
+    }
+
+    /**
+     * Caches a freshly loaded user unless a write invalidated cached users since the load started, then
+     * evicts least recently used users until the cache is within its bounds.
+     * @param user loaded user
+     * @param loadedAt value of {@link #version()} when the load started
+     */
+    public synchronized void put(User user, long loadedAt) {
+        if (loadedAt != version) {
+            return; // The user may have been written while it was loading.
+        }
+        Entry old = entries.put(user.getUsername(), new Entry(user, estimateBytes(user)));
+        if (old != null) {
+            bytes -= old.bytes();
+        }
+        bytes += entries.get(user.getUsername()).bytes();
+        Iterator<Entry> eldest = entries.values().iterator();
+        while ((entries.size() > maxUsers || bytes > maxBytes) && eldest.hasNext()) {
+            Entry entry = eldest.next();
+            eldest.remove();
+            bytes -= entry.bytes();
+            evictions++;
+        }
+    }
+
+    /**
+     * Drops a user from the cache.
+     * @param username user to drop
+     */
+    public synchronized void invalidate(String username) {
+        Entry entry = entries.remove(username);
+        if (entry != null) {
+            bytes -= entry.bytes();
+        }
+        version++;
+    }
+
+    private synchronized void written(User user) {
+        Entry entry = entries.get(user.getUsername());
+        if (entry == null) {
+            return;
+        }
+        if (entry.user() != user) {
+            invalidate(user.getUsername());
+        } else {
+            // The cached object is the one that changed; keep it and update its size.
+            long size = estimateBytes(user);
+            bytes += size - entry.bytes();
+            entries.put(user.getUsername(), new Entry(user, size));
+        }
+    }
+
+    /**
+     * @return number of loads answered from the cache
+     */
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    /**
+     * @return number of loads that had to read the file
+     */
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * @return number of users evicted to stay within the bounds
+     */
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * @return number of cached users
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * @return estimated bytes held by the cached users
+     */
+    public synchronized long getEstimatedBytes() {
+        return bytes;
+    }
+
+    private static long estimateBytes(User user) {
+        return USER_OVERHEAD + (long) user.estimatedTransactionCount() * TRANSACTION_BYTES
+                + (user.getRecurringTransactions().size() + user.getBudgetLimits().size()) * ENTRY_BYTES;
+    }
+
+    private static String key(String fileName) {
+        return new File(fileName).getAbsolutePath();
+    }
+}
@@ -0,0 +1,585 @@
+package Finance;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Parser for the userData.txt format that works directly on the bytes of the file. Blocks belonging to other
+ * users are skipped by looking for the "---" separator without building any strings, dates and amounts are
+ * decoded by hand-written fast paths, and repeated category and type names are interned so a loaded history
+ * shares one String per distinct name.
+ * <p>
+ * The accepted format is the one written by {@link FileManager#saveUser(User, String)}: a header line
+ * (username,password,nickname), then the TRANSACTIONS:, RECURRING TRANSACTIONS: and BUDGET LIMITS: sections,
+ * and a closing "---" line. Both "\n" and "\r\n" line endings are accepted.
+ */
+public class UserDataParser {
+    // Exact powers of ten; any value up to 10^22 is representable as a double without rounding.
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+    // Most distinct names interned; later names are still parsed, just not shared.
+    private static final int INTERNED_NAMES = 4096;
+    // Interned names shared by every parser, so short-lived virtual threads do not each build their own table.
+    private static final ConcurrentHashMap<Name, String> STRINGS = new ConcurrentHashMap<>();
+
+    private final ByteBuffer buffer; // Bytes being parsed; only absolute reads are used.
+    private final int limit; // End of the parsable region.
+    private final Name probe = new Name(); // Reused to look names up without allocating.
+    private int position; // Start of the next unread line.
+    private int lineStart; // Start of the most recently read line.
+    private int lineEnd; // End of the most recently read line, excluding the line terminator.
+
+    /**
+     * Receives the location of each user block found by {@link #forEachBlock(ByteBuffer, BlockVisitor)}.
+     */
+    public interface BlockVisitor {
+        /**
+         * @param username username from the block's header line
+         * @param offset offset of the block's first byte within the buffer
+         * @param length length of the block in bytes, including the closing separator line
+         */
+        void visit(String username, int offset, int length);
+    }
+
+    private UserDataParser(ByteBuffer buffer) {
+        this.buffer = buffer;
+        this.position = buffer.position();
+        this.limit = buffer.limit();
+    }
+
+    /**
+     * Searches a buffer holding one or more user blocks for a user and parses their block
+     * @param buffer bytes of the data file, from its position to its limit
+     * @param username username to look for
+     * @return the parsed user; null if no block belongs to the username
+     */
+    public static User parse(ByteBuffer buffer, String username) {
+        UserDataParser parser = new UserDataParser(buffer);
+        byte[] wanted = username.getBytes(StandardCharsets.UTF_8);
+        while (parser.nextLine()) {
+            if (parser.lineStart == parser.lineEnd) {
+                continue; // Tolerate blank lines between blocks.
+            }
+            if (parser.headerMatches(wanted)) {
+                return parser.readBlock();
+            }
+            parser.skipBlock();
+        }
+        return null;
+    }
+
+    /**
+     * Parses the user block that starts at the buffer's position
+     * @param buffer bytes of a single user block
+     * @return the parsed user
+     */
+    public static User parseBlock(ByteBuffer buffer) {
+        UserDataParser parser = new UserDataParser(buffer);
+        if (!parser.nextLine()) {
+            throw new IllegalStateException("Malformed user block: missing header");
+        }
+        return parser.readBlock();
+    }
+
+    /**
+     * Walks every user block in a buffer, reporting each block's username and location without parsing it
+     * @param buffer bytes of the data file, from its position to its limit
+     * @param visitor receives each block in file order
+     */
+    public static void forEachBlock(ByteBuffer buffer, BlockVisitor visitor) {
+        UserDataParser parser = new UserDataParser(buffer);
+        int blockStart = parser.position;
+        while (parser.nextLine()) {
+            if (parser.lineStart == parser.lineEnd) {
+                blockStart = parser.position; // Skip blank lines between blocks.
+                continue;
+            }
+            int comma = parser.indexOf((byte) ',', parser.lineStart, parser.lineEnd);
+            String username = parser.decode(parser.lineStart, comma < 0 ? parser.lineEnd : comma);
+            parser.skipBlock();
+            visitor.visit(username, blockStart - buffer.position(), parser.position - blockStart);
+            blockStart = parser.position;
+        }
+    }
+
+    /**
+     * Parses a user block without its transactions: the credentials, recurring transactions and budget limits.
+     * The sections after the transactions are found by searching back from the end of the block, so the cost
+     * does not depend on how many transactions the user has.
+     * @param buffer bytes of a single user block
+     * @return the user, with no transactions, and where the transaction lines are
+     */
+    public static Header parseHeader(ByteBuffer buffer) {
+        UserDataParser parser = new UserDataParser(buffer);
+        if (!parser.nextLine()) {
+            throw new IllegalStateException("Malformed user block: missing header");
+        }
+        User user = parser.readHeaderLine();
+        parser.expectLine("TRANSACTIONS:");
+        int historyStart = parser.position;
+        int historyEnd = parser.findLineBackward("RECURRING TRANSACTIONS:", historyStart);
+        parser.position = historyEnd;
+        parser.nextLine(); // The marker itself.
+        parser.readSettings(user);
+        return new Header(user, historyStart - buffer.position(), historyEnd - buffer.position());
+    }
+
+    /**
+     * A user parsed without their transactions, and where the transaction lines sit in the block.
+     * @param user the user, with no transactions
+     * @param historyStart offset of the first transaction line within the buffer
+     * @param historyEnd offset just past the last transaction line within the buffer
+     */
+    public record Header(User user, int historyStart, int historyEnd) {
+    }
+
+    /**
+     * Finds the transaction lines of a user block without parsing anything else.
+     * @param buffer bytes of a single user block
+     * @return {start, end} offsets of the transaction lines within the buffer
+     */
+    public static int[] historyRange(ByteBuffer buffer) {
+        UserDataParser parser = new UserDataParser(buffer);
+        if (!parser.nextLine()) {
+            throw new IllegalStateException("Malformed user block: missing header");
+        }
+        parser.expectLine("TRANSACTIONS:");
+        int historyStart = parser.position;
+        int historyEnd = parser.findLineBackward("RECURRING TRANSACTIONS:", historyStart);
+        return new int[]{historyStart - buffer.position(), historyEnd - buffer.position()};
+    }
+
+    /**
+     * Parses transaction lines, as found by {@link #historyRange(ByteBuffer)}, in the order they are stored
+     * @param buffer bytes of the transaction lines, from its position to its limit
+     * @param consumer receives each transaction
+     */
+    public static void parseTransactions(ByteBuffer buffer, Consumer<Transaction> consumer) {
+        UserDataParser parser = new UserDataParser(buffer);
+        while (parser.nextLine()) {
+            if (parser.lineStart != parser.lineEnd) {
+                consumer.accept(parser.readTransaction());
+            }
+        }
+    }
+
+    /**
+     * Reads transaction lines that match a query without building a Transaction for any of them. Each line's
+     * date is checked first and a line outside the range is skipped without reading its other fields.
+     * @param buffer bytes of the transaction lines, from its position to its limit
+     * @param query query whose filters select the lines
+     * @param visitor receives the fields of each matching line, in the order they are stored
+     */
+    static void scanTransactions(ByteBuffer buffer, TransactionQuery query, TransactionQuery.RowVisitor visitor) {
+        UserDataParser parser = new UserDataParser(buffer);
+        while (parser.nextLine()) {
+            if (parser.lineStart == parser.lineEnd) {
+                continue;
+            }
+            // date,category,amount,type
+            int c1 = parser.comma(parser.lineStart);
+            int epochDay = TransactionStore.epochDay(parser.parseDate(parser.lineStart, c1));
+            if (!query.matchesDay(epochDay)) {
+                continue;
+            }
+            int c2 = parser.comma(c1 + 1);
+            int c3 = parser.comma(c2 + 1);
+            String category = parser.intern(c1 + 1, c2); // No allocation for a name seen before.
+            long amountCents = Money.toMinor(parser.parseAmount(c2 + 1, c3));
+            boolean income = parser.parseType(c3 + 1, parser.fieldEnd(c3 + 1)).isIncome();
+            if (query.matches(epochDay, amountCents, category, income)) {
+                visitor.visit(epochDay, amountCents, category, income);
+            }
+        }
+    }
+
+    /**
+     * Parses only the last transaction lines, reading nothing before them
+     * @param buffer bytes of the transaction lines, from its position to its limit
+     * @param count most transactions to parse
+     * @return up to count of the last transactions, in the order they are stored
+     */
+    public static List<Transaction> parseLastTransactions(ByteBuffer buffer, int count) {
+        UserDataParser parser = new UserDataParser(buffer);
+        // Step back over count line breaks; the last line may or may not end with one.
+        int start = parser.limit;
+        int lines = 0;
+        for (int i = parser.limit - 2; i >= parser.position && lines < count; i--) {
+            if (buffer.get(i) == '\n') {
+                start = i + 1;
+                lines++;
+            }
+        }
+        if (lines < count) {
+            start = parser.position;
+        }
+        parser.position = start;
+        List<Transaction> transactions = new ArrayList<>(count);
+        while (parser.nextLine()) {
+            if (parser.lineStart != parser.lineEnd) {
+                transactions.add(parser.readTransaction());
+            }
+        }
+        return transactions;
+    }
+
+    /**
+     * Reads the rest of a block whose header is the current line.
+     */
+    private User readBlock() {
+        User user = readHeaderLine();
+        expectLine("TRANSACTIONS:");
+        while (nextLineOrFail() && !lineEquals("RECURRING TRANSACTIONS:")) {
+            user.addTransaction(readTransaction());
+        }
+        readSettings(user);
+        return user;
+    }
+
+    /**
+     * Creates the user described by the current line.
+     */
+    private User readHeaderLine() {
+        // Header: username,password,nickname
+        int first = comma(lineStart);
+        int second = comma(first + 1);
+        int third = fieldEnd(second + 1);
+        return new User(decode(lineStart, first), decode(first + 1, second), decode(second + 1, third));
+    }
+
+    /**
+     * Searches back from the end of the buffer for the last line equal to a section marker.
+     * @param text marker to look for
+     * @param floor offset the search stops at
+     * @return offset of the start of the marker line
+     */
+    private int findLineBackward(String text, int floor) {
+        int end = limit;
+        while (end > floor) {
+            int contentEnd = end;
+            if (buffer.get(contentEnd - 1) == '\n') {
+                contentEnd--;
+            }
+            if (contentEnd > floor && buffer.get(contentEnd - 1) == '\r') {
+                contentEnd--;
+            }
+            int start = contentEnd;
+            while (start > floor && buffer.get(start - 1) != '\n') {
+                start--;
+            }
+            if (rangeEquals(start, contentEnd, text)) {
+                return start;
+            }
+            end = start;
+        }
+        throw new IllegalStateException("Malformed user block: expected " + text);
+    }
+
+    /**
+     * Reads the recurring transactions and budget limits that follow the "RECURRING TRANSACTIONS:" line just read.
+     */
+    private void readSettings(User user) {
+        while (nextLineOrFail() && !lineEquals("BUDGET LIMITS:")) {
+            // category,amount,frequency,type[,start date]
+            int c1 = comma(lineStart);
+            int c2 = comma(c1 + 1);
+            int c3 = comma(c2 + 1);
+            int c4 = fieldEnd(c3 + 1);
+            LocalDate startDate = c4 < lineEnd ? parseDate(c4 + 1, fieldEnd(c4 + 1)) : null;
+            user.addRecurringTransaction(new RecurringTransaction(intern(lineStart, c1), parseAmount(c1 + 1, c2),
+                    intern(c2 + 1, c3), intern(c3 + 1, c4), startDate));
+        }
+        while (nextLineOrFail() && !lineEquals("---")) {
+            // category,limit
+            int c1 = comma(lineStart);
+            user.getBudgetLimits().putCents(intern(lineStart, c1), Money.toMinor(parseAmount(c1 + 1, fieldEnd(c1 + 1))));
+        }
+    }
+
+    /**
+     * Parses the transaction on the current line.
+     */
+    private Transaction readTransaction() {
+        // date,category,amount,type
+        int c1 = comma(lineStart);
+        int c2 = comma(c1 + 1);
+        int c3 = comma(c2 + 1);
+        return new Transaction(parseDate(lineStart, c1), intern(c1 + 1, c2),
+                parseAmount(c2 + 1, c3), parseType(c3 + 1, fieldEnd(c3 + 1)));
+    }
+
+    /**
+     * Advances past the separator that closes the block whose header was just read.
+     */
+    private void skipBlock() {
+        while (nextLine()) {
+            if (lineEquals("---")) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Moves to the next line.
+     * @return false if the end of the buffer was reached
+     */
+    private boolean nextLine() {
+        if (position >= limit) {
+            return false;
+        }
+        lineStart = position;
+        int newline = indexOf((byte) '\n', position, limit);
+        if (newline < 0) {
+            lineEnd = limit;
+            position = limit;
+        } else {
+            lineEnd = newline;
+            position = newline + 1;
+        }
+        if (lineEnd > lineStart && buffer.get(lineEnd - 1) == '\r') {
+            lineEnd--;
+        }
+        return true;
+    }
+
+    private boolean nextLineOrFail() {
+        if (!nextLine()) {
+            throw new IllegalStateException("Malformed user block: unexpected end of data");
+        }
+        return true;
+    }
+
+    private void expectLine(String expected) {
+        if (!nextLine() || !lineEquals(expected)) {
+            throw new IllegalStateException("Malformed user block: expected " + expected);
+        }
+    }
+
+    private boolean lineEquals(String text) {
+        return rangeEquals(lineStart, lineEnd, text); // Section markers are ASCII too.
+    }
+
+    private boolean headerMatches(byte[] username) {
+        int end = lineStart + username.length;
+        if (end > lineEnd || (end < lineEnd && buffer.get(end) != ',')) {
+            return false;
+        }
+        for (int i = 0; i < username.length; i++) {
+            if (buffer.get(lineStart + i) != username[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int indexOf(byte value, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (buffer.get(i) == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Finds the comma that ends a field of the current line, failing if the line has too few fields.
+     */
+    private int comma(int from) {
+        int comma = indexOf((byte) ',', from, lineEnd);
+        if (comma < 0) {
+            throw new IllegalStateException("Malformed user block: missing field");
+        }
+        return comma;
+    }
+
+    /**
+     * Ends a trailing field at the next comma, the way String.split would drop anything after it.
+     */
+    private int fieldEnd(int from) {
+        for (int i = from; i < lineEnd; i++) {
+            if (buffer.get(i) == ',') {
+                return i;
+            }
+        }
+        return lineEnd;
+    }
+
+    private String decode(int from, int to) {
+        return decode(buffer, from, to);
+    }
+
+    private static String decode(ByteBuffer buffer, int from, int to) {
+        byte[] bytes = new byte[to - from];
+        buffer.get(from, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private String intern(int from, int to) {
+        String value = STRINGS.get(probe.set(buffer, from, to));
+        if (value != null) {
+            return value;
+        }
+        byte[] bytes = new byte[to - from];
+        buffer.get(from, bytes);
+        value = new String(bytes, StandardCharsets.UTF_8);
+        if (STRINGS.size() < INTERNED_NAMES) {
+            String existing = STRINGS.putIfAbsent(new Name().set(ByteBuffer.wrap(bytes), 0, bytes.length), value);
+            return existing == null ? value : existing;
+        }
+        return value;
+    }
+
+    /**
+     * Decodes a yyyy-MM-dd date, falling back to LocalDate.parse for anything else.
+     */
+    private LocalDate parseDate(int from, int to) {
+        if (to - from == 10 && buffer.get(from + 4) == '-' && buffer.get(from + 7) == '-') {
+            int year = digits(from, 4);
+            int month = digits(from + 5, 2);
+            int day = digits(from + 8, 2);
+            if (year >= 0 && month >= 0 && day >= 0) {
+                return LocalDate.of(year, month, day);
+            }
+        }
+        return LocalDate.parse(decode(from, to));
+    }
+
+    /**
+     * Matches the type field against the stored labels byte by byte, so no string is built per row.
+     */
+    private TransactionType parseType(int from, int to) {
+        if (rangeEquals(from, to, TransactionType.EXPENSE.getLabel())) {
+            return TransactionType.EXPENSE;
+        } else if (rangeEquals(from, to, TransactionType.INCOME.getLabel())) {
+            return TransactionType.INCOME;
+        }
+        return TransactionType.parse(decode(from, to)); // Throws for anything but the two labels.
+    }
+
+    private boolean rangeEquals(int from, int to, String text) {
+        int length = text.length(); // Labels are ASCII, so chars and bytes line up.
+        if (to - from != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (buffer.get(from + i) != text.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int digits(int from, int count) {
+        int value = 0;
+        for (int i = from; i < from + count; i++) {
+            int digit = buffer.get(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    /**
+     * Decodes a plain decimal such as 12.5 or -3 exactly the way Double.parseDouble would. With at most
+     * 15 significant digits the digits fit exactly in a double, so one division by an exact power of ten
+     * gives the correctly rounded result. Exponents, long mantissas and anything unusual take the slow path.
+     */
+    private double parseAmount(int from, int to) {
+        return parseAmount(buffer, from, to);
+    }
+
+    /**
+     * Decodes the decimal stored in a byte range of a buffer
+     * @param buffer buffer holding the text
+     * @param from first byte of the number
+     * @param to end of the number, exclusive
+     * @return the same value Double.parseDouble returns for the text
+     */
+    static double parseAmount(ByteBuffer buffer, int from, int to) {
+        int i = from;
+        boolean negative = false;
+        if (i < to && (buffer.get(i) == '-' || buffer.get(i) == '+')) {
+            negative = buffer.get(i) == '-';
+            i++;
+        }
+        long mantissa = 0;
+        int significantDigits = 0;
+        int fractionDigits = -1; // -1 until the decimal point is seen.
+        boolean sawDigit = false;
+        for (; i < to; i++) {
+            byte c = buffer.get(i);
+            if (c >= '0' && c <= '9') {
+                sawDigit = true;
+                if (mantissa != 0 || c != '0') {
+                    significantDigits++;
+                }
+                if (significantDigits > 15) {
+                    return Double.parseDouble(decode(buffer, from, to));
+                }
+                mantissa = mantissa * 10 + (c - '0');
+                if (fractionDigits >= 0) {
+                    fractionDigits++;
+                }
+            } else if (c == '.' && fractionDigits < 0) {
+                fractionDigits = 0;
+            } else {
+                return Double.parseDouble(decode(buffer, from, to));
+            }
+        }
+        if (!sawDigit || fractionDigits >= POWERS_OF_TEN.length) {
+            return Double.parseDouble(decode(buffer, from, to));
+        }
+        double value = fractionDigits > 0 ? mantissa / POWERS_OF_TEN[fractionDigits] : mantissa;
+        return negative ? -value : value;
+    }
+
+    /**
+     * Bytes of a name, used as an intern key. Keys in the table own a copy of their bytes; a parser's probe points
+     * into the buffer being parsed so a name seen before is found without allocating.
+     */
+    private static final class Name {
+        private ByteBuffer bytes;
+        private int from;
+        private int to;
+        private int hash;
+
+        Name set(ByteBuffer bytes, int from, int to) {
+            this.bytes = bytes;
+            this.from = from;
+            this.to = to;
+            int hash = 0x811c9dc5;
+            for (int i = from; i < to; i++) {
+                hash = (hash ^ bytes.get(i)) * 0x01000193;
+            }
+            this.hash = hash;
+            return this;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Name other) || other.hash != hash || other.to - other.from != to - from) {
+                return false;
+            }
+            for (int i = 0; i < to - from; i++) {
+                if (bytes.get(from + i) != other.bytes.get(other.from + i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,297 @@
+package Finance;
+
+import java.io.*;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Persistent username to byte offset index for a user data file. Each entry records where a user's block
+ * starts in the data file and how many bytes it spans, so a lookup is a single seek instead of a scan.
+ * The index lives next to the data file (e.g. userData.txt.idx) and is rebuilt from the data file whenever
+ * it is missing or no longer covers the whole file, so it can never silently go stale.
+ */
+public class UserIndex {
+    // Suffix appended to the data file name to get the index file name.
+    public static final String INDEX_SUFFIX = ".idx";
+    // One index per data file, shared by every caller in this process.
+    private static final Map<String, UserIndex> OPEN_INDEXES = new HashMap<>();
+
+    private final File dataFile; // The user data file this index describes.
+    private final File indexFile; // The file the index is persisted to.
+    private final Map<String, long[]> entries = new HashMap<>(); // username -> {offset, length}
+    private BloomFilter bloomFilter; // Fast negative answers for username lookups.
+    private int bloomCapacity; // Number of usernames the current filter was sized for.
+    private long coveredLength; // Number of bytes of the data file the index accounts for.
+
+    private UserIndex(File dataFile) {
+        this.dataFile = dataFile;
+        this.indexFile = new File(dataFile.getPath() + INDEX_SUFFIX);
+    }
+
+    /**
+     * Returns the index for the given data file, loading it from disk or rebuilding it if necessary.
+     * @param fileName data file the index should describe
+     * @return an index that covers the current contents of the data file
+     */
+    public static synchronized UserIndex forFile(String fileName) {
+        String key = new File(fileName).getAbsolutePath();
+        UserIndex index = OPEN_INDEXES.get(key);
+        if (index == null) {
+            index = new UserIndex(new File(key));
+            index.load();
+            OPEN_INDEXES.put(key, index);
+        } else {
+            index.validate();
+        }
+        return index;
+    }
+
+    /**
+     * Looks up where a user's block is stored.
+     * @param username username to look up
+     * @return {offset, length} of the user's block in bytes; null if the user is not in the file
+     */
+    public synchronized long[] lookup(String username) {
+        if (!bloomFilter.mightContain(username)) {
+            return null;
+        }
+        long[] entry = entries.get(username);
+        return entry == null ? null : entry.clone();
+    }
+
+    /**
+     * Checks whether a user is stored in the data file.
+     * @param username username to check
+     * @return true if the user exists; false otherwise
+     */
+    public synchronized boolean contains(String username) {
+        return bloomFilter.mightContain(username) && entries.containsKey(username);
+    }
+
+    /**
+     * Records a user block that was just appended to the end of the data file.
+     * @param username username of the appended block
+     * @param offset byte offset the block was written at
+     * @param length number of bytes written
+     */
+    public synchronized void recordAppend(String username, long offset, long length) {
+        recordRewrite(Map.of(), Map.of(username, new long[]{offset, length}));
+    }
+
+    /**
+     * Records that a user's block grew or shrank in place, shifting every block stored after it.
+     * @param username username whose block changed size
+     * @param delta change in the block's length in bytes
+     */
+    public synchronized void recordResize(String username, long delta) {
+        recordResizes(Map.of(username, delta));
+    }
+
+    /**
+     * Records that several users' blocks were resized in one rewrite of the data file.
+     * @param deltas change in length in bytes of each rewritten block, keyed by username
+     */
+    public synchronized void recordResizes(Map<String, Long> deltas) {
+        recordRewrite(deltas, Map.of());
+    }
+
+    /**
+     * Records one write of the data file that resized some blocks in place and then appended new ones, checking
+     * the index against the file once for the whole write.
+     * @param deltas change in length in bytes of each rewritten block, keyed by username
+     * @param appends {offset, length} of each appended block in the file as it is now, keyed by username
+     */
+    public synchronized void recordRewrite(Map<String, Long> deltas, Map<String, long[]> appends) {
+        boolean resized = false;
+        for (Map.Entry<String, Long> resize : deltas.entrySet()) {
+            long[] entry = entries.get(resize.getKey());
+            long delta = resize.getValue();
+            if (entry == null || delta == 0) {
+                continue;
+            }
+            // Shifting is order independent: each block moves by the growth of every block stored before it.
+            long offset = entry[0];
+            for (long[] other : entries.values()) {
+                if (other[0] > offset) {
+                    other[0] += delta;
+                }
+            }
+            entry[1] += delta;
+            coveredLength += delta;
+            resized = true;
+        }
+        // Appended blocks come after every resized one, so they are added once the shifts are done.
+        for (Map.Entry<String, long[]> append : appends.entrySet()) {
+            long[] entry = append.getValue();
+            // Like a linear scan, lookups resolve to the first block stored under a username.
+            if (entries.putIfAbsent(append.getKey(), entry.clone()) == null) {
+                addToBloomFilter(append.getKey());
+            }
+            coveredLength = Math.max(coveredLength, entry[0] + entry[1]);
+        }
+        if (validate()) {
+            return; // Rebuilt from the file, which also saved it.
+        }
+        if (resized) {
+            save();
+        } else if (!appends.isEmpty()) {
+            try (BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(
+                    new FileOutputStream(indexFile, true), StandardCharsets.UTF_8))) {
+                for (Map.Entry<String, long[]> append : appends.entrySet()) {
+                    writer.write(append.getKey() + "," + append.getValue()[0] + "," + append.getValue()[1]);
+                    writer.newLine();
+                }
+            } catch (IOException e) {
+                System.out.println("An error occurred while saving the user index.");
+            }
+        }
+    }
+
+    /**
+     * Drops the in-memory and on-disk index and rebuilds both from the data file.
+     */
+    public synchronized void rebuild() {
+        entries.clear();
+        coveredLength = 0;
+        if (dataFile.exists()) {
+            scan();
+        }
+        resetBloomFilter();
+        save();
+    }
+
+    /**
+     * Rebuilds the index if the data file no longer has the length the index accounts for.
+     * @return true if a rebuild was needed
+     */
+    private boolean validate() {
+        if (dataFile.length() != coveredLength) {
+            rebuild();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Reads the persisted index, falling back to a rebuild if it is missing, unreadable or out of date.
+     */
+    private void load() {
+        if (indexFile.exists()) {
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                    new FileInputStream(indexFile), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    // Split from the right so the username is everything before the two numeric fields.
+                    int lengthComma = line.lastIndexOf(',');
+                    int offsetComma = line.lastIndexOf(',', lengthComma - 1);
+                    long offset = Long.parseLong(line.substring(offsetComma + 1, lengthComma));
+                    long length = Long.parseLong(line.substring(lengthComma + 1));
+                    entries.putIfAbsent(line.substring(0, offsetComma), new long[]{offset, length});
+                    coveredLength = Math.max(coveredLength, offset + length);
+                }
+            } catch (IOException | RuntimeException e) {
+                entries.clear();
+                coveredLength = -1; // Force the rebuild below.
+            }
+            resetBloomFilter();
+            validate();
+        } else {
+            rebuild();
+        }
+    }
+
+    /**
+     * Scans the data file once, recording the offset and length of every user block. A block starts at
+     * the first line of the file or the line after a "---" separator, and ends after the next separator.
+     */
+    private void scan() {
+        long size = dataFile.length();
+        if (size <= Integer.MAX_VALUE) {
+            // Map the file and let the parser find block boundaries without decoding any lines.
+            try (FileChannel channel = FileChannel.open(dataFile.toPath(), StandardOpenOption.READ)) {
+                UserDataParser.forEachBlock(channel.map(FileChannel.MapMode.READ_ONLY, 0, size),
+                        (username, offset, length) -> entries.putIfAbsent(username, new long[]{offset, length}));
+                coveredLength = size;
+            } catch (IOException e) {
+                System.out.println("An error occurred while indexing the user data.");
+            }
+            return;
+        }
+        // Files too large for a single mapping are read as a stream instead.
+        try (InputStream in = new BufferedInputStream(new FileInputStream(dataFile))) {
+            ByteArrayOutputStream line = new ByteArrayOutputStream();
+            long position = 0; // Byte position of the next byte to be read.
+            long blockStart = 0; // Byte position where the current block started.
+            String username = null; // Username of the current block, null while looking for a header.
+            int b;
+            do {
+                b = in.read();
+                if (b != -1) {
+                    position++;
+                }
+                if (b != '\n' && b != -1) {
+                    line.write(b);
+                    continue;
+                }
+                String text = line.toString(StandardCharsets.UTF_8);
+                line.reset();
+                if (text.endsWith("\r")) {
+                    text = text.substring(0, text.length() - 1);
+                }
+                if (username == null) {
+                    if (!text.isEmpty()) {
+                        int comma = text.indexOf(',');
+                        username = comma < 0 ? text : text.substring(0, comma);
+                    } else {
+                        blockStart = position; // Skip blank lines between blocks.
+                    }
+                } else if (text.equals("---")) {
+                    entries.putIfAbsent(username, new long[]{blockStart, position - blockStart});
+                    username = null;
+                    blockStart = position;
+                }
+            } while (b != -1);
+            if (username != null) {
+                // A trailing block without a separator still belongs to the index.
+                entries.putIfAbsent(username, new long[]{blockStart, position - blockStart});
+            }
+            coveredLength = position;
+        } catch (IOException e) {
+            System.out.println("An error occurred while indexing the user data.");
+        }
+    }
+
+    /**
+     * Writes the whole index to disk, replacing any previous copy.
+     */
+    private void save() {
+        try (BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(
+                new FileOutputStream(indexFile), StandardCharsets.UTF_8))) {
+            for (Map.Entry<String, long[]> entry : entries.entrySet()) {
+                writer.write(entry.getKey() + "," + entry.getValue()[0] + "," + entry.getValue()[1]);
+                writer.newLine();
+            }
+        } catch (IOException e) {
+            System.out.println("An error occurred while saving the user index.");
+        }
+    }
+
+    private void resetBloomFilter() {
+        bloomCapacity = Math.max(entries.size() * 2, 1024);
+        bloomFilter = new BloomFilter(bloomCapacity);
+        for (String username : entries.keySet()) {
+            bloomFilter.add(username);
+        }
+    }
+
+    private void addToBloomFilter(String username) {
+        if (entries.size() > bloomCapacity) {
+            resetBloomFilter(); // Grow the filter before its false positive rate degrades.
+        } else {
+            bloomFilter.add(username);
+        }
+    }
+}
@@ -0,0 +1,230 @@
+package Finance;
+
+import java.io.*;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Append-only journal of changes made to a user since their block in the data file was last written.
+ * Each user gets their own journal file inside a directory next to the data file
+ * (e.g. userData.txt.journal/alice.log), so recording a change costs one small append no matter how
+ * much data other users have. Records are single lines:
+ * <ul>
+ *     <li>{@code T,<date>,<category>,<amount>,<type>} for a transaction</li>
+ *     <li>{@code R,<category>,<amount>,<frequency>,<type>[,<start date>]} for a recurring transaction</li>
+ *     <li>{@code B,<category>,<limit>} for a budget limit</li>
+ * </ul>
+ */
+public class UserJournal {
+    // Suffix appended to the data file name to get the journal directory.
+    public static final String JOURNAL_SUFFIX = ".journal";
+    // Extension of the per-user journal files.
+    private static final String LOG_EXTENSION = ".log";
+
+    /**
+     * Appends a transaction record to a user's journal
+     * @param user user the transaction belongs to
+     * @param transaction transaction to record
+     * @param fileName data file the journal belongs to
+     */
+    public static void appendTransaction(User user, Transaction transaction, String fileName) {
+        append(user.getUsername(), List.of("T," + transaction), fileName);
+    }
+
+    /**
+     * Appends a batch of transaction records to a user's journal with a single open and flush
+     * @param user user the transactions belong to
+     * @param transactions transactions to record, in order
+     * @param fileName data file the journal belongs to
+     */
+    public static void appendTransactions(User user, List<Transaction> transactions, String fileName) {
+        List<String> records = new ArrayList<>(transactions.size());
+        for (Transaction transaction : transactions) {
+            records.add("T," + transaction);
+        }
+        append(user.getUsername(), records, fileName);
+    }
+
+    /**
+     * Appends a recurring transaction record to a user's journal
+     * @param user user the recurring transaction belongs to
+     * @param recurringTransaction recurring transaction to record
+     * @param fileName data file the journal belongs to
+     */
+    public static void appendRecurringTransaction(User user, RecurringTransaction recurringTransaction, String fileName) {
+        append(user.getUsername(), List.of("R," + recurringTransaction), fileName);
+    }
+
+    /**
+     * Appends a budget limit record to a user's journal
+     * @param user user the budget limit belongs to
+     * @param category category the limit applies to
+     * @param fileName data file the journal belongs to
+     */
+    public static void appendBudgetLimit(User user, String category, String fileName) {
+        append(user.getUsername(), List.of("B," + category + "," + user.getBudgetLimits().get(category)), fileName);
+    }
+
+    /**
+     * Applies every journaled change for a user on top of the state loaded from the data file
+     * @param user user freshly loaded from the data file
+     * @param fileName data file the journal belongs to
+     */
+    public static void replay(User user, String fileName) {
+        replay(user.getUsername(), fileName, 0, user, user::addTransaction);
+    }
+
+    /**
+     * Applies the journaled changes recorded after a point in a user's journal
+     * @param user user whose state already includes the changes before that point
+     * @param fileName data file the journal belongs to
+     * @param fromByte length the journal had at that point
+     */
+    public static void replay(User user, String fileName, long fromByte) {
+        replay(user.getUsername(), fileName, fromByte, user, user::addTransaction);
+    }
+
+    /**
+     * @param username user whose journal to check
+     * @param fileName data file the journal belongs to
+     * @return length of the user's journal in bytes; 0 if there is none
+     */
+    public static long length(String username, String fileName) {
+        return journalFile(username, fileName).length();
+    }
+
+    /**
+     * Applies the journaled recurring transactions and budget limits of a user, leaving out transactions
+     * @param user user whose header was just loaded from the data file
+     * @param fileName data file the journal belongs to
+     */
+    public static void replaySettings(User user, String fileName) {
+        replay(user.getUsername(), fileName, 0, user, null);
+    }
+
+    /**
+     * Reads the journaled transactions of a user, leaving out every other record
+     * @param username user whose journal is read
+     * @param fileName data file the journal belongs to
+     * @return the journaled transactions, in the order they were recorded
+     */
+    public static List<Transaction> readTransactions(String username, String fileName) {
+        List<Transaction> transactions = new ArrayList<>();
+        replay(username, fileName, 0, null, transactions::add);
+        return transactions;
+    }
+
+    /**
+     * Reads a user's journal, handing transactions to one target and other changes to another
+     * @param fromByte offset of the first record to read
+     * @param settings user to apply recurring transactions and budget limits to, or null to skip them
+     * @param transactions receives the journaled transactions, or null to skip them
+     */
+    private static void replay(String username, String fileName, long fromByte, User settings,
+                               Consumer<Transaction> transactions) {
+        File journal = journalFile(username, fileName);
+        if (!journal.exists()) {
+            return;
+        }
+        try (InputStream in = new FileInputStream(journal);
+             BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            in.skipNBytes(fromByte); // Records end with a line break, so this lands at the start of one.
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] data = line.split(",");
+                switch (data[0]) {
+                    case "T" -> {
+                        if (transactions != null) {
+                            transactions.accept(new Transaction(LocalDate.parse(data[1]), data[2], Double.parseDouble(data[3]), data[4]));
+                        }
+                    }
+                    case "R" -> {
+                        if (settings != null) {
+                            settings.addRecurringTransaction(new RecurringTransaction(data[1], Double.parseDouble(data[2]), data[3], data[4],
+                                    data.length > 5 ? LocalDate.parse(data[5]) : null));
+                        }
+                    }
+                    case "B" -> {
+                        if (settings != null) {
+                            settings.getBudgetLimits().putCents(data[1], Money.toMinor(Double.parseDouble(data[2])));
+                        }
+                    }
+                    default -> System.out.println("Skipping unknown journal record for " + username + ".");
+                }
+            }
+        } catch (IOException e) {
+            System.out.println("An error occurred while loading the user journal.");
+        }
+    }
+
+    /**
+     * Checks whether a user has changes that have not been folded into the data file yet
+     * @param username user to check
+     * @param fileName data file the journal belongs to
+     * @return true if the user has a journal; false otherwise
+     */
+    public static boolean exists(String username, String fileName) {
+        return journalFile(username, fileName).exists();
+    }
+
+    /**
+     * Deletes a user's journal once its changes have been written to the data file
+     * @param username user whose journal should be removed
+     * @param fileName data file the journal belongs to
+     */
+    public static void clear(String username, String fileName) {
+        File journal = journalFile(username, fileName);
+        if (journal.exists() && !journal.delete()) {
+            System.out.println("An error occurred while clearing the user journal.");
+        }
+    }
+
+    /**
+     * Lists every user that currently has a journal for the given data file
+     * @param fileName data file the journals belong to
+     * @return usernames with pending journaled changes
+     */
+    public static List<String> journaledUsers(String fileName) {
+        List<String> usernames = new ArrayList<>();
+        File[] journals = journalDirectory(fileName).listFiles((dir, name) -> name.endsWith(LOG_EXTENSION));
+        if (journals != null) {
+            for (File journal : journals) {
+                String name = journal.getName();
+                usernames.add(URLDecoder.decode(name.substring(0, name.length() - LOG_EXTENSION.length()), StandardCharsets.UTF_8));
+            }
+        }
+        return usernames;
+    }
+
+    private static void append(String username, List<String> records, String fileName) {
+        File journal = journalFile(username, fileName);
+        File directory = journal.getParentFile();
+        if (!directory.mkdirs() && !directory.isDirectory()) {
+            System.out.println("An error occurred while saving the user journal.");
+            return;
+        }
+        try (BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(
+                new FileOutputStream(journal, true), StandardCharsets.UTF_8))) {
+            for (String record : records) {
+                writer.write(record);
+                writer.newLine();
+            }
+        } catch (IOException e) {
+            System.out.println("An error occurred while saving the user journal.");
+        }
+    }
+
+    private static File journalDirectory(String fileName) {
+        return new File(fileName + JOURNAL_SUFFIX);
+    }
+
+    private static File journalFile(String username, String fileName) {
+        // Encode the username so any characters it contains are safe to use in a file name.
+        return new File(journalDirectory(fileName), URLEncoder.encode(username, StandardCharsets.UTF_8) + LOG_EXTENSION);
+    }
+}
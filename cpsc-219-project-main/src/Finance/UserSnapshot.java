@@ -0,0 +1,281 @@
+package Finance;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.net.URLEncoder;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Binary snapshot of a user's whole state, so a user with a long history loads by reading one file instead of
+ * parsing their block and replaying their journal. Each user's snapshot lives next to the data file
+ * (e.g. userData.txt.snapshots/alice.snap) and records how long the user's journal and segment were when it was
+ * taken; loading reads the snapshot and replays only the journal records and segment records added since.
+ * <p>
+ * The data file stays the source of truth: a snapshot is dropped whenever the user's block is rewritten, and
+ * one that no longer matches the journal or segment it was taken against is ignored. With
+ * {@link #setInterval(int)} set, a snapshot is taken automatically after that many journaled or segment changes.
+ * <p>
+ * A snapshot holds, after a magic number and version, the journal length and segment record count it covers,
+ * the credentials, the category names, the budget limits, the recurring transactions, the insight totals, and
+ * the transactions as four columns: epoch days, category ids, amounts in cents and an income bit set.
+ * Strings are stored as a length followed by UTF-8 bytes.
+ */
+public class UserSnapshot {
+    // Suffix appended to the data file name to get the snapshot directory.
+    public static final String SNAPSHOT_SUFFIX = ".snapshots";
+    private static final String SNAPSHOT_EXTENSION = ".snap";
+    private static final int MAGIC = 0x4650534E; // "FPSN"
+    private static final int VERSION = 1;
+    private static final long NO_START_DATE = Long.MIN_VALUE;
+
+    // Changes between automatic snapshots, or 0 to only take snapshots when asked.
+    private static int interval = 0;
+    // Changes recorded since the last snapshot, keyed by snapshot file.
+    private static final Map<String, Integer> MUTATIONS = new HashMap<>();
+
+    /**
+     * Turns automatic snapshots on or off. While on, every journaled or segment change to a user counts towards
+     * their next snapshot.
+     * @param mutations changes between snapshots of a user; 0 to turn automatic snapshots off
+     */
+    public static synchronized void setInterval(int mutations) {
+        if (mutations < 0) {
+            throw new IllegalArgumentException("Snapshot interval must not be negative");
+        }
+        interval = mutations;
+        MUTATIONS.clear();
+    }
+
+    /**
+     * @return changes between automatic snapshots of a user; 0 if they are off
+     */
+    public static synchronized int getInterval() {
+        return interval;
+    }
+
+    /**
+     * Counts a change that was just appended to a user's journal or segment, taking a snapshot once enough
+     * have been made.
+     * @param user user in the state the change left them in
+     * @param fileName data file the user is stored in
+     */
+    static void recordMutation(User user, String fileName) {
+        String key = snapshotFile(user.getUsername(), fileName).getPath();
+        synchronized (UserSnapshot.class) {
+            if (interval == 0 || MUTATIONS.merge(key, 1, Integer::sum) < interval) {
+                return;
+            }
+            MUTATIONS.remove(key);
+        }
+        write(user, fileName);
+    }
+
+    /**
+     * Takes a snapshot of a user, replacing their previous one. The user must be in the state their block,
+     * journal and segment describe right now.
+     * @param user user to snapshot
+     * @param fileName data file the user is stored in
+     */
+    public static void write(User user, String fileName) {
+        File file = snapshotFile(user.getUsername(), fileName);
+        if (!file.getParentFile().mkdirs() && !file.getParentFile().isDirectory()) {
+            System.out.println("An error occurred while saving the user snapshot.");
+            return;
+        }
+        File temp = new File(file.getPath() + ".tmp");
+        TransactionStore store = user.getTransactionStore();
+        CategoryDictionary categories = store.getCategories();
+        InsightAggregates insights = user.getInsights();
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(UserJournal.length(user.getUsername(), fileName));
+            out.writeInt(TransactionSegment.count(user.getUsername(), fileName));
+            writeString(out, user.getUsername());
+            writeString(out, user.getPassword());
+            writeString(out, user.getNickname());
+            int categoryCount = categories.size();
+            out.writeInt(categoryCount);
+            for (int id = 0; id < categoryCount; id++) {
+                writeString(out, categories.nameOf(id));
+            }
+            BudgetLimits budgetLimits = user.getBudgetLimits();
+            out.writeInt(budgetLimits.size());
+            for (String category : budgetLimits.keySet()) {
+                out.writeInt(categories.find(category));
+                out.writeLong(budgetLimits.getCents(category, 0));
+            }
+            out.writeInt(user.getRecurringTransactions().size());
+            for (RecurringTransaction recurringTransaction : user.getRecurringTransactions()) {
+                writeString(out, recurringTransaction.getCategory());
+                out.writeLong(recurringTransaction.getAmountCents());
+                writeString(out, recurringTransaction.getFrequency());
+                out.writeBoolean(recurringTransaction.getTransactionType().isIncome());
+                LocalDate startDate = recurringTransaction.getStartDate();
+                out.writeLong(startDate == null ? NO_START_DATE : startDate.toEpochDay());
+            }
+            out.writeLong(insights.getIncomeCents());
+            out.writeLong(insights.getExpenseCents());
+            for (int id = 0; id < categoryCount; id++) {
+                out.writeLong(insights.getCategoryIncomeCents(categories.nameOf(id)));
+                out.writeLong(insights.getCategoryExpenseCents(categories.nameOf(id)));
+            }
+            int rows = store.size();
+            out.writeInt(rows);
+            for (int row = 0; row < rows; row++) {
+                out.writeInt(store.epochDay(row));
+            }
+            for (int row = 0; row < rows; row++) {
+                out.writeInt(store.categoryId(row));
+            }
+            for (int row = 0; row < rows; row++) {
+                out.writeLong(store.amountCents(row));
+            }
+            for (int word = 0; word < (rows + 63) / 64; word++) {
+                long bits = 0;
+                for (int row = word * 64; row < Math.min(rows, word * 64 + 64); row++) {
+                    if (store.isIncome(row)) {
+                        bits |= 1L << row;
+                    }
+                }
+                out.writeLong(bits);
+            }
+        } catch (IOException e) {
+            System.out.println("An error occurred while saving the user snapshot.");
+            temp.delete();
+            return;
+        }
+        try {
+            // Replace the old snapshot in one step, so a load never sees half of one.
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.out.println("An error occurred while saving the user snapshot.");
+            temp.delete();
+        }
+    }
+
+    /**
+     * Loads a user from their snapshot and the changes recorded since it was taken.
+     * @param username user to load
+     * @param fileName data file the user is stored in
+     * @return the user; null if they have no usable snapshot
+     */
+    public static User load(String username, String fileName) {
+        File file = snapshotFile(username, fileName);
+        if (!file.exists()) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                discard(username, fileName);
+                return null;
+            }
+            long journalBytes = buffer.getLong();
+            int segmentRecords = buffer.getInt();
+            // A shorter journal or segment means they were rewritten after the snapshot was taken.
+            if (UserJournal.length(username, fileName) < journalBytes
+                    || TransactionSegment.count(username, fileName) < segmentRecords) {
+                discard(username, fileName);
+                return null;
+            }
+            User user = new User(readString(buffer), readString(buffer), readString(buffer));
+            CategoryDictionary categories = user.getTransactionStore().getCategories();
+            // Map the snapshot's category ids onto the new user's, which start out the same but need not stay so.
+            int[] ids = new int[buffer.getInt()];
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = categories.idOf(readString(buffer));
+            }
+            for (int i = buffer.getInt(); i > 0; i--) {
+                String category = categories.nameOf(ids[buffer.getInt()]);
+                user.getBudgetLimits().putCents(category, buffer.getLong());
+            }
+            for (int i = buffer.getInt(); i > 0; i--) {
+                String category = readString(buffer);
+                long amountCents = buffer.getLong();
+                String frequency = readString(buffer);
+                String type = TransactionType.of(buffer.get() != 0).getLabel();
+                long startDay = buffer.getLong();
+                user.addRecurringTransaction(new RecurringTransaction(category, Money.toDouble(amountCents), frequency,
+                        type, startDay == NO_START_DATE ? null : LocalDate.ofEpochDay(startDay)));
+            }
+            long incomeCents = buffer.getLong();
+            long expenseCents = buffer.getLong();
+            long[] categoryIncomeCents = new long[categories.size()];
+            long[] categoryExpenseCents = new long[categories.size()];
+            for (int id : ids) {
+                categoryIncomeCents[id] = buffer.getLong();
+                categoryExpenseCents[id] = buffer.getLong();
+            }
+            int rows = buffer.getInt();
+            int[] epochDays = new int[rows];
+            int[] categoryIds = new int[rows];
+            long[] amounts = new long[rows];
+            long[] incomeBits = new long[(rows + 63) / 64];
+            // Bulk copies of each column rather than a read per field.
+            buffer.asIntBuffer().get(epochDays);
+            buffer.position(buffer.position() + rows * Integer.BYTES);
+            buffer.asIntBuffer().get(categoryIds);
+            buffer.position(buffer.position() + rows * Integer.BYTES);
+            buffer.asLongBuffer().get(amounts);
+            buffer.position(buffer.position() + rows * Long.BYTES);
+            buffer.asLongBuffer().get(incomeBits);
+            for (int row = 0; row < rows; row++) {
+                user.restoreRow(epochDays[row], amounts[row], ids[categoryIds[row]], (incomeBits[row >>> 6] & 1L << row) != 0);
+            }
+            user.restoreInsights(incomeCents, expenseCents, categoryIncomeCents, categoryExpenseCents);
+            // The deltas: segment records and journal records added since the snapshot.
+            for (Transaction transaction : TransactionSegment.read(username, fileName, segmentRecords)) {
+                user.addTransaction(transaction);
+            }
+            UserJournal.replay(user, fileName, journalBytes);
+            return user;
+        } catch (IOException | RuntimeException e) {
+            System.out.println("An error occurred while loading the user snapshot.");
+            return null;
+        }
+    }
+
+    /**
+     * Deletes a user's snapshot once their block has been rewritten.
+     * @param username user whose snapshot should be removed
+     * @param fileName data file the snapshot belongs to
+     */
+    public static void discard(String username, String fileName) {
+        File file = snapshotFile(username, fileName);
+        synchronized (UserSnapshot.class) {
+            MUTATIONS.remove(file.getPath());
+        }
+        if (file.exists() && !file.delete()) {
+            System.out.println("An error occurred while clearing the user snapshot.");
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static File snapshotFile(String username, String fileName) {
+        // Encode the username so any characters it contains are safe to use in a file name.
+        return new File(fileName + SNAPSHOT_SUFFIX, URLEncoder.encode(username, StandardCharsets.UTF_8) + SNAPSHOT_EXTENSION);
+    }
+}
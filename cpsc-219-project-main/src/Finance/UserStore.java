@@ -0,0 +1,267 @@
+package Finance;
+
+import java.io.File;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+/**
+ * Thread-safe access to the users in one data file, for callers that serve several sessions at once.
+ * <p>
+ * Locking is two-level. A file lock is held shared by every per-user operation and exclusively by operations
+ * that rewrite or append to the data file itself (registering, rewriting a user, compaction). Per-user
+ * operations additionally lock one of a fixed set of stripes chosen by username: shared to load a user,
+ * exclusive to change one. Changes to a registered user are appended to that user's own journal or binary
+ * segment rather than rewriting the data file, so sessions working on different users run in parallel, and
+ * two sessions changing the same user never overwrite each other's changes.
+ * <p>
+ * The static FileManager methods are not synchronized; callers sharing a data file between threads should go
+ * through its UserStore only. Locks are per process and do not guard against other processes.
+ */
+public class UserStore {
+    private static final int STRIPES = 64; // Number of per-user locks; a power of two.
+    // One store per data file, shared by every caller in this process.
+    private static final Map<String, UserStore> OPEN_STORES = new HashMap<>();
+
+    private final String fileName; // Data file the users are stored in.
+    private final ReadWriteLock fileLock = new ReentrantReadWriteLock();
+    private final ReadWriteLock[] userLocks = new ReadWriteLock[STRIPES];
+
+    private UserStore(String fileName) {
+        this.fileName = fileName;
+        for (int i = 0; i < STRIPES; i++) {
+            userLocks[i] = new ReentrantReadWriteLock();
+        }
+    }
+
+    /**
+     * Returns the store for a data file. Every call for the same file returns the same store, so all callers
+     * share its locks.
+     * @param fileName data file the users are stored in
+     * @return the store for that file
+     */
+    public static synchronized UserStore forFile(String fileName) {
+        return OPEN_STORES.computeIfAbsent(new File(fileName).getAbsolutePath(), path -> new UserStore(fileName));
+    }
+
+    /**
+     * @return the store for the default data file
+     */
+    public static UserStore forDefaultFile() {
+        return forFile(FileManager.FILE_NAME);
+    }
+
+    /**
+     * Loads a user, including any changes recorded since the user's block was written.
+     * @param username user to load
+     * @return the user; null if not found
+     */
+    public User load(String username) {
+        Lock userLock = userLock(username).readLock();
+        fileLock.readLock().lock();
+        userLock.lock();
+        try {
+            return FileManager.loadUser(username, fileName);
+        } finally {
+            userLock.unlock();
+            fileLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Runs a read-only action on a user while no change to that user can happen, e.g. to build a report from a
+     * user object that other sessions may be adding to.
+     * @param user user to read
+     * @param action action to run
+     * @return what the action returns
+     */
+    public <T> T read(User user, Function<User, T> action) {
+        Lock userLock = userLock(user.getUsername()).readLock();
+        // The action may be the first to need the user's transactions, which are then read from the file.
+        fileLock.readLock().lock();
+        userLock.lock();
+        try {
+            return action.apply(user);
+        } finally {
+            userLock.unlock();
+            fileLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @param username username to check
+     * @return true if a user with this username is stored
+     */
+    public boolean exists(String username) {
+        fileLock.readLock().lock();
+        try {
+            return FileManager.checkExists(username, fileName);
+        } finally {
+            fileLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Saves a new user unless the username is already taken. Checking and saving happen atomically, so two
+     * sessions cannot both claim the same username.
+     * @param user user to save
+     * @return true if the user was saved; false if the username was taken
+     */
+    public boolean register(User user) {
+        fileLock.writeLock().lock();
+        try {
+            if (new File(fileName).exists() && FileManager.checkExists(user.getUsername(), fileName)) {
+                return false;
+            }
+            FileManager.saveUser(user, fileName);
+            return true;
+        } finally {
+            fileLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Adds a transaction to a user and records it for that user only.
+     * @param user user to add the transaction to
+     * @param transaction transaction to add
+     * @return true if the transaction was added; false if the user's duplicate policy rejected it
+     */
+    public boolean addTransaction(User user, Transaction transaction) {
+        return addTransactions(user, List.of(transaction)) == 1;
+    }
+
+    /**
+     * Adds transactions to a user and records them for that user with a single append.
+     * @param user user to add the transactions to
+     * @param transactions transactions to add, in order
+     * @return number of transactions added; lower than the number given if the duplicate policy rejected some
+     */
+    public int addTransactions(User user, List<Transaction> transactions) {
+        Lock userLock = userLock(user.getUsername()).writeLock();
+        fileLock.readLock().lock();
+        userLock.lock();
+        try {
+            List<Transaction> added = transactions.stream().filter(user::addTransaction).toList();
+            if (added.isEmpty()) {
+                return 0;
+            }
+            if (TransactionSegment.exists(user.getUsername(), fileName)) {
+                TransactionSegment.append(user.getUsername(), added, fileName);
+            } else {
+                UserJournal.appendTransactions(user, added, fileName);
+            }
+            UserSnapshot.recordMutation(user, fileName);
+            UserCache.written(fileName, user);
+            return added.size();
+        } finally {
+            userLock.unlock();
+            fileLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Adds a recurring transaction to a user and records it for that user only.
+     * @param user user to add the recurring transaction to
+     * @param recurringTransaction recurring transaction to add
+     */
+    public void addRecurringTransaction(User user, RecurringTransaction recurringTransaction) {
+        Lock userLock = userLock(user.getUsername()).writeLock();
+        fileLock.readLock().lock();
+        userLock.lock();
+        try {
+            user.addRecurringTransaction(recurringTransaction);
+            UserJournal.appendRecurringTransaction(user, recurringTransaction, fileName);
+            UserSnapshot.recordMutation(user, fileName);
+            UserCache.written(fileName, user);
+        } finally {
+            userLock.unlock();
+            fileLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Sets a user's budget limit for a category and records it for that user only.
+     * @param user user whose budget changes
+     * @param category category the limit applies to
+     * @param limit monthly limit for the category
+     */
+    public void setBudgetLimit(User user, String category, double limit) {
+        Lock userLock = userLock(user.getUsername()).writeLock();
+        fileLock.readLock().lock();
+        userLock.lock();
+        try {
+            user.getBudgetLimits().put(category, limit);
+            UserJournal.appendBudgetLimit(user, category, fileName);
+            UserSnapshot.recordMutation(user, fileName);
+            UserCache.written(fileName, user);
+        } finally {
+            userLock.unlock();
+            fileLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Replaces a user's stored block with their current in-memory state. This rewrites the data file, so it
+     * waits for every other operation on the file.
+     * @param user user to write
+     */
+    public void update(User user) {
+        fileLock.writeLock().lock();
+        try {
+            FileManager.rewriteUsers(List.of(user), fileName);
+        } finally {
+            fileLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Writes users' current blocks in one rewrite of the data file, waiting for every other operation on the file.
+     * The blocks are serialized only once the write lock is held, so no journaled change can slip in between
+     * serializing a user and clearing their journal.
+     * @param users users to write
+     * @param force true to flush the file to the storage device before returning
+     * @return true if every block was written
+     */
+    boolean commit(Collection<User> users, boolean force) {
+        fileLock.writeLock().lock();
+        try {
+            Map<String, byte[]> blocks = new LinkedHashMap<>();
+            for (User user : users) {
+                blocks.put(user.getUsername(), FileManager.snapshotBlock(user, fileName));
+            }
+            return FileManager.rewriteBlocks(blocks, fileName, force);
+        } finally {
+            fileLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Folds every user's journal back into the data file, waiting for every other operation on the file.
+     */
+    public void compact() {
+        fileLock.writeLock().lock();
+        try {
+            FileManager.compactJournal(fileName);
+        } finally {
+            fileLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return the data file this store manages
+     */
+    public String getFileName() {
+        return fileName;
+    }
+
+    private ReadWriteLock userLock(String username) {
+        int h = username.hashCode();
+        return userLocks[(h ^ (h >>> 16)) & (STRIPES - 1)];
+    }
+}
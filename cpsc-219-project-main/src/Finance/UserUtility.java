@@ -42,13 +42,15 @@ public class UserUtility {
      */
     public static User createNewUser() {
         String username;
+        boolean taken;
         do {
             System.out.print("Choose a username: "); // Prompt for username.
             username = scanner.nextLine(); // Capture the input username.
-            if (FileManager.checkExists(username)) { // Check for username uniqueness.
+            taken = FileManager.checkExists(username); // Check for username uniqueness once per attempt.
+            if (taken) {
                 System.out.println("Username is taken. Please try a different one."); // Notify if username is taken.
             }
-        } while (FileManager.checkExists(username)); // Loop until a unique username is provided.
+        } while (taken); // Loop until a unique username is provided.
 
         String password;
         do {
@@ -74,7 +76,7 @@ public class UserUtility {
      * @param password The password to check.
      * @return true if the password is considered strong; false otherwise.
      */
-    private static boolean isPasswordStrong(String password) {
+    static boolean isPasswordStrong(String password) {
         boolean hasLetter = false;
         boolean hasDigit = false;
         boolean hasSpecial = false;
@@ -103,16 +105,20 @@ public class UserUtility {
      * @return The multiplier to apply to the transaction amount for monthly projection.
      */
     public static double calculateFrequencyMultiplier(String frequency) {
-        return switch (frequency.toLowerCase()) {
-            case "daily" -> 30; // Approximate days in a month
-            case "weekly" -> 4.3; // Approximate weeks in a month
-            case "bi-weekly" -> 2.15; // Twice a month
-            case "monthly" -> 1; // Once a month
-            default -> {
-                System.out.println("Unknown frequency. Defaulting to monthly.");
-                yield 1;
-            }
-        };
+        return calculateFrequencyMultiplier(Frequency.parse(frequency));
+    }
+
+    /**
+     * Calculates the multiplier to project expenses or income over a month based on an already parsed frequency.
+     * @param frequency The parsed frequency; null if the frequency was not recognized.
+     * @return The multiplier to apply to the transaction amount for monthly projection.
+     */
+    public static double calculateFrequencyMultiplier(Frequency frequency) {
+        if (frequency == null) {
+            System.out.println("Unknown frequency. Defaulting to monthly.");
+            return 1;
+        }
+        return frequency.getMonthlyMultiplier();
     }
 
     /**
@@ -0,0 +1,231 @@
+package Finance;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Write-behind persistence for one data file. Instead of rewriting the file on every change, callers submit
+ * changed users; a background thread collects them and writes each batch with one rewrite of the file and a
+ * single sync to disk. Several changes to the same user before a flush are coalesced into one write of their
+ * latest state, so sustained throughput grows with the batch size rather than the number of syncs.
+ * <p>
+ * A user is queued as an object and only serialized when its batch is written, while the file's write lock is
+ * held. The block written therefore includes every change journaled since the submit, so clearing the user's
+ * journal afterwards loses nothing. A batch is flushed once its oldest change has waited for the maximum delay, once it holds the maximum batch
+ * size, or when {@link #flush()} or {@link #close()} is called. With durable-on-return, {@link #submit} only
+ * returns once the user's batch is on disk.
+ */
+public class WriteBehindQueue implements AutoCloseable {
+    private final UserStore store; // Store whose file lock guards each rewrite.
+    private final long maxDelayNanos; // Longest a change may wait before its batch is flushed.
+    private final int maxBatchSize; // Number of distinct users that triggers an immediate flush.
+    private final boolean durableOnReturn; // Whether submit waits for the change to be on disk.
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+    private final Thread flusher;
+
+    // Everything below is guarded by lock.
+    private Map<String, User> pending = new LinkedHashMap<>(); // Dirty users by username, in submit order.
+    private CompletableFuture<Void> pendingCommit = new CompletableFuture<>(); // Completes when pending is on disk.
+    private CompletableFuture<Void> lastCommit = CompletableFuture.completedFuture(null); // Most recent batch taken.
+    private long oldestPendingAt; // System.nanoTime() of the oldest pending change.
+    private boolean flushRequested;
+    private boolean closed;
+    private long submissions; // Changes submitted so far.
+    private long batches; // Batches written so far.
+    private long usersWritten; // User blocks written so far, after coalescing.
+
+    /**
+     * Creates a queue and starts its flusher thread.
+     * @param fileName data file the users are stored in
+     * @param maxDelayMillis longest a change may wait before it is written
+     * @param maxBatchSize number of distinct dirty users that triggers a flush without waiting
+     * @param durableOnReturn true to make {@link #submit} wait until the change is on disk
+     */
+    public WriteBehindQueue(String fileName, long maxDelayMillis, int maxBatchSize, boolean durableOnReturn) {
+        if (maxDelayMillis < 0 || maxBatchSize < 1) {
+            throw new IllegalArgumentException("Delay must not be negative and batches must hold at least one user");
+        }
+        this.store = UserStore.forFile(fileName);
+        this.maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(maxDelayMillis);
+        this.maxBatchSize = maxBatchSize;
+        this.durableOnReturn = durableOnReturn;
+        this.flusher = new Thread(this::run, "FinPal write-behind " + fileName);
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    /**
+     * Queues a user's current state to be written.
+     * @param user user that changed
+     * @return a future that completes once the state is on disk; already complete if durable-on-return is set
+     * @throws IllegalStateException if the queue is closed
+     */
+    public CompletableFuture<Void> submit(User user) {
+        UserCache.written(store.getFileName(), user);
+        CompletableFuture<Void> commit;
+        lock.lock();
+        try {
+            if (closed) {
+                throw new IllegalStateException("Write-behind queue is closed");
+            }
+            if (pending.isEmpty()) {
+                oldestPendingAt = System.nanoTime();
+            }
+            pending.put(user.getUsername(), user); // Replaces any older instance of the same user.
+            submissions++;
+            commit = pendingCommit;
+            changed.signal();
+        } finally {
+            lock.unlock();
+        }
+        if (durableOnReturn) {
+            commit.join();
+        }
+        return commit;
+    }
+
+    /**
+     * Writes every queued change now and waits until it is on disk.
+     */
+    public void flush() {
+        CompletableFuture<Void> commit;
+        lock.lock();
+        try {
+            if (pending.isEmpty()) {
+                commit = lastCommit;
+            } else {
+                flushRequested = true;
+                commit = pendingCommit;
+                changed.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+        commit.join();
+    }
+
+    /**
+     * @return true if submit waits until the change is on disk
+     */
+    public boolean isDurableOnReturn() {
+        return durableOnReturn;
+    }
+
+    /**
+     * @return the data file this queue writes to
+     */
+    public String getFileName() {
+        return store.getFileName();
+    }
+
+    /**
+     * @return number of changes submitted so far
+     */
+    public long getSubmissions() {
+        lock.lock();
+        try {
+            return submissions;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return number of batches written so far; each cost one rewrite and one sync
+     */
+    public long getBatches() {
+        lock.lock();
+        try {
+            return batches;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return number of user blocks written so far, after coalescing repeated changes
+     */
+    public long getUsersWritten() {
+        lock.lock();
+        try {
+            return usersWritten;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Writes every queued change, then stops the flusher thread. Later submissions are refused.
+     */
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            closed = true;
+            changed.signal();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            flusher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        while (true) {
+            Map<String, User> batch;
+            CompletableFuture<Void> commit;
+            lock.lock();
+            try {
+                while (!readyToFlush()) {
+                    if (closed) {
+                        return; // Closed with nothing left to write.
+                    }
+                    if (pending.isEmpty()) {
+                        changed.awaitUninterruptibly();
+                    } else {
+                        long wait = maxDelayNanos - (System.nanoTime() - oldestPendingAt);
+                        try {
+                            changed.awaitNanos(wait);
+                        } catch (InterruptedException e) {
+                            // The flusher is only stopped through close; keep going.
+                        }
+                    }
+                }
+                batch = pending;
+                commit = pendingCommit;
+                pending = new LinkedHashMap<>();
+                pendingCommit = new CompletableFuture<>();
+                lastCommit = commit;
+                flushRequested = false;
+                batches++;
+                usersWritten += batch.size();
+            } finally {
+                lock.unlock();
+            }
+            try {
+                if (store.commit(batch.values(), true)) {
+                    commit.complete(null);
+                } else {
+                    commit.completeExceptionally(new UncheckedIOException(new IOException("Could not write " + store.getFileName())));
+                }
+            } catch (RuntimeException e) {
+                commit.completeExceptionally(e);
+            }
+        }
+    }
+
+    private boolean readyToFlush() {
+        return !pending.isEmpty() && (closed || flushRequested || pending.size() >= maxBatchSize
+                || System.nanoTime() - oldestPendingAt >= maxDelayNanos);
+    }
+}
@@ -0,0 +1,88 @@
+package Finance;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchReportJobTest {
+    @TempDir
+    Path tempdir;
+
+    // Tests
+    @Test
+    void run_1() throws IOException {
+        // Arrange
+        String fileName = tempdir.resolve("data.txt").toString();
+        User saver = new User("saver", "p", "n");
+        saver.addTransaction(new Transaction(LocalDate.of(2024, 1, 1), "Salary", 1000, "Income"));
+        saver.addTransaction(new Transaction(LocalDate.of(2024, 1, 2), "Food", 150.5, "Expense"));
+        saver.getBudgetLimits().put("Food", 200.0);
+        User spender = new User("spender", "p", "n");
+        spender.addTransaction(new Transaction(LocalDate.of(2024, 1, 3), "Food", 900, "Expense")); // Not this month.
+        spender.addTransaction(new Transaction(LocalDate.now().withDayOfMonth(1), "Food", 420, "Expense"));
+        spender.getBudgetLimits().put("Food", 400.0);
+        spender.getBudgetLimits().put("Rent", 1200.0);
+        FileManager.saveUser(saver, fileName);
+        FileManager.saveUser(spender, fileName);
+        StringWriter out = new StringWriter();
+        // Act
+        BatchReportJob.Result result = new BatchReportJob(fileName, new ForkJoinPool(2)).run(out);
+        // Assert
+        String[] lines = out.toString().split(System.lineSeparator());
+        assertArrayEquals(new String[]{
+                "username,income,expenses,net,overBudget",
+                "saver,1000.0,150.5,849.5,",
+                "spender,0.0,1320.0,-1320.0,Food:420.0/400.0"}, lines);
+        assertEquals(2, result.getUsers());
+        assertEquals(1, result.getUsersOverBudget());
+        assertEquals(0, result.getErrors());
+    }
+
+    @Test
+    void run_2() throws IOException {
+        // Arrange
+        String fileName = tempdir.resolve("data.txt").toString();
+        User user = new User("u", "p", "n");
+        FileManager.saveUser(user, fileName);
+        UserJournal.appendTransaction(user, new Transaction(LocalDate.of(2024, 1, 1), "Salary", 50, "Income"), fileName);
+        Path output = tempdir.resolve("report.csv");
+        // Act
+        BatchReportJob.Result result = new BatchReportJob(fileName).run(output);
+        // Assert
+        assertEquals(1, result.getUsers());
+        assertTrue(Files.readString(output).contains("u,50.0,0.0,50.0,"));
+    }
+
+    @Test
+    void run_3() throws IOException {
+        // Arrange
+        String fileName = tempdir.resolve("data.txt").toString();
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < 30000; i++) {
+            User user = new User("user" + i, "p", "n");
+            user.addTransaction(new Transaction(LocalDate.of(2024, 1, 1), "Food", i, "Expense"));
+            users.add(user);
+        }
+        FileManager.rewriteUsers(users, fileName); // Over 1 MB, so the file is cut into several regions.
+        StringWriter out = new StringWriter();
+        // Act
+        BatchReportJob.Result result = new BatchReportJob(fileName, new ForkJoinPool(2)).run(out);
+        // Assert
+        String[] lines = out.toString().split(System.lineSeparator());
+        assertEquals(30000, result.getUsers());
+        assertEquals(0, result.getErrors());
+        assertEquals(30001, lines.length);
+        assertEquals("user0,0.0,0.0,0.0,", lines[1]);
+        assertEquals("user29999,0.0,29999.0,-29999.0,", lines[30000]);
+    }
+}
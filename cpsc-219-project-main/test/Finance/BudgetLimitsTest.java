@@ -0,0 +1,57 @@
+package Finance;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BudgetLimitsTest {
+    // Tests
+    @Test
+    void put_1() {
+        // Arrange
+        BudgetLimits limits = new BudgetLimits(new CategoryDictionary());
+        LinkedHashMap<String, Double> desired = new LinkedHashMap<>();
+        desired.put("Rent", 900.0);
+        desired.put("Food", 250.5);
+        // Act
+        limits.put("Rent", 800.0);
+        limits.put("Food", 250.5);
+        Double previous = limits.put("Rent", 900.0);
+        // Assert
+        assertEquals(Double.valueOf(800.0), previous);
+        assertEquals(desired, limits);
+        assertEquals(List.of("Rent", "Food"), List.copyOf(limits.keySet()));
+        assertEquals("Food", limits.lastCategory());
+        assertEquals(25_050, limits.getCents("Food", -1));
+        assertEquals(-1, limits.getCents("Travel", -1));
+        assertNull(limits.get("Travel"));
+    }
+
+    @Test
+    void remove_1() {
+        // Arrange
+        CategoryDictionary categories = new CategoryDictionary();
+        for (int i = 0; i < 30; i++) {
+            categories.idOf("Category" + i);
+        }
+        BudgetLimits limits = new BudgetLimits(categories);
+        for (int i = 0; i < 30; i += 3) {
+            limits.put("Category" + i, (double) i);
+        }
+        // Act
+        limits.remove("Category9");
+        limits.entrySet().removeIf(entry -> entry.getValue() > 20);
+        for (Map.Entry<String, Double> entry : limits.entrySet()) {
+            entry.setValue(entry.getValue() + 1);
+        }
+        // Assert
+        assertEquals(Map.of("Category0", 1.0, "Category3", 4.0, "Category6", 7.0, "Category12", 13.0,
+                "Category15", 16.0, "Category18", 19.0), limits);
+        assertFalse(limits.containsKey("Category9"));
+        assertEquals("Category18", limits.lastCategory());
+    }
+}
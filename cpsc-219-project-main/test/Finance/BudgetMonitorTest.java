@@ -0,0 +1,103 @@
+package Finance;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BudgetMonitorTest {
+    // A clock fixed at the start of the given day
+    private static Clock clockAt(LocalDate date) {
+        return Clock.fixed(Instant.ofEpochSecond(date.toEpochDay() * 86400), ZoneOffset.UTC);
+    }
+
+    // Tests
+    @Test
+    void recordExpense_1() {
+        // Arrange
+        LinkedHashMap<String, Double> limits = new LinkedHashMap<>();
+        limits.put("Food", 100.0);
+        LocalDate today = LocalDate.of(2024, 5, 20);
+        BudgetMonitor monitor = new BudgetMonitor(limits, clockAt(today), 30);
+        List<String> fired = new ArrayList<>();
+        monitor.addListener((category, level, spent, limit) -> fired.add(category + ":" + level + ":" + spent));
+        int day = (int) today.toEpochDay();
+        // Act
+        monitor.recordExpense(day, "Food", 5000);
+        monitor.recordExpense(day, "Food", 3000);
+        monitor.recordExpense(day, "Food", 2000);
+        monitor.recordExpense(day, "Food", 100);
+        monitor.recordExpense(day, "Food", 100);
+        // Assert
+        assertEquals(List.of("Food:WARNING:80.0", "Food:REACHED:100.0", "Food:EXCEEDED:101.0"), fired);
+        assertEquals(BudgetMonitor.Level.EXCEEDED, monitor.getLevel("Food"));
+    }
+
+    @Test
+    void recordExpense_2() {
+        // Arrange
+        LinkedHashMap<String, Double> limits = new LinkedHashMap<>();
+        LocalDate today = LocalDate.of(2024, 5, 3);
+        BudgetMonitor monitor = new BudgetMonitor(limits, clockAt(today), 7);
+        // Act
+        monitor.recordExpense((int) LocalDate.of(2024, 4, 30).toEpochDay(), "Rent", 1000);
+        monitor.recordExpense((int) LocalDate.of(2024, 5, 1).toEpochDay(), "Rent", 200);
+        monitor.recordExpense((int) LocalDate.of(2024, 4, 1).toEpochDay(), "Rent", 5000);
+        // Assert
+        assertEquals(200, monitor.getMonthlySpentCents("Rent"));
+        assertEquals(1200, monitor.getRollingSpentCents("Rent"));
+    }
+
+    @Test
+    void getRollingSpentCents_1() {
+        // Arrange
+        LinkedHashMap<String, Double> limits = new LinkedHashMap<>();
+        LocalDate start = LocalDate.of(2024, 5, 1);
+        Clock[] clock = {clockAt(start)};
+        Clock moving = new Clock() {
+            public ZoneOffset getZone() { return ZoneOffset.UTC; }
+            public Clock withZone(java.time.ZoneId zone) { return this; }
+            public Instant instant() { return clock[0].instant(); }
+        };
+        BudgetMonitor monitor = new BudgetMonitor(limits, moving, 3);
+        monitor.recordExpense((int) start.toEpochDay(), "Food", 100);
+        clock[0] = clockAt(start.plusDays(1));
+        monitor.recordExpense((int) start.plusDays(1).toEpochDay(), "Food", 200);
+        // Act
+        clock[0] = clockAt(start.plusDays(3));
+        long rolling = monitor.getRollingSpentCents("Food");
+        // Assert
+        assertEquals(200, rolling);
+        assertEquals(300, monitor.getMonthlySpentCents("Food"));
+    }
+
+    @Test
+    void recordExpense_3() {
+        // Arrange
+        LinkedHashMap<String, Double> limits = new LinkedHashMap<>();
+        limits.put("Rent", 10.0);
+        CategoryDictionary categories = new CategoryDictionary();
+        for (int i = 0; i < 40; i++) {
+            categories.idOf("Category" + i);
+        }
+        LocalDate today = LocalDate.of(2024, 5, 20);
+        BudgetMonitor monitor = new BudgetMonitor(limits, categories, clockAt(today), 30);
+        List<String> fired = new ArrayList<>();
+        monitor.addListener((category, level, spent, limit) -> fired.add(category + ":" + level));
+        // Act
+        monitor.recordExpense((int) today.toEpochDay(), categories.idOf("Rent"), 1500);
+        monitor.recordExpense((int) today.toEpochDay(), "Category3", 700);
+        // Assert
+        assertEquals(List.of("Rent:EXCEEDED"), fired);
+        assertEquals(1500, monitor.getMonthlySpentCents("Rent"));
+        assertEquals(700, monitor.getRollingSpentCents("Category3"));
+        assertEquals(0, monitor.getMonthlySpentCents("Travel"));
+    }
+}
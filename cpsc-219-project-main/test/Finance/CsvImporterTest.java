@@ -0,0 +1,110 @@
+package Finance;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CsvImporterTest {
+    @TempDir
+    Path tempdir;
+
+    // Tests
+    @Test
+    void parse_1() throws IOException {
+        // Arrange
+        Path csv = tempdir.resolve("export.csv");
+        Files.writeString(csv, "Date,Description,Amount\r\n"
+                + "2024-01-05,\"Groceries, weekly\",-54.20\r\n"
+                + "2024-01-06,Salary,\"$1,500.00\"\r\n"
+                + "2024-01-07,Refund,(3.50)\r\n");
+        CsvImporter importer = new CsvImporter(new CsvImporter.ColumnMapping(0, 1, 2, -1));
+        // Act
+        CsvImporter.ImportResult result = importer.parse(csv);
+        // Assert
+        assertEquals(List.of(
+                new Transaction(LocalDate.of(2024, 1, 6), "Salary", 1500, "Income"),
+                new Transaction(LocalDate.of(2024, 1, 7), "Refund", 3.5, "Expense")), result.getTransactions());
+        assertEquals(List.of("Line 2: category \"Groceries, weekly\" cannot contain commas or line breaks"), result.getErrors());
+    }
+
+    @Test
+    void parse_2() throws IOException {
+        // Arrange
+        Path csv = tempdir.resolve("export.csv");
+        Files.writeString(csv, "05/01/2024;Debit;Food;12.00\n"
+                + "06/01/2024;Credit;Pay;abc\n"
+                + "07/01/2024;Refund;Food;1.00\n"
+                + "08/01/2024;DR;;4.00\n");
+        CsvImporter importer = new CsvImporter(new CsvImporter.ColumnMapping(0, 2, 3, 1)
+                .withDelimiter(';').withHeader(false).withDateFormat("dd/MM/yyyy"));
+        // Act
+        CsvImporter.ImportResult result = importer.parse(csv);
+        // Assert
+        assertEquals(List.of(
+                new Transaction(LocalDate.of(2024, 1, 5), "Food", 12, "Expense"),
+                new Transaction(LocalDate.of(2024, 1, 8), "Other", 4, "Expense")), result.getTransactions());
+        assertEquals(List.of("Line 2: invalid amount \"abc\"", "Line 3: unknown transaction type \"Refund\""), result.getErrors());
+    }
+
+    @Test
+    void parse_3() throws IOException {
+        // Arrange
+        Path csv = tempdir.resolve("large.csv");
+        StringBuilder content = new StringBuilder("date,category,amount\n");
+        for (int i = 0; i < 50000; i++) {
+            content.append(LocalDate.of(2020, 1, 1).plusDays(i % 1500)).append(",Food,").append(i % 2 == 0 ? "-" : "").append(i).append(".25\n");
+        }
+        Files.writeString(csv, content);
+        CsvImporter importer = new CsvImporter(new CsvImporter.ColumnMapping(0, 1, 2, -1));
+        // Act
+        CsvImporter.ImportResult result = importer.parse(csv);
+        // Assert
+        assertEquals(50000, result.getTransactions().size());
+        for (int i = 0; i < 50000; i++) {
+            assertEquals(i + 0.25, result.getTransactions().get(i).getAmount());
+        }
+    }
+
+    @Test
+    void importInto_1() throws IOException {
+        // Arrange
+        Path csv = tempdir.resolve("export.csv");
+        Files.writeString(csv, "date,category,amount\n2024-01-05,Food,-10\n2024-01-05,Food,-10\n2024-01-06,Rent,-800\n");
+        String fileName = tempdir.resolve("data.txt").toString();
+        User user = new User("u", "p", "n");
+        user.addTransaction(new Transaction(LocalDate.of(2024, 1, 6), "Rent", 800, "Expense"));
+        FileManager.saveUser(user, fileName);
+        CsvImporter importer = new CsvImporter(new CsvImporter.ColumnMapping(0, 1, 2, -1));
+        // Act
+        CsvImporter.ImportResult result = importer.importInto(user, csv, fileName);
+        // Assert
+        assertEquals(2, result.getTransactions().size());
+        assertEquals(1, result.getDuplicates());
+        assertEquals(3, FileManager.loadUser("u", fileName).getTransactions().size());
+    }
+
+    @Test
+    void importInto_2() throws IOException {
+        // Arrange
+        Path csv = tempdir.resolve("export.csv");
+        Files.writeString(csv, "date,category,amount\n2024-01-05,\"Groceries, weekly\",-54.20\n2024-01-06,\"Rent\",-800\n");
+        String fileName = tempdir.resolve("data.txt").toString();
+        User user = new User("u", "p", "n");
+        FileManager.saveUser(user, fileName);
+        CsvImporter importer = new CsvImporter(new CsvImporter.ColumnMapping(0, 1, 2, -1));
+        // Act
+        CsvImporter.ImportResult result = importer.importInto(user, csv, fileName);
+        FileManager.saveUser(user, fileName);
+        User reloaded = FileManager.loadUser("u", fileName);
+        // Assert
+        assertEquals(1, result.getErrors().size());
+        assertEquals(List.of(new Transaction(LocalDate.of(2024, 1, 6), "Rent", 800, "Expense")), reloaded.getTransactions());
+    }
+}
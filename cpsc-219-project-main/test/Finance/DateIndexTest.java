@@ -0,0 +1,136 @@
+package Finance;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DateIndexTest {
+    private static final String[] CATEGORIES = {"Food", "Rent", "Pay-cheque"};
+
+    // Sums the user's transactions between two dates, inclusive, by scanning them
+    private static long scanCents(User user, LocalDate from, LocalDate to, String category, boolean income) {
+        long total = 0;
+        for (Transaction transaction : user.getTransactions()) {
+            if (!transaction.getDate().isBefore(from) && !transaction.getDate().isAfter(to)
+                    && (category == null || transaction.getCategory().equals(category))
+                    && transaction.getType().equals(income ? "Income" : "Expense")) {
+                total += Math.round(transaction.getAmount() * 100);
+            }
+        }
+        return total;
+    }
+
+    // Records a random transaction within a year of the given day
+    private static void addRandom(User user, Random random, LocalDate around) {
+        user.addTransaction(new Transaction(around.plusDays(random.nextInt(730) - 365),
+                CATEGORIES[random.nextInt(CATEGORIES.length)], 1 + random.nextInt(50_000) / 100.0,
+                random.nextBoolean() ? "Income" : "Expense"));
+    }
+
+    // Tests
+    @Test
+    void sumCents_1() {
+        // Arrange
+        User user = new User("u", "p", "n");
+        user.addTransaction(new Transaction(LocalDate.of(2024, 1, 1), "Pay-cheque", 1000, "Income"));
+        user.addTransaction(new Transaction(LocalDate.of(2024, 1, 15), "Rent", 600, "Expense"));
+        user.addTransaction(new Transaction(LocalDate.of(2024, 2, 1), "Food", 45.5, "Expense"));
+        DateIndex index = user.getDateIndex();
+        // Act
+        long january = index.sumCents(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 31), false);
+        long food = index.sumCents(null, null, "Food", false);
+        long balance = index.balanceCents(LocalDate.of(2024, 1, 31));
+        // Assert
+        assertEquals(60_000, january);
+        assertEquals(4_550, food);
+        assertEquals(40_000, balance);
+        assertEquals(0, index.sumCents(null, null, "Travel", false));
+    }
+
+    @Test
+    void sumCents_2() {
+        // Arrange
+        Random random = new Random(17);
+        User user = new User("u", "p", "n");
+        LocalDate start = LocalDate.of(2024, 6, 1);
+        for (int i = 0; i < 200; i++) {
+            addRandom(user, random, start);
+        }
+        DateIndex index = user.getDateIndex();
+        index.sumCents(null, null, "Food", true);
+        // Act
+        for (int i = 0; i < 300; i++) {
+            // Later transactions drift years away in both directions, forcing the window to grow.
+            addRandom(user, random, start.plusDays((i % 2 == 0 ? 1 : -1) * i * 10L));
+        }
+        // Assert
+        for (int i = 0; i < 100; i++) {
+            LocalDate from = start.plusDays(random.nextInt(6000) - 3000);
+            LocalDate to = from.plusDays(random.nextInt(2000));
+            assertEquals(scanCents(user, from, to, null, true), index.sumCents(from, to, true));
+            assertEquals(scanCents(user, from, to, null, false), index.sumCents(from, to, false));
+            assertEquals(scanCents(user, from, to, "Food", true), index.sumCents(from, to, "Food", true));
+            assertEquals(scanCents(user, from, to, "Rent", false), index.sumCents(from, to, "Rent", false));
+            assertEquals(scanCents(user, LocalDate.MIN, to, null, true) - scanCents(user, LocalDate.MIN, to, null, false),
+                    index.balanceCents(to));
+        }
+    }
+
+    @Test
+    void sumCents_3() {
+        // Arrange
+        Random random = new Random(3);
+        User user = new User("u", "p", "n");
+        LocalDate start = LocalDate.of(2024, 6, 1);
+        for (int i = 0; i < 100; i++) {
+            addRandom(user, random, start);
+        }
+        DateIndex index = user.getDateIndex();
+        index.sumCents(null, null, "Rent", false);
+        // Act
+        // Dates eight thousand years apart: the trees hold only the days that have transactions.
+        user.addTransaction(new Transaction(Transaction.MIN_DATE, "Rent", 5, "Expense"));
+        user.addTransaction(new Transaction(Transaction.MAX_DATE, "Food", 7, "Income"));
+        for (int i = 0; i < 100; i++) {
+            addRandom(user, random, start);
+        }
+        // Assert
+        LocalDate first = Transaction.MIN_DATE;
+        LocalDate last = Transaction.MAX_DATE;
+        assertEquals(scanCents(user, first, last, null, true), index.sumCents(null, null, true));
+        assertEquals(scanCents(user, first, last, "Rent", false), index.sumCents(null, null, "Rent", false));
+        assertEquals(scanCents(user, first, last, "Food", true), index.sumCents(null, null, "Food", true));
+        for (int i = 0; i < 50; i++) {
+            LocalDate from = start.plusDays(random.nextInt(1000) - 500);
+            LocalDate to = from.plusDays(random.nextInt(500));
+            assertEquals(scanCents(user, from, to, null, false), index.sumCents(from, to, false));
+            assertEquals(scanCents(user, from, to, "Food", true), index.sumCents(from, to, "Food", true));
+            assertEquals(scanCents(user, first, to, null, true) - scanCents(user, first, to, null, false),
+                    index.balanceCents(to));
+        }
+        assertEquals(700, index.sumCents(LocalDate.of(9000, 1, 1), null, true));
+    }
+
+    @Test
+    void sumCents_4() {
+        // Arrange
+        Random random = new Random(4);
+        User user = new User("u", "p", "n");
+        DateIndex index = user.getDateIndex();
+        LocalDate start = LocalDate.of(2000, 1, 1);
+        // Act and Assert
+        for (int i = 0; i < 300; i++) {
+            // Mostly new days after the last one, with every tenth transaction back-dated to a new earlier day.
+            LocalDate date = i % 10 == 9 ? Transaction.MIN_DATE.plusDays(i) : start.plusDays(i * 3L);
+            user.addTransaction(new Transaction(date, CATEGORIES[i % CATEGORIES.length], 1 + random.nextInt(100), "Expense"));
+            LocalDate to = start.plusDays(random.nextInt(1000));
+            assertEquals(scanCents(user, Transaction.MIN_DATE, to, null, false), index.sumCents(null, to, false));
+            assertEquals(scanCents(user, Transaction.MIN_DATE, to, "Rent", false), index.sumCents(null, to, "Rent", false));
+        }
+        assertEquals(-scanCents(user, Transaction.MIN_DATE, LocalDate.of(1999, 12, 31), null, false),
+                index.balanceCents(LocalDate.of(1999, 12, 31)));
+    }
+}
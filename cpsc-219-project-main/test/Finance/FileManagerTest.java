@@ -165,6 +165,24 @@ class FileManagerTest {
         assertEquals(user1, user2);
     }
 
+    @Test
+    void loadUser_4() {
+        // Arrange
+        User user1 = new User("u", "p", "n");
+        FileManager.saveUser(user1, String.valueOf(file1));
+        User user2 = new User("a", "b", "c");
+        user2.addTransaction(new Transaction("Rent", 200.0, "Expense"));
+        FileManager.saveUser(user2, String.valueOf(file1));
+        user1.addTransaction(new Transaction("Food", 10.0, "Expense"));
+        FileManager.updateUser(user1, String.valueOf(file1));
+        // Act
+        User loaded1 = FileManager.loadUser("u", String.valueOf(file1));
+        User loaded2 = FileManager.loadUser("a", String.valueOf(file1));
+        // Assert
+        assertEquals(user1, loaded1);
+        assertEquals(user2, loaded2);
+    }
+
     @Test
     void updateUser_1() throws IOException {
         // Arrange
@@ -216,6 +234,72 @@ class FileManagerTest {
         assertEquals(-1, mismatch);
     }
 
+    @Test
+    void journal_1() throws IOException {
+        // Arrange
+        User user1 = new User("u", "p", "n");
+        FileManager.saveUser(user1, String.valueOf(file1));
+        FileManager.saveUser(user1, String.valueOf(file2));
+        Transaction transaction = new Transaction("Food", 10.0, "Expense");
+        user1.addTransaction(transaction);
+        // Act
+        FileManager.setJournalMode(true);
+        try {
+            FileManager.persistTransaction(user1, transaction, String.valueOf(file1));
+        } finally {
+            FileManager.setJournalMode(false);
+        }
+        User user2 = FileManager.loadUser("u", String.valueOf(file1));
+        // Assert
+        assertEquals(-1, Files.mismatch(path1, path2));
+        assertEquals(user1, user2);
+    }
+
+    @Test
+    void journal_2() throws IOException {
+        // Arrange
+        User user1 = new User("u", "p", "n");
+        User user2 = new User("a", "b", "c");
+        FileManager.saveUser(user1, String.valueOf(file1));
+        FileManager.saveUser(user2, String.valueOf(file1));
+        Transaction transaction = new Transaction("Food", 10.0, "Expense");
+        user1.addTransaction(transaction);
+        FileManager.saveUser(user1, String.valueOf(file2));
+        FileManager.saveUser(user2, String.valueOf(file2));
+        FileManager.setJournalMode(true);
+        try {
+            FileManager.persistTransaction(user1, transaction, String.valueOf(file1));
+        } finally {
+            FileManager.setJournalMode(false);
+        }
+        // Act
+        FileManager.compactJournal(String.valueOf(file1));
+        // Assert
+        assertEquals(-1, Files.mismatch(path1, path2));
+        assertEquals(user2, FileManager.loadUser("a", String.valueOf(file1)));
+    }
+
+    @Test
+    void segment_1() {
+        // Arrange
+        User user1 = new User("u", "p", "n");
+        user1.addTransaction(new Transaction("Food", 10.25, "Expense"));
+        FileManager.setBinaryTransactions(true);
+        try {
+            FileManager.saveUser(user1, String.valueOf(file1));
+        } finally {
+            FileManager.setBinaryTransactions(false);
+        }
+        Transaction transaction = new Transaction("Pay-cheque", 1200.0, "Income");
+        user1.addTransaction(transaction);
+        // Act
+        FileManager.persistTransaction(user1, transaction, String.valueOf(file1));
+        User user2 = FileManager.loadUser("u", String.valueOf(file1));
+        // Assert
+        assertEquals(user1, user2);
+        assertTrue(TransactionSegment.exists("u", String.valueOf(file1)));
+    }
+
     @Test
     void checkExists_1() {
         // Arrange
@@ -242,6 +326,27 @@ class FileManagerTest {
         assertFalse(result);
     }
 
+    @Test
+    void checkExists_4() throws IOException {
+        // Arrange
+        User user = new User("u", "p", "n");
+        FileManager.saveUser(user, String.valueOf(file1));
+        // Append a user without going through FileManager so the index has to notice the change.
+        BufferedWriter writer1 = new BufferedWriter(new FileWriter(file1, true));
+            writer1.write("a,b,c"); writer1.newLine();
+            writer1.write("TRANSACTIONS:"); writer1.newLine();
+            writer1.write("RECURRING TRANSACTIONS:"); writer1.newLine();
+            writer1.write("BUDGET LIMITS:"); writer1.newLine();
+            writer1.write("---"); writer1.newLine();
+        writer1.close();
+
+        // Act
+        boolean result = FileManager.checkExists("a", String.valueOf(file1));
+
+        // Assert
+        assertTrue(result);
+    }
+
     @Test
     void checkExists_3() {
         // Arrange
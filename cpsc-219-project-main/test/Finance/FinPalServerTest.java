@@ -0,0 +1,159 @@
+package Finance;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FinPalServerTest {
+    @TempDir
+    Path tempdir;
+    FinPalServer server;
+    HttpClient client = HttpClient.newHttpClient();
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        server = new FinPalServer(0, UserStore.forFile(tempdir.resolve("data.txt").toString()));
+        server.start();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    // Sends a request and returns the response
+    private HttpResponse<String> send(String method, String path, String token, String body) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + server.getPort() + path))
+                .method(method, body == null ? HttpRequest.BodyPublishers.noBody() : HttpRequest.BodyPublishers.ofString(body));
+        if (token != null) {
+            request.header("Authorization", "Bearer " + token);
+        }
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    // Registers and logs in a user, returning their token
+    private String login(String username) throws Exception {
+        send("POST", "/register", null, "{\"username\":\"" + username + "\",\"password\":\"secret#123\"}");
+        String login = send("POST", "/login", null, "{\"username\":\"" + username + "\",\"password\":\"secret#123\"}").body();
+        return Json.parseObject(login).get("token");
+    }
+
+    // Clock that only moves when told to
+    private static final class ManualClock extends Clock {
+        private volatile Instant now = Instant.parse("2024-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+
+    // Tests
+    @Test
+    void login_1() throws Exception {
+        // Arrange
+        send("POST", "/register", null, "{\"username\":\"alice\",\"password\":\"secret#123\",\"nickname\":\"Al\"}");
+        // Act
+        HttpResponse<String> wrong = send("POST", "/login", null, "{\"username\":\"alice\",\"password\":\"nope\"}");
+        HttpResponse<String> taken = send("POST", "/register", null, "{\"username\":\"alice\",\"password\":\"secret#123\"}");
+        HttpResponse<String> anonymous = send("GET", "/insights", null, null);
+        // Assert
+        assertEquals(401, wrong.statusCode());
+        assertEquals(409, taken.statusCode());
+        assertEquals(401, anonymous.statusCode());
+    }
+
+    @Test
+    void transactions_1() throws Exception {
+        // Arrange
+        send("POST", "/register", null, "{\"username\":\"bob\",\"password\":\"secret#123\"}");
+        String login = send("POST", "/login", null, "{\"username\":\"bob\",\"password\":\"secret#123\"}").body();
+        String token = Json.parseObject(login).get("token");
+        send("POST", "/budgets", token, "{\"category\":\"Food\",\"limit\":100}");
+        // Act
+        HttpResponse<String> recorded = send("POST", "/transactions", token,
+                "{\"category\":\"Food\",\"amount\":85,\"type\":\"Expense\",\"date\":\"" + java.time.LocalDate.now() + "\"}");
+        HttpResponse<String> invalid = send("POST", "/transactions", token, "{\"category\":\"Food\",\"amount\":-1,\"type\":\"Expense\"}");
+        HttpResponse<String> insights = send("GET", "/insights", token, null);
+        HttpResponse<String> statement = send("GET", "/statement?pageSize=10", token, null);
+        // Assert
+        assertEquals(201, recorded.statusCode());
+        assertEquals("{\"recorded\":true,\"budgetLevel\":\"WARNING\"}", recorded.body());
+        assertEquals(400, invalid.statusCode());
+        assertEquals("{\"totalIncome\":0.0,\"totalExpenses\":85.0,\"netSavings\":-85.0,\"budgets\":[{\"category\":\"Food\",\"limit\":100.0,\"spent\":85.0}]}", insights.body());
+        assertTrue(statement.body().contains(",Food,85.0,Expense"));
+        assertEquals(1, UserStore.forFile(tempdir.resolve("data.txt").toString()).load("bob").getTransactions().size());
+    }
+
+    @Test
+    void dates_1() throws Exception {
+        // Arrange
+        String token = login("carol");
+        // Act
+        HttpResponse<String> transaction = send("POST", "/transactions", token,
+                "{\"category\":\"Food\",\"amount\":5,\"type\":\"Expense\",\"date\":\"+999999999-12-31\"}");
+        HttpResponse<String> statement = send("GET", "/statement?from=1800-01-01", token, null);
+        HttpResponse<String> totals = send("GET", "/totals?to=%2B10000-01-01", token, null);
+        HttpResponse<String> query = send("GET", "/query?from=0001-01-01", token, null);
+        HttpResponse<String> recurring = send("POST", "/recurring", token,
+                "{\"category\":\"Rent\",\"amount\":5,\"frequency\":\"Monthly\",\"type\":\"Expense\",\"startDate\":\"1899-12-31\"}");
+        HttpResponse<String> valid = send("GET", "/totals?from=1900-01-01&to=9999-12-31", token, null);
+        // Assert
+        assertEquals(400, transaction.statusCode());
+        assertEquals(400, statement.statusCode());
+        assertEquals(400, totals.statusCode());
+        assertEquals(400, query.statusCode());
+        assertEquals(400, recurring.statusCode());
+        assertEquals(200, valid.statusCode());
+    }
+
+    @Test
+    void sessions_1() throws Exception {
+        // Arrange
+        server.stop(0);
+        ManualClock clock = new ManualClock();
+        server = new FinPalServer(0, UserStore.forFile(tempdir.resolve("data.txt").toString()), clock, Duration.ofMinutes(30));
+        server.start();
+        String idle = login("dave");
+        String active = login("erin");
+        // Act
+        clock.advance(Duration.ofMinutes(20));
+        HttpResponse<String> early = send("GET", "/insights", active, null); // Keeps erin's session alive.
+        clock.advance(Duration.ofMinutes(20));
+        HttpResponse<String> expired = send("GET", "/insights", idle, null);
+        HttpResponse<String> kept = send("GET", "/insights", active, null);
+        // Assert
+        assertEquals(200, early.statusCode());
+        assertEquals(401, expired.statusCode());
+        assertEquals(200, kept.statusCode());
+    }
+}
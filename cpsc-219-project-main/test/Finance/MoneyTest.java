@@ -0,0 +1,39 @@
+package Finance;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MoneyTest {
+    // Tests
+    @Test
+    void toMinor_1() {
+        // Arrange
+        long cents = 0;
+        double drifting = 0;
+        // Act
+        for (int i = 0; i < 1_000_000; i++) {
+            cents += Money.toMinor(0.1);
+            drifting += 0.1;
+        }
+        // Assert
+        assertEquals(10_000_000, cents);
+        assertEquals(100_000.0, Money.toDouble(cents));
+        assertNotEquals(100_000.0, drifting);
+        assertEquals(120_030, Money.toMinor(1200.1) + Money.toMinor(0.2));
+    }
+
+    @Test
+    void transaction_1() {
+        // Arrange
+        Transaction transaction = new Transaction(LocalDate.of(2024, 1, 1), "Food", 12.345, "Expense");
+        // Act
+        String text = transaction.toString();
+        // Assert
+        assertEquals(1_235, transaction.getAmountCents());
+        assertEquals("2024-01-01,Food,12.35,Expense", text);
+        assertEquals(transaction, Transaction.ofCents(LocalDate.of(2024, 1, 1), "Food", 1_235, TransactionType.EXPENSE));
+    }
+}
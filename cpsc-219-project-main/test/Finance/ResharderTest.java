@@ -0,0 +1,64 @@
+package Finance;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResharderTest {
+    @TempDir
+    Path tempdir;
+
+    // Tests
+    @Test
+    void reshard_1() throws IOException {
+        // Arrange
+        String fileName = tempdir.resolve("data.txt").toString();
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            User user = new User("user" + i, "p", "n");
+            user.addTransaction(new Transaction(LocalDate.of(2024, 1, 1), "Food", i, "Expense"));
+            users.add(user);
+        }
+        FileManager.rewriteUsers(users, fileName);
+        UserJournal.appendTransaction(users.get(3), new Transaction(LocalDate.of(2024, 1, 2), "Rent", 900, "Expense"), fileName);
+        byte[] before = Files.readAllBytes(Path.of(fileName));
+        ShardLayout layout = new ShardLayout(fileName, 4);
+        // Act
+        int moved = new Resharder(new ForkJoinPool(2)).reshard(fileName, layout);
+        // Assert
+        assertEquals(50, moved);
+        assertArrayEquals(before, Files.readAllBytes(Path.of(fileName)));
+        long total = 0;
+        for (String shardFile : layout.getShardFiles()) {
+            total += new File(shardFile).length();
+        }
+        assertTrue(total > 0);
+        for (int i = 0; i < 50; i++) {
+            User loaded = FileManager.loadUser("user" + i, layout.fileFor("user" + i));
+            assertNotNull(loaded);
+            assertEquals(i == 3 ? 2 : 1, loaded.getTransactions().size());
+        }
+        assertFalse(FileManager.checkExists("user0", layout.getShardFile((layout.shardOf("user0") + 1) % 4)));
+    }
+
+    @Test
+    void reshard_2() throws IOException {
+        // Arrange
+        String fileName = tempdir.resolve("data.txt").toString();
+        FileManager.saveUser(new User("u", "p", "n"), fileName);
+        ShardLayout layout = new ShardLayout(fileName, 2);
+        new Resharder().reshard(fileName, layout);
+        // Act and Assert
+        assertThrows(IOException.class, () -> new Resharder().reshard(fileName, layout));
+    }
+}
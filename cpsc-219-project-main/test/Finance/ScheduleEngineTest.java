@@ -0,0 +1,79 @@
+package Finance;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ScheduleEngineTest {
+    // Lists the dates of the engine's occurrences in a range
+    private static List<LocalDate> dates(ScheduleEngine engine, LocalDate from, LocalDate to) {
+        List<LocalDate> dates = new ArrayList<>();
+        for (ScheduleEngine.Occurrence occurrence : engine.occurrences(from, to)) {
+            dates.add(occurrence.date());
+        }
+        return dates;
+    }
+
+    // Tests
+    @Test
+    void occurrences_1() {
+        // Arrange
+        RecurringTransaction rent = new RecurringTransaction("Rent", 900, "Monthly", "Expense", LocalDate.of(2024, 1, 31));
+        ScheduleEngine engine = new ScheduleEngine(List.of(rent), LocalDate.of(2000, 1, 1));
+        List<LocalDate> desired = List.of(LocalDate.of(2024, 2, 29), LocalDate.of(2024, 3, 31), LocalDate.of(2024, 4, 30));
+        // Act
+        List<LocalDate> dates = dates(engine, LocalDate.of(2024, 2, 1), LocalDate.of(2024, 4, 30));
+        // Assert
+        assertEquals(desired, dates);
+    }
+
+    @Test
+    void occurrences_2() {
+        // Arrange
+        RecurringTransaction pay = new RecurringTransaction("Pay-cheque", 600, "bi-weekly", "Income", LocalDate.of(2024, 1, 5));
+        RecurringTransaction food = new RecurringTransaction("Food", 20, "weekly", "Expense", LocalDate.of(2024, 1, 5));
+        RecurringTransaction rent = new RecurringTransaction("Rent", 900, "monthly", "Expense");
+        ScheduleEngine engine = new ScheduleEngine(List.of(pay, food, rent), LocalDate.of(2024, 1, 10));
+        List<String> desired = List.of("2024-01-05 Pay-cheque", "2024-01-05 Food", "2024-01-10 Rent", "2024-01-12 Food",
+                "2024-01-19 Pay-cheque", "2024-01-19 Food");
+        // Act
+        List<String> occurrences = new ArrayList<>();
+        for (ScheduleEngine.Occurrence occurrence : engine.occurrences(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 20))) {
+            occurrences.add(occurrence.date() + " " + occurrence.transaction().getCategory());
+        }
+        // Assert
+        assertEquals(desired, occurrences);
+    }
+
+    @Test
+    void project_1() {
+        // Arrange
+        RecurringTransaction pay = new RecurringTransaction("Pay-cheque", 600, "bi-weekly", "Income", LocalDate.of(2024, 1, 5));
+        RecurringTransaction coffee = new RecurringTransaction("Coffee", 4.1, "daily", "Expense", LocalDate.of(2023, 6, 1));
+        RecurringTransaction rent = new RecurringTransaction("Rent", 900, "monthly", "Expense", LocalDate.of(2024, 1, 31));
+        ScheduleEngine engine = new ScheduleEngine(List.of(pay, coffee, rent), LocalDate.of(2024, 1, 1));
+        LocalDate from = LocalDate.of(2024, 1, 1);
+        LocalDate to = LocalDate.of(2053, 12, 31);
+        double income = 0;
+        double expenses = 0;
+        long count = 0;
+        for (ScheduleEngine.Occurrence occurrence : engine.occurrences(from, to)) {
+            if (occurrence.transaction().getType().equals("Income")) {
+                income += occurrence.transaction().getAmount();
+            } else {
+                expenses += occurrence.transaction().getAmount();
+            }
+            count++;
+        }
+        // Act
+        ScheduleEngine.Projection projection = engine.project(from, to);
+        // Assert
+        assertEquals(count, projection.getOccurrences());
+        assertEquals(income, projection.getIncome(), 0.001);
+        assertEquals(expenses, projection.getExpenses(), 0.001);
+    }
+}
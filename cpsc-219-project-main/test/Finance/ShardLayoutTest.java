@@ -0,0 +1,68 @@
+package Finance;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShardLayoutTest {
+    @TempDir
+    Path tempdir;
+
+    // Tests
+    @Test
+    void shardOf_1() throws IOException {
+        // Arrange
+        String fileName = tempdir.resolve("data.txt").toString();
+        ShardLayout layout = new ShardLayout(fileName, 8);
+        // Act
+        ShardLayout reopened = ShardLayout.open(fileName);
+        // Assert
+        assertEquals(8, reopened.getShardCount());
+        for (int i = 0; i < 100; i++) {
+            int shard = layout.shardOf("user" + i);
+            assertTrue(shard >= 0 && shard < 8);
+            assertEquals(shard, reopened.shardOf("user" + i));
+        }
+        assertTrue(new File(layout.getShardFile(7)).exists());
+    }
+
+    @Test
+    void open_1() throws IOException {
+        // Arrange
+        String fileName = tempdir.resolve("data.txt").toString();
+        new ShardLayout(fileName, 4);
+        // Act and Assert
+        assertNull(ShardLayout.open(tempdir.resolve("other.txt").toString()));
+        assertThrows(IllegalArgumentException.class, () -> new ShardLayout(fileName, 2));
+    }
+
+    @Test
+    void setShardLayout_1() throws IOException {
+        // Arrange
+        ShardLayout layout = new ShardLayout(tempdir.resolve("data.txt").toString(), 4);
+        User user = new User("alice", "p", "n");
+        FileManager.setShardLayout(layout);
+        try {
+            // Act
+            FileManager.saveUser(user);
+            user.addTransaction(new Transaction(LocalDate.of(2024, 1, 1), "Food", 5, "Expense"));
+            FileManager.updateUser(user);
+            User loaded = FileManager.loadUser("alice");
+            // Assert
+            assertTrue(FileManager.checkExists("alice"));
+            assertFalse(FileManager.checkExists("bob"));
+            assertEquals(1, loaded.getTransactions().size());
+            for (int shard = 0; shard < 4; shard++) {
+                assertEquals(shard == layout.shardOf("alice"), new File(layout.getShardFile(shard)).length() > 0);
+            }
+        } finally {
+            FileManager.setShardLayout(null);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package Finance;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.time.LocalDate;
+import java.time.YearMonth;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StatementRendererTest {
+    private static final String NL = System.lineSeparator();
+
+    // A user with one transaction per day from 2024-01-01 to 2024-01-10, alternating income and expense
+    private static User tenDays() {
+        User user = new User("u", "p", "n");
+        for (int i = 0; i < 10; i++) {
+            user.addTransaction(new Transaction(LocalDate.of(2024, 1, 1).plusDays(i), "Food", i + 1, i % 2 == 0 ? "Income" : "Expense"));
+        }
+        return user;
+    }
+
+    // Tests
+    @Test
+    void render_1() throws IOException {
+        // Arrange
+        StatementRenderer renderer = new StatementRenderer(tenDays())
+                .withDateRange(LocalDate.of(2024, 1, 3), LocalDate.of(2024, 1, 5));
+        StringWriter out = new StringWriter();
+        // Act
+        StatementRenderer.Totals totals = renderer.render(out);
+        // Assert
+        assertEquals("Upcoming Financial Statement:" + NL
+                + "[DATE], [CATEGORY], [AMOUNT], [TYPE]" + NL
+                + "2024-01-03,Food,3.0,Income" + NL
+                + "2024-01-04,Food,4.0,Expense" + NL
+                + "2024-01-05,Food,5.0,Income" + NL
+                + "Projected Total Income: $8.0" + NL
+                + "Projected Total Expenses: $4.0" + NL
+                + "Projected Net Balance: $4.0" + NL, out.toString());
+        assertEquals(3, totals.getRows());
+    }
+
+    @Test
+    void render_2() throws IOException {
+        // Arrange
+        StatementRenderer renderer = new StatementRenderer(tenDays()).withPage(2, 4);
+        StringWriter out = new StringWriter();
+        // Act
+        StatementRenderer.Totals totals = renderer.render(out);
+        // Assert
+        assertEquals("Upcoming Financial Statement:" + NL
+                + "[DATE], [CATEGORY], [AMOUNT], [TYPE]" + NL
+                + "2024-01-09,Food,9.0,Income" + NL
+                + "2024-01-10,Food,10.0,Expense" + NL
+                + "Page 3 of 3 (10 transactions)" + NL
+                + "Projected Total Income: $25.0" + NL
+                + "Projected Total Expenses: $30.0" + NL
+                + "Projected Net Balance: $-5.0" + NL, out.toString());
+        assertEquals(10, totals.getRows());
+        assertEquals(2, totals.getRowsWritten());
+    }
+
+    @Test
+    void render_3() throws IOException {
+        // Arrange
+        User user = new User("u", "p", "n");
+        user.addRecurringTransaction(new RecurringTransaction("Pay-cheque", 600, "bi-weekly", "Income", LocalDate.of(2024, 1, 5)));
+        user.addRecurringTransaction(new RecurringTransaction("Coffee", 4.1, "daily", "Expense", LocalDate.of(2023, 6, 1)));
+        user.addRecurringTransaction(new RecurringTransaction("Rent", 900, "monthly", "Expense", LocalDate.of(2024, 4, 1)));
+        StatementRenderer renderer = new StatementRenderer(user).withProjectionMonth(YearMonth.of(2024, 3));
+        StringWriter out = new StringWriter();
+        // Act
+        StatementRenderer.Totals totals = renderer.render(out);
+        // Assert
+        // March 2024 has pay days on the 1st, 15th and 29th, 31 days of coffee, and rent has not started yet.
+        assertEquals("Upcoming Financial Statement:" + NL
+                + "[DATE], [CATEGORY], [AMOUNT], [TYPE]" + NL
+                + "Next Month Pay-cheque (Recurring): +1800.0" + NL
+                + "Next Month Coffee (Recurring): -127.1" + NL
+                + "Projected Total Income: $1800.0" + NL
+                + "Projected Total Expenses: $127.1" + NL
+                + "Projected Net Balance: $1672.9" + NL, out.toString());
+        assertEquals(1800.0, totals.getIncome());
+    }
+}
@@ -0,0 +1,80 @@
+package Finance;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransactionHistoryTest {
+    @TempDir
+    Path tempdir;
+
+    // Tests
+    @Test
+    void loadUser_1() {
+        // Arrange
+        String fileName = tempdir.resolve("data.txt").toString();
+        User stored = new User("u", "p", "n");
+        for (int day = 1; day <= 5; day++) {
+            stored.addTransaction(new Transaction(LocalDate.of(2024, 1, day), "Food", day, "Expense"));
+        }
+        stored.getBudgetLimits().put("Food", 10.0);
+        FileManager.saveUser(stored, fileName);
+        UserJournal.appendTransaction(stored, new Transaction(LocalDate.of(2024, 1, 6), "Rent", 900, "Expense"), fileName);
+        // Act
+        User user = FileManager.loadUser("u", fileName);
+        List<Transaction> recent = user.getRecentTransactions(3);
+        // Assert
+        assertEquals(1000L, user.getBudgetLimits().getCents("Food", 0));
+        assertEquals(List.of(new Transaction(LocalDate.of(2024, 1, 6), "Rent", 900, "Expense"),
+                new Transaction(LocalDate.of(2024, 1, 5), "Food", 5, "Expense"),
+                new Transaction(LocalDate.of(2024, 1, 4), "Food", 4, "Expense")), recent);
+        assertEquals(6, user.getTransactions().size());
+        assertEquals(915.0, user.getInsights().getTotalExpenses());
+        assertEquals(recent, user.getRecentTransactions(3));
+    }
+
+    @Test
+    void loadUser_2() {
+        // Arrange
+        String fileName = tempdir.resolve("data.txt").toString();
+        User stored = new User("u", "p", "n");
+        Transaction lunch = new Transaction(LocalDate.of(2024, 1, 1), "Food", 7, "Expense");
+        stored.addTransaction(lunch);
+        stored.addTransaction(lunch);
+        FileManager.saveUser(stored, fileName);
+        // Act
+        User user = FileManager.loadUser("u", fileName);
+        user.setDuplicatePolicy(DuplicateIndex.Policy.REJECT);
+        boolean added = user.addTransaction(lunch);
+        // Assert
+        assertFalse(added);
+        assertEquals(2, user.getTransactions().size());
+        assertEquals(stored, user);
+    }
+
+    @Test
+    void loadUser_3() {
+        // Arrange
+        String fileName = tempdir.resolve("data.txt").toString();
+        FileManager.setBinaryTransactions(true);
+        try {
+            User stored = new User("u", "p", "n");
+            stored.addTransaction(new Transaction(LocalDate.of(2024, 1, 1), "Pay", 100, "Income"));
+            stored.addTransaction(new Transaction(LocalDate.of(2024, 1, 2), "Food", 20, "Expense"));
+            FileManager.saveUser(stored, fileName);
+            // Act
+            User user = FileManager.loadUser("u", fileName);
+            // Assert
+            assertEquals(List.of(new Transaction(LocalDate.of(2024, 1, 2), "Food", 20, "Expense")),
+                    user.getRecentTransactions(1));
+            assertEquals(stored, user);
+        } finally {
+            FileManager.setBinaryTransactions(false);
+        }
+    }
+}
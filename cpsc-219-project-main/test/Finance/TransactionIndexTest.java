@@ -0,0 +1,76 @@
+package Finance;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.StringWriter;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransactionIndexTest {
+    // Tests
+    @Test
+    void rowsInCategory_1() {
+        // Arrange
+        User user = new User("u", "p", "n");
+        user.addTransaction(new Transaction(LocalDate.of(2024, 1, 1), "Food", 10, "Expense"));
+        user.addTransaction(new Transaction(LocalDate.of(2024, 1, 2), "Rent", 600, "Expense"));
+        user.getTransactionIndex().rowsInCategory("Food"); // Builds the index before the next row.
+        user.addTransaction(new Transaction(LocalDate.of(2023, 12, 1), "Food", 20, "Expense"));
+        // Act
+        int[] rows = user.getTransactionIndex().rowsInCategory("Food");
+        // Assert
+        assertArrayEquals(new int[]{0, 2}, rows);
+        assertEquals(0, user.getTransactionIndex().rowsInCategory("Fun").length);
+    }
+
+    @Test
+    void rowsBetween_1() {
+        // Arrange
+        User user = new User("u", "p", "n");
+        user.addTransaction(new Transaction(LocalDate.of(2024, 1, 10), "Food", 1, "Expense"));
+        user.addTransaction(new Transaction(LocalDate.of(2024, 1, 20), "Food", 2, "Expense"));
+        user.getTransactionIndex().rowsBetween(null, null);
+        // Back-dated rows are filed under their date, after earlier rows of the same day.
+        user.addTransaction(new Transaction(LocalDate.of(2024, 1, 5), "Food", 3, "Expense"));
+        user.addTransaction(new Transaction(LocalDate.of(2024, 1, 10), "Food", 4, "Expense"));
+        // Act
+        int[] all = user.getTransactionIndex().rowsBetween(null, null);
+        int[] january = user.getTransactionIndex().rowsBetween(LocalDate.of(2024, 1, 6), LocalDate.of(2024, 1, 15));
+        // Assert
+        assertArrayEquals(new int[]{2, 0, 3, 1}, all);
+        assertArrayEquals(new int[]{0, 3}, january);
+        assertEquals(0, user.getTransactionIndex().rowsBetween(LocalDate.of(2024, 2, 1), LocalDate.of(2024, 1, 1)).length);
+    }
+
+    @Test
+    void getTransactions_1() {
+        // Arrange
+        User user = new User("u", "p", "n");
+        Transaction rent = new Transaction(LocalDate.of(2024, 2, 1), "Rent", 600, "Expense");
+        Transaction lunch = new Transaction(LocalDate.of(2024, 1, 3), "Food", 12.5, "Expense");
+        user.addTransaction(rent);
+        user.addTransaction(lunch);
+        // Act
+        List<Transaction> food = user.getTransactions("Food");
+        List<Transaction> sorted = user.getTransactions(null, null);
+        // Assert
+        assertEquals(List.of(lunch), food);
+        assertEquals(List.of(lunch, rent), sorted);
+    }
+
+    @Test
+    void render_1() throws Exception {
+        // Arrange
+        User user = new User("u", "p", "n");
+        user.addTransaction(new Transaction(LocalDate.of(2024, 2, 1), "Rent", 600, "Expense"));
+        user.addTransaction(new Transaction(LocalDate.of(2024, 1, 3), "Food", 12.5, "Expense"));
+        StringWriter out = new StringWriter();
+        // Act
+        new StatementRenderer(user).render(out);
+        // Assert
+        String statement = out.toString();
+        assertTrue(statement.indexOf("2024-01-03,Food") < statement.indexOf("2024-02-01,Rent"));
+    }
+}
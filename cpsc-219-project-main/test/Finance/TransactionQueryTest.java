@@ -0,0 +1,112 @@
+package Finance;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransactionQueryTest {
+    @TempDir
+    Path tempdir;
+
+    // Records a small history spread over two months
+    private static User sampleUser() {
+        User user = new User("u", "p", "n");
+        user.addTransaction(new Transaction(LocalDate.of(2024, 1, 1), "Pay", 2000, "Income"));
+        user.addTransaction(new Transaction(LocalDate.of(2024, 1, 5), "Food", 12.5, "Expense"));
+        user.addTransaction(new Transaction(LocalDate.of(2024, 2, 3), "Food", 30, "Expense"));
+        user.addTransaction(new Transaction(LocalDate.of(2024, 2, 1), "Rent", 900, "Expense"));
+        user.addTransaction(new Transaction(LocalDate.of(2024, 1, 20), "Food", 7.5, "Expense"));
+        return user;
+    }
+
+    // Tests
+    @Test
+    void list_1() {
+        // Arrange
+        User user = sampleUser();
+        TransactionQuery query = new TransactionQuery().inCategories("Food", "Rent").amountBetween(10, 100);
+        // Act
+        List<Transaction> result = query.list(user);
+        // Assert
+        assertEquals(TransactionQuery.AccessPath.CATEGORY_INDEX, query.plan(user));
+        assertEquals(List.of(new Transaction(LocalDate.of(2024, 1, 5), "Food", 12.5, "Expense"),
+                new Transaction(LocalDate.of(2024, 2, 3), "Food", 30, "Expense")), result);
+    }
+
+    @Test
+    void summarize_1() {
+        // Arrange
+        User user = sampleUser();
+        TransactionQuery query = new TransactionQuery().ofType(TransactionType.EXPENSE)
+                .groupBy(TransactionQuery.Grouping.MONTH);
+        // Act
+        Map<String, TransactionQuery.Summary> months = query.summarize(user);
+        // Assert
+        assertEquals(TransactionQuery.AccessPath.FULL_SCAN, query.plan(user));
+        assertEquals(List.of("2024-01", "2024-02"), List.copyOf(months.keySet()));
+        assertEquals(2, months.get("2024-01").getCount());
+        assertEquals(2000L, months.get("2024-01").getSumCents());
+        assertEquals(10.0, months.get("2024-01").getAverage());
+        assertEquals(30.0, months.get("2024-02").getMin());
+        assertEquals(900.0, months.get("2024-02").getMax());
+    }
+
+    @Test
+    void summarize_2() {
+        // Arrange
+        User user = sampleUser();
+        TransactionQuery query = new TransactionQuery().between(LocalDate.of(2024, 2, 1), null)
+                .groupBy(TransactionQuery.Grouping.CATEGORY);
+        // Act
+        Map<String, TransactionQuery.Summary> categories = query.summarize(user);
+        // Assert
+        assertEquals(TransactionQuery.AccessPath.DATE_INDEX, query.plan(user));
+        assertEquals(List.of("Food", "Rent"), List.copyOf(categories.keySet()));
+        assertEquals(3000L, categories.get("Food").getSumCents());
+        assertTrue(new TransactionQuery().groupBy(TransactionQuery.Grouping.CATEGORY)
+                .between(LocalDate.of(2025, 1, 1), null).summarize(user).isEmpty());
+    }
+
+    @Test
+    void between_1() {
+        // Arrange
+        User user = sampleUser();
+        // Query bounds are not stored, so dates beyond the stored range only widen the query.
+        TransactionQuery query = new TransactionQuery().between(LocalDate.MIN, LocalDate.of(999999999, 12, 31));
+        // Act
+        List<Transaction> result = query.list(user);
+        // Assert
+        assertEquals(5, result.size());
+        assertEquals(5, user.getTransactionIndex().rowsBetween(LocalDate.MIN, LocalDate.MAX).length);
+    }
+
+    @Test
+    void plan_1() {
+        // Arrange
+        String fileName = tempdir.resolve("data.txt").toString();
+        User stored = sampleUser();
+        FileManager.saveUser(stored, fileName);
+        UserJournal.appendTransaction(stored, new Transaction(LocalDate.of(2024, 2, 10), "Food", 4, "Expense"), fileName);
+        TransactionQuery query = new TransactionQuery().between(LocalDate.of(2024, 1, 2), LocalDate.of(2024, 2, 28))
+                .inCategories("Food");
+        // Act
+        User user = FileManager.loadUser("u", fileName);
+        TransactionQuery.AccessPath path = query.plan(user);
+        List<Transaction> result = query.list(user);
+        // Assert
+        assertEquals(TransactionQuery.AccessPath.STORAGE_SCAN, path);
+        assertNotNull(user.getPendingHistory()); // The query read storage without loading the history.
+        assertEquals(List.of(new Transaction(LocalDate.of(2024, 1, 5), "Food", 12.5, "Expense"),
+                new Transaction(LocalDate.of(2024, 2, 3), "Food", 30, "Expense"),
+                new Transaction(LocalDate.of(2024, 1, 20), "Food", 7.5, "Expense"),
+                new Transaction(LocalDate.of(2024, 2, 10), "Food", 4, "Expense")), result);
+        user.getTransactions(); // Loads the history.
+        assertEquals(result, query.list(user));
+    }
+}
@@ -0,0 +1,79 @@
+package Finance;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransactionStoreTest {
+    // Tests
+    @Test
+    void add_1() {
+        // Arrange
+        TransactionStore store = new TransactionStore();
+        Transaction transaction = new Transaction(LocalDate.of(2024, 2, 29), "Food", 12.34, "Expense");
+        // Act
+        store.add(transaction);
+        // Assert
+        assertEquals(1, store.size());
+        assertEquals(transaction, store.getFirst());
+    }
+
+    @Test
+    void add_2() {
+        // Arrange
+        TransactionStore store = new TransactionStore();
+        // Act
+        for (int i = 0; i < 200; i++) {
+            store.add(new Transaction(LocalDate.of(2024, 1, 1).plusDays(i), i % 2 == 0 ? "Food" : "Rent", i, i % 3 == 0 ? "Income" : "Expense"));
+        }
+        // Assert
+        assertEquals(200, store.size());
+        for (int i = 0; i < 200; i++) {
+            assertEquals(i % 3 == 0, store.isIncome(i));
+            assertEquals(i * 100L, store.amountCents(i));
+        }
+        assertEquals(new Transaction(LocalDate.of(2024, 1, 1).plusDays(199), "Rent", 199, "Expense"), store.getLast());
+    }
+
+    @Test
+    void add_3() {
+        // Arrange
+        TransactionStore store = new TransactionStore();
+        // Act and Assert
+        assertThrows(IllegalArgumentException.class, () -> store.add(new Transaction("Food", 1, "Refund")));
+    }
+
+    @Test
+    void add_4() {
+        // Arrange
+        LocalDate far = LocalDate.of(999999999, 12, 31);
+        LocalDate early = LocalDate.of(1899, 12, 31);
+        // Act and Assert
+        // Dates whose epoch day would not survive an int are refused instead of being stored as another date.
+        assertThrows(IllegalArgumentException.class, () -> new Transaction(far, "Food", 1, "Expense"));
+        assertThrows(IllegalArgumentException.class, () -> new Transaction(early, "Food", 1, "Expense"));
+        assertThrows(IllegalArgumentException.class, () -> new RecurringTransaction("Rent", 1, "Monthly", "Expense", far));
+        Transaction last = new Transaction(Transaction.MAX_DATE, "Food", 1, "Expense");
+        TransactionStore store = new TransactionStore();
+        store.add(last);
+        assertEquals(last, store.getFirst());
+    }
+
+    @Test
+    void sumCents_1() {
+        // Arrange
+        TransactionStore store = new TransactionStore();
+        store.add(new Transaction("Food", 10.10, "Expense"));
+        store.add(new Transaction("Food", 0.20, "Expense"));
+        store.add(new Transaction("Food", 5, "Income"));
+        store.add(new Transaction("Rent", 200, "Expense"));
+        // Act
+        long food = store.sumCents("Food", false);
+        long missing = store.sumCents("Travel", false);
+        // Assert
+        assertEquals(1030, food);
+        assertEquals(0, missing);
+    }
+}
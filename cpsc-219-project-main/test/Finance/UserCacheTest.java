@@ -0,0 +1,89 @@
+package Finance;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserCacheTest {
+    @TempDir
+    Path tempdir;
+
+    // Tests
+    @Test
+    void loadUser_1() {
+        // Arrange
+        String fileName = tempdir.resolve("data.txt").toString();
+        for (int i = 0; i < 3; i++) {
+            FileManager.saveUser(new User("user" + i, "p", "n"), fileName);
+        }
+        UserCache cache = UserCache.enable(fileName, 2, Long.MAX_VALUE);
+        try {
+            // Act
+            User first = FileManager.loadUser("user0", fileName);
+            User again = FileManager.loadUser("user0", fileName);
+            FileManager.loadUser("user1", fileName);
+            FileManager.loadUser("user2", fileName);
+            User reloaded = FileManager.loadUser("user0", fileName);
+            // Assert
+            assertSame(first, again);
+            assertNotSame(first, reloaded);
+            assertEquals(1, cache.getHits());
+            assertEquals(4, cache.getMisses());
+            assertEquals(2, cache.getEvictions());
+            assertEquals(2, cache.size());
+        } finally {
+            UserCache.disable(fileName);
+        }
+    }
+
+    @Test
+    void loadUser_2() {
+        // Arrange
+        String fileName = tempdir.resolve("data.txt").toString();
+        FileManager.saveUser(new User("u", "p", "n"), fileName);
+        UserCache cache = UserCache.enable(fileName, 10, Long.MAX_VALUE);
+        try {
+            User cached = FileManager.loadUser("u", fileName);
+            User other = new User("u", "p", "n");
+            other.addTransaction(new Transaction(LocalDate.of(2024, 1, 1), "Food", 5, "Expense"));
+            // Act
+            FileManager.updateUser(other, fileName);
+            User afterOther = FileManager.loadUser("u", fileName);
+            afterOther.addTransaction(new Transaction(LocalDate.of(2024, 1, 2), "Food", 6, "Expense"));
+            FileManager.updateUser(afterOther, fileName);
+            User afterSelf = FileManager.loadUser("u", fileName);
+            // Assert
+            assertNotSame(cached, afterOther);
+            assertEquals(2, afterSelf.getTransactions().size());
+            assertSame(afterOther, afterSelf);
+        } finally {
+            UserCache.disable(fileName);
+        }
+    }
+
+    @Test
+    void put_1() {
+        // Arrange
+        String fileName = tempdir.resolve("data.txt").toString();
+        UserCache cache = UserCache.enable(fileName, 100, 2000);
+        try {
+            User big = new User("big", "p", "n");
+            for (int i = 0; i < 100; i++) {
+                big.addTransaction(new Transaction(LocalDate.of(2024, 1, 1).plusDays(i), "Food", i + 1, "Expense"));
+            }
+            // Act
+            cache.put(new User("small", "p", "n"), cache.version());
+            cache.put(big, cache.version());
+            // Assert
+            assertNull(cache.get("big"));
+            assertEquals(2, cache.getEvictions());
+            assertEquals(0, cache.getEstimatedBytes());
+        } finally {
+            UserCache.disable(fileName);
+        }
+    }
+}
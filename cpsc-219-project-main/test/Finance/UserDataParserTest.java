@@ -0,0 +1,139 @@
+package Finance;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserDataParserTest {
+    // Builds a buffer holding the given lines, each ending with the given line separator
+    private static ByteBuffer buffer(String separator, String... lines) {
+        StringBuilder builder = new StringBuilder();
+        for (String line : lines) {
+            builder.append(line).append(separator);
+        }
+        return ByteBuffer.wrap(builder.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Tests
+    @Test
+    void parse_1() {
+        // Arrange
+        ByteBuffer data = buffer("\n",
+                "a,b,c", "TRANSACTIONS:", "2024-01-02,Food,1.5,Expense", "RECURRING TRANSACTIONS:", "BUDGET LIMITS:", "---",
+                "u,p,n", "TRANSACTIONS:", "2024-03-04,Rent,200.0,Expense", "RECURRING TRANSACTIONS:",
+                "Pay-cheque,600.0,bi-weekly,Income", "BUDGET LIMITS:", "Rent,250.0", "---");
+        User desired = new User("u", "p", "n");
+        desired.addTransaction(new Transaction(LocalDate.of(2024, 3, 4), "Rent", 200.0, "Expense"));
+        desired.addRecurringTransaction(new RecurringTransaction("Pay-cheque", 600.0, "bi-weekly", "Income"));
+        desired.getBudgetLimits().put("Rent", 250.0);
+        // Act
+        User user = UserDataParser.parse(data, "u");
+        // Assert
+        assertEquals(desired, user);
+    }
+
+    @Test
+    void parse_2() {
+        // Arrange
+        ByteBuffer data = buffer("\r\n",
+                "ab,b,c", "TRANSACTIONS:", "RECURRING TRANSACTIONS:", "BUDGET LIMITS:", "---");
+        // Act
+        User user = UserDataParser.parse(data, "a");
+        // Assert
+        assertNull(user);
+    }
+
+    @Test
+    void parse_3() {
+        // Arrange
+        String[] amounts = {"0.1", "10.25", "-3.75", "1234567.891", "1.0E7", "0.30000000000000004", "100", "7.000000000000001"};
+        for (String amount : amounts) {
+            ByteBuffer data = buffer("", amount);
+            // Act
+            double parsed = UserDataParser.parseAmount(data, 0, data.limit());
+            // Assert
+            assertEquals(Double.parseDouble(amount), parsed);
+        }
+    }
+
+    @Test
+    void parse_4() {
+        // Arrange
+        ByteBuffer data = buffer("\n",
+                "u,p,n", "TRANSACTIONS:", "2024-01-02,Food,1.5,Expense", "2024-01-03,Food,2.5,Expense",
+                "RECURRING TRANSACTIONS:", "BUDGET LIMITS:", "---");
+        // Act
+        User user = UserDataParser.parse(data, "u");
+        // Assert
+        assertSame(user.getTransactions().get(0).getCategory(), user.getTransactions().get(1).getCategory());
+    }
+
+    @Test
+    void parse_6() throws Exception {
+        // Arrange
+        ByteBuffer data = buffer("\n",
+                "u,p,n", "TRANSACTIONS:", "2024-01-02,Groceries,1.5,Expense", "RECURRING TRANSACTIONS:", "BUDGET LIMITS:", "---");
+        User first = UserDataParser.parse(data.duplicate(), "u");
+        User[] second = new User[1];
+        // Act
+        // Loads on other threads, such as the server's virtual threads, share the names interned before them.
+        Thread thread = Thread.ofVirtual().start(() -> second[0] = UserDataParser.parse(data.duplicate(), "u"));
+        thread.join();
+        // Assert
+        assertSame(first.getTransactions().get(0).getCategory(), second[0].getTransactions().get(0).getCategory());
+    }
+
+    @Test
+    void forEachBlock_1() {
+        // Arrange
+        ByteBuffer data = buffer("\n",
+                "a,b,c", "TRANSACTIONS:", "RECURRING TRANSACTIONS:", "BUDGET LIMITS:", "---",
+                "u,p,n", "TRANSACTIONS:", "RECURRING TRANSACTIONS:", "BUDGET LIMITS:", "---");
+        StringBuilder visited = new StringBuilder();
+        // Act
+        UserDataParser.forEachBlock(data, (username, offset, length) ->
+                visited.append(username).append(':').append(offset).append(':').append(length).append(' '));
+        // Assert
+        assertEquals("a:0:63 u:63:63 ", visited.toString());
+    }
+
+    @Test
+    void parse_5() {
+        // Arrange
+        ByteBuffer data = buffer("\n",
+                "u,p,n", "TRANSACTIONS:", "RECURRING TRANSACTIONS:", "Rent,900.0,monthly,Expense,2024-01-31",
+                "BUDGET LIMITS:", "---");
+        RecurringTransaction desired = new RecurringTransaction("Rent", 900.0, "monthly", "Expense", LocalDate.of(2024, 1, 31));
+        // Act
+        User user = UserDataParser.parse(data, "u");
+        // Assert
+        assertEquals(desired, user.getRecurringTransactions().getFirst());
+        assertEquals("Rent,900.0,monthly,Expense,2024-01-31", desired.toString());
+    }
+
+    @Test
+    void parseHeader_1() {
+        // Arrange
+        ByteBuffer data = buffer("\r\n",
+                "u,p,n", "TRANSACTIONS:", "2024-03-04,Rent,200.0,Expense", "2024-03-05,Food,12.5,Expense",
+                "2024-03-06,Pay,900.0,Income", "RECURRING TRANSACTIONS:", "Pay-cheque,600.0,bi-weekly,Income",
+                "BUDGET LIMITS:", "Rent,250.0", "---");
+        // Act
+        UserDataParser.Header header = UserDataParser.parseHeader(data);
+        ByteBuffer history = data.slice(header.historyStart(), header.historyEnd() - header.historyStart());
+        // Assert
+        assertEquals("u", header.user().getUsername());
+        assertEquals(25000L, header.user().getBudgetLimits().getCents("Rent", 0));
+        assertEquals(1, header.user().getRecurringTransactions().size());
+        assertEquals(0, header.user().getTransactions().size());
+        assertEquals(List.of(new Transaction(LocalDate.of(2024, 3, 5), "Food", 12.5, "Expense"),
+                new Transaction(LocalDate.of(2024, 3, 6), "Pay", 900.0, "Income")),
+                UserDataParser.parseLastTransactions(history, 2));
+        assertEquals(3, UserDataParser.parseLastTransactions(history, 10).size());
+    }
+}
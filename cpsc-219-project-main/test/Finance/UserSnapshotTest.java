@@ -0,0 +1,103 @@
+package Finance;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserSnapshotTest {
+    @TempDir
+    Path tempdir;
+
+    // Tests
+    @Test
+    void load_1() {
+        // Arrange
+        String fileName = tempdir.resolve("data.txt").toString();
+        User stored = new User("u", "p", "n");
+        stored.addTransaction(new Transaction(LocalDate.of(2024, 1, 1), "Pay", 2000, "Income"));
+        stored.addTransaction(new Transaction(LocalDate.of(2024, 1, 2), "Food", 12.5, "Expense"));
+        stored.addRecurringTransaction(new RecurringTransaction("Rent", 900, "monthly", "Expense", LocalDate.of(2024, 1, 1)));
+        stored.getBudgetLimits().put("Food", 300.0);
+        FileManager.saveUser(stored, fileName);
+        UserSnapshot.write(stored, fileName);
+        Transaction later = new Transaction(LocalDate.of(2024, 1, 3), "Food", 7.25, "Expense");
+        stored.addTransaction(later);
+        UserJournal.appendTransaction(stored, later, fileName);
+        stored.getBudgetLimits().put("Fun", 50.0);
+        UserJournal.appendBudgetLimit(stored, "Fun", fileName);
+        // Act
+        User user = UserSnapshot.load("u", fileName);
+        // Assert
+        assertNotNull(user);
+        assertEquals(stored, user);
+        assertEquals(stored.getTransactions(), user.getTransactions());
+        assertEquals(1975L, user.getInsights().getCategoryExpenseCents("Food"));
+        assertEquals(stored.getInsights().getTotalExpenses(), user.getInsights().getTotalExpenses());
+        assertEquals(5000L, user.getBudgetLimits().getCents("Fun", 0));
+    }
+
+    @Test
+    void load_2() {
+        // Arrange
+        String fileName = tempdir.resolve("data.txt").toString();
+        User stored = new User("u", "p", "n");
+        FileManager.saveUser(stored, fileName);
+        UserJournal.appendBudgetLimit(stored, "Food", fileName);
+        UserSnapshot.write(stored, fileName);
+        // Act
+        UserJournal.clear("u", fileName); // The journal is now shorter than the snapshot expects.
+        User user = UserSnapshot.load("u", fileName);
+        // Assert
+        assertNull(user);
+        assertFalse(new File(fileName + UserSnapshot.SNAPSHOT_SUFFIX, "u.snap").exists());
+    }
+
+    @Test
+    void loadUser_1() {
+        // Arrange
+        String fileName = tempdir.resolve("data.txt").toString();
+        User stored = new User("u", "p", "n");
+        stored.addTransaction(new Transaction(LocalDate.of(2024, 1, 1), "Food", 5, "Expense"));
+        FileManager.saveUser(stored, fileName);
+        UserSnapshot.write(stored, fileName);
+        stored.addTransaction(new Transaction(LocalDate.of(2024, 1, 2), "Food", 6, "Expense"));
+        // Act
+        FileManager.rewriteUsers(List.of(stored), fileName);
+        User user = FileManager.loadUser("u", fileName);
+        // Assert
+        assertFalse(new File(fileName + UserSnapshot.SNAPSHOT_SUFFIX, "u.snap").exists());
+        assertEquals(stored, user);
+    }
+
+    @Test
+    void recordMutation_1() {
+        // Arrange
+        String fileName = tempdir.resolve("data.txt").toString();
+        User stored = new User("u", "p", "n");
+        FileManager.saveUser(stored, fileName);
+        FileManager.setJournalMode(true);
+        UserSnapshot.setInterval(2);
+        try {
+            // Act
+            for (int day = 1; day <= 3; day++) {
+                Transaction transaction = new Transaction(LocalDate.of(2024, 1, day), "Food", day, "Expense");
+                stored.addTransaction(transaction);
+                FileManager.persistTransaction(stored, transaction, fileName);
+            }
+            User user = FileManager.loadUser("u", fileName);
+            // Assert
+            assertTrue(new File(fileName + UserSnapshot.SNAPSHOT_SUFFIX, "u.snap").exists());
+            assertEquals(stored, user);
+            assertEquals(3, user.getTransactions().size());
+        } finally {
+            UserSnapshot.setInterval(0);
+            FileManager.setJournalMode(false);
+        }
+    }
+}
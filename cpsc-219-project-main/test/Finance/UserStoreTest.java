@@ -0,0 +1,66 @@
+package Finance;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserStoreTest {
+    @TempDir
+    Path tempdir;
+
+    // Tests
+    @Test
+    void register_1() {
+        // Arrange
+        UserStore store = UserStore.forFile(tempdir.resolve("data.txt").toString());
+        // Act
+        boolean first = store.register(new User("u", "p", "n"));
+        boolean second = store.register(new User("u", "other", "n"));
+        // Assert
+        assertTrue(first);
+        assertFalse(second);
+        assertEquals("p", store.load("u").getPassword());
+    }
+
+    @Test
+    void addTransaction_1() throws Exception {
+        // Arrange
+        UserStore store = UserStore.forFile(tempdir.resolve("data.txt").toString());
+        int users = 8, transactions = 50;
+        for (int u = 0; u < users; u++) {
+            store.register(new User("user" + u, "p", "n"));
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<?>> futures = new ArrayList<>();
+        // Act
+        // Two independent sessions per user, as if the user were logged in twice
+        for (int s = 0; s < users * 2; s++) {
+            int session = s;
+            futures.add(executor.submit(() -> {
+                User user = store.load("user" + session % users);
+                for (int t = 0; t < transactions; t++) {
+                    store.addTransaction(user, new Transaction(LocalDate.of(2024, 1, 1).plusDays(t), "Food", session * 1000 + t, "Expense"));
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+        // Assert
+        for (int u = 0; u < users; u++) {
+            assertEquals(transactions * 2, store.load("user" + u).getTransactions().size());
+        }
+        store.compact();
+        assertEquals(transactions * 2, store.load("user3").getTransactions().size());
+    }
+}
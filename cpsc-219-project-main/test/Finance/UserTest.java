@@ -5,6 +5,7 @@ import org.junit.jupiter.api.*;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.PrintStream;
+import java.time.LocalDate;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -36,9 +37,9 @@ class UserTest {
     @Test
     void testAddRecurringTransaction_1() {
         // Arrange
-        String input = "Rent\n200\nmonthly\nE\n";
+        String input = "Rent\n200\nmonthly\nE\n\n";
         System.setIn(new ByteArrayInputStream(input.getBytes()));
-        RecurringTransaction desired = new RecurringTransaction("Rent", 200, "monthly", "Expense");
+        RecurringTransaction desired = new RecurringTransaction("Rent", 200, "monthly", "Expense", LocalDate.now());
         User user = new User("username", "password", "nickname");
         // Act
         user.addRecurringTransaction();
@@ -46,6 +47,20 @@ class UserTest {
         assertEquals(desired, user.getRecurringTransactions().getFirst());
     }
 
+    @Test
+    void testAddRecurringTransaction_2() {
+        // Arrange
+        String input = "Pay-cheque\n600\nbi-weekly\nI\n2024-13-01\n1800-01-01\n2024-01-05\n";
+        System.setIn(new ByteArrayInputStream(input.getBytes()));
+        RecurringTransaction desired = new RecurringTransaction("Pay-cheque", 600, "bi-weekly", "Income", LocalDate.of(2024, 1, 5));
+        User user = new User("username", "password", "nickname");
+        // Act
+        user.addRecurringTransaction();
+        // Assert
+        assertEquals(desired, user.getRecurringTransactions().getFirst());
+        assertEquals(2, out.toString().split("Invalid date", -1).length - 1);
+    }
+
     @Test
     void testViewRecurringTransactions_1() {
         // Arrange
@@ -177,7 +192,7 @@ class UserTest {
                 + "Total Income: $0.0" + System.lineSeparator()
                 + "Total Expenses: $400.0" + System.lineSeparator()
                 + "Net Savings: $-400.0" + System.lineSeparator()
-                + "Consider reducing expenses in Entertainment. You've spent $400.00, which is over your budget of $200.00." + System.lineSeparator();
+                + "Consider reducing expenses in Entertainment. You've spent $400.00 this month, which is over your budget of $200.00." + System.lineSeparator();
         User user = new User("username", "password", "nickname");
         user.setBudgetForCategory();
         user.addTransaction(new Transaction("Entertainment", 400, "Expense"));
@@ -187,6 +202,23 @@ class UserTest {
         assertEquals(desired, out.toString());
     }
 
+    @Test
+    void testGetInsights_1() {
+        // Arrange
+        User user = new User("username", "password", "nickname");
+        user.addTransaction(new Transaction("Food", 10.10, "Expense"));
+        user.addTransaction(new Transaction("Food", 0.20, "Expense"));
+        user.addTransaction(new Transaction("Pay-cheque", 1200, "Income"));
+        user.addRecurringTransaction(new RecurringTransaction("Food", 20, "weekly", "Expense"));
+        // Act
+        InsightAggregates insights = user.getInsights();
+        // Assert
+        assertEquals(1200.0, insights.getTotalIncome());
+        assertEquals(1030, insights.getCategoryExpenseCents("Food"));
+        assertEquals(10.30 + 20, insights.getCategorySpending("Food"), 1e-9);
+        assertEquals(10.30 + 20 * 4.3, insights.getProjectedCategorySpending("Food"), 1e-9);
+    }
+
     @Test
     void testDisplayFinancialStatement_1() {
         // Arrange
@@ -228,7 +260,8 @@ class UserTest {
         // Arrange
         Transaction transaction1 = new Transaction("Food", 20, "Expense");
         RecurringTransaction recurringTransaction1 = new RecurringTransaction("Rent", 200, "monthly", "Expense");
-        RecurringTransaction recurringTransaction2 = new RecurringTransaction("Pay-cheque", 600, "bi-weekly", "Income");
+        // Schedules without a start date run from today, so a monthly one falls once in next month.
+        RecurringTransaction recurringTransaction2 = new RecurringTransaction("Pay-cheque", 600, "monthly", "Income");
         String desired = "Upcoming Financial Statement:" + System.lineSeparator()
                 + "[DATE], [CATEGORY], [AMOUNT], [TYPE]" + System.lineSeparator()
                 + transaction1 + System.lineSeparator()
@@ -273,7 +306,7 @@ class UserTest {
                 + "Enter category to set budget for: "
                 + "Enter budget limit for Entertainment: "
                 + "Budget set for Entertainment: $200.0" + System.lineSeparator()
-                + "Warning: Your current spending in Entertainment is $400.0, which exceeds your new budget limit. Consider adjusting your budget or expenses." + System.lineSeparator();
+                + "Warning: Your spending in Entertainment this month is $400.0, which exceeds your new budget limit. Consider adjusting your budget or expenses." + System.lineSeparator();
         User user = new User("username", "password", "nickname");
         user.addTransaction(transaction);
         // Act
@@ -285,21 +318,55 @@ class UserTest {
     @Test
     void setBudgetForCategory_3() {
         // Arrange
+        // Budgets are monthly: last month's expenses and unposted recurring expenses do not count against them.
         Transaction transaction = new Transaction("Food", 30, "Expense");
+        Transaction lastMonth = new Transaction(LocalDate.now().minusMonths(1), "Food", 600, "Expense");
         RecurringTransaction recurringTransaction = new RecurringTransaction("Food", 20, "daily", "Expense");
         String input = "Food\n500\n";
         System.setIn(new ByteArrayInputStream(input.getBytes()));
         String desired = "Available Categories: [Food, Utilities, Rent, Entertainment, Transportation, Other]" + System.lineSeparator()
                 + "Enter category to set budget for: "
                 + "Enter budget limit for Food: "
-                + "Budget set for Food: $500.0" + System.lineSeparator()
-                + "Warning: Your current spending in Food is $630.0, which exceeds your new budget limit. Consider adjusting your budget or expenses." + System.lineSeparator();
+                + "Budget set for Food: $500.0" + System.lineSeparator();
         User user = new User("username", "password", "nickname");
         user.addTransaction(transaction);
+        user.addTransaction(lastMonth);
         user.addRecurringTransaction(recurringTransaction);
         // Act
         user.setBudgetForCategory();
         // Assert
         assertEquals(desired, out.toString());
     }
-}
\ No newline at end of file
+
+    @Test
+    void addTransaction_1() {
+        // Arrange
+        User user = new User("username", "password", "nickname");
+        LocalDate date = LocalDate.of(2024, 3, 1);
+        user.addTransaction(new Transaction(date, "Food", 12.5, "Expense"));
+        // Act
+        boolean added = user.addTransaction(new Transaction(date, "Food", 12.5, "Expense"));
+        // Assert
+        assertTrue(added);
+        assertEquals(2, user.getTransactions().size());
+        assertEquals(1, user.getFlaggedDuplicates());
+    }
+
+    @Test
+    void addTransaction_2() {
+        // Arrange
+        User user = new User("username", "password", "nickname");
+        user.setDuplicatePolicy(DuplicateIndex.Policy.REJECT);
+        LocalDate date = LocalDate.of(2024, 3, 1);
+        user.addTransaction(new Transaction(date, "Food", 12.5, "Expense"));
+        user.addTransaction(new Transaction(date, "Food", 12.5, "Income"));
+        // Act
+        boolean added = user.addTransaction(new Transaction(date, "Food", 12.5, "Expense"));
+        // Assert
+        assertFalse(added);
+        assertEquals(2, user.getTransactions().size());
+        assertEquals(1, user.getFlaggedDuplicates());
+        assertFalse(user.isDuplicate(new Transaction(date.plusDays(1), "Food", 12.5, "Expense")));
+        assertEquals(new Transaction(date, "Food", 12.5, "Expense").hashCode(), user.getTransactions().getFirst().hashCode());
+    }
+}
@@ -0,0 +1,124 @@
+package Finance;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WriteBehindQueueTest {
+    @TempDir
+    Path tempdir;
+
+    // Tests
+    @Test
+    void submit_1() {
+        // Arrange
+        String fileName = tempdir.resolve("data.txt").toString();
+        User alice = new User("alice", "p", "n");
+        User bob = new User("bob", "p", "n");
+        FileManager.saveUser(alice, fileName);
+        FileManager.saveUser(bob, fileName);
+        WriteBehindQueue queue = new WriteBehindQueue(fileName, 60_000, 1_000, false);
+        // Act
+        for (int i = 0; i < 100; i++) {
+            alice.addTransaction(new Transaction(LocalDate.of(2024, 1, 1), "Food", i + 1, "Expense"));
+            queue.submit(alice);
+        }
+        bob.getBudgetLimits().put("Rent", 900.0);
+        queue.submit(bob);
+        queue.flush();
+        // Assert
+        assertEquals(101, queue.getSubmissions());
+        assertEquals(1, queue.getBatches());
+        assertEquals(2, queue.getUsersWritten());
+        assertEquals(100, FileManager.loadUser("alice", fileName).getTransactions().size());
+        assertEquals(Double.valueOf(900.0), FileManager.loadUser("bob", fileName).getBudgetLimits().get("Rent"));
+        queue.close();
+    }
+
+    @Test
+    void submit_2() {
+        // Arrange
+        String fileName = tempdir.resolve("data.txt").toString();
+        User user = new User("u", "p", "n");
+        FileManager.saveUser(user, fileName);
+        WriteBehindQueue queue = new WriteBehindQueue(fileName, 5, 10, true);
+        FileManager.setWriteBehindQueue(queue);
+        try {
+            user.addTransaction(new Transaction(LocalDate.of(2024, 1, 1), "Food", 12.5, "Expense"));
+            // Act
+            FileManager.persistTransaction(user, user.getTransactions().getLast(), fileName);
+            // Assert
+            assertEquals(1, FileManager.loadUser("u", fileName).getTransactions().size());
+        } finally {
+            FileManager.setWriteBehindQueue(null);
+            queue.close();
+        }
+    }
+
+    @Test
+    void submit_3() {
+        // Arrange
+        String fileName = tempdir.resolve("data.txt").toString();
+        UserStore store = UserStore.forFile(fileName);
+        User alice = new User("alice", "p", "n");
+        store.register(alice);
+        WriteBehindQueue queue = new WriteBehindQueue(fileName, 60_000, 1_000, false);
+        // Act
+        queue.submit(alice);
+        // Journaled after the submit, but before the batch is written and the journal is cleared.
+        store.addTransaction(alice, new Transaction(LocalDate.of(2024, 1, 1), "Food", 12.5, "Expense"));
+        queue.flush();
+        queue.close();
+        // Assert
+        assertFalse(UserJournal.exists("alice", fileName));
+        assertEquals(1, alice.getTransactions().size());
+        assertEquals(1, FileManager.loadUser("alice", fileName).getTransactions().size());
+    }
+
+    @Test
+    void submit_4() {
+        // Arrange
+        String fileName = tempdir.resolve("data.txt").toString();
+        User stored = new User("stored", "p", "n");
+        FileManager.saveUser(stored, fileName);
+        WriteBehindQueue queue = new WriteBehindQueue(fileName, 60_000, 1_000, false);
+        // Act
+        stored.getBudgetLimits().put("Food", 200.0);
+        queue.submit(stored);
+        for (int i = 0; i < 5; i++) {
+            User user = new User("new" + i, "p", "n");
+            user.addTransaction(new Transaction(LocalDate.of(2024, 1, 1), "Food", i + 1, "Expense"));
+            queue.submit(user); // Appended in the same batch as the rewrite of the stored user.
+        }
+        queue.flush();
+        queue.close();
+        // Assert
+        assertEquals(1, queue.getBatches());
+        assertEquals(Double.valueOf(200.0), FileManager.loadUser("stored", fileName).getBudgetLimits().get("Food"));
+        for (int i = 0; i < 5; i++) {
+            assertEquals(i + 1.0, FileManager.loadUser("new" + i, fileName).getTransactions().getFirst().getAmount());
+        }
+        assertFalse(new File(fileName + ".tmp").exists());
+    }
+
+    @Test
+    void close_1() {
+        // Arrange
+        String fileName = tempdir.resolve("data.txt").toString();
+        User user = new User("u", "p", "n");
+        FileManager.saveUser(user, fileName);
+        WriteBehindQueue queue = new WriteBehindQueue(fileName, 60_000, 1_000, false);
+        user.addRecurringTransaction(new RecurringTransaction("Rent", 900, "monthly", "Expense"));
+        queue.submit(user);
+        // Act
+        queue.close();
+        // Assert
+        assertEquals(1, FileManager.loadUser("u", fileName).getRecurringTransactions().size());
+        assertThrows(IllegalStateException.class, () -> queue.submit(user));
+    }
+}